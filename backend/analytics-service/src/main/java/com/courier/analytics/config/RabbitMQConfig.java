@@ -1,5 +1,6 @@
 package com.courier.analytics.config;
 
+import com.courier.events.OrderCreated;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
@@ -30,7 +31,7 @@ public class RabbitMQConfig {
     public Binding binding(Queue orderCreatedQueue, TopicExchange orderExchange) {
         return BindingBuilder.bind(orderCreatedQueue)
                 .to(orderExchange)
-                .with("order.created");
+                .with(OrderCreated.ROUTING_KEY);
     }
 
     @Bean
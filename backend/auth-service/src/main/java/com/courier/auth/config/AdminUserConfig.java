@@ -2,6 +2,7 @@ package com.courier.auth.config;
 
 import com.courier.auth.entity.User;
 import com.courier.auth.repository.UserRepository;
+import com.courier.auth.service.UserChangePublisher;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
@@ -14,6 +15,7 @@ public class AdminUserConfig {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserChangePublisher userChangePublisher;
 
     @Bean
     public CommandLineRunner createAdminUser() {
@@ -27,6 +29,7 @@ public class AdminUserConfig {
                         .role(User.Role.ADMIN)
                         .build();
                 userRepository.save(admin);
+                userChangePublisher.publish(admin);
             }
         };
     }
@@ -0,0 +1,40 @@
+package com.courier.auth.controller;
+
+import com.courier.auth.dto.UserDto;
+import com.courier.auth.service.AuthService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.UUID;
+
+// Service-to-service lookups. Not routed by the gateway; callers present the shared internal key.
+@RestController
+@RequestMapping("/internal/users")
+public class InternalUserController {
+
+    public static final String KEY_HEADER = "X-Internal-Key";
+
+    private final AuthService authService;
+    private final byte[] apiKey;
+
+    public InternalUserController(AuthService authService, @Value("${internal.api-key}") String apiKey) {
+        this.authService = authService;
+        this.apiKey = apiKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Up to AuthService.MAX_BATCH_LOOKUP ids in one query; unknown ids are simply absent from the result
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserDto>> getUsersByIds(
+            @RequestHeader(value = KEY_HEADER, required = false) String key,
+            @RequestBody List<UUID> ids) {
+        if (key == null || !MessageDigest.isEqual(apiKey, key.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(authService.getUsersByIds(ids));
+    }
+}
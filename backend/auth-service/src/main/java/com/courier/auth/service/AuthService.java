@@ -13,12 +13,16 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
+    public static final int MAX_BATCH_LOOKUP = 500;
+
     private final UserRepository userRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final PasswordEncoder passwordEncoder;
@@ -26,6 +30,7 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final UserChangePublisher userChangePublisher;
 
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.email())) {
@@ -40,6 +45,7 @@ public class AuthService {
                 .build();
 
         userRepository.save(user);
+        userChangePublisher.publish(user);
 
         var token = jwtProvider.generateToken(user.getEmail(), user.getId(), user.getRole().name());
         var userDto = new UserDto(user.getId(), user.getEmail(), user.getFullName(), user.getRole().name());
@@ -108,4 +114,13 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return new UserDto(user.getId(), user.getEmail(), user.getFullName(), user.getRole().name());
     }
-}
\ No newline at end of file
+
+    public List<UserDto> getUsersByIds(List<UUID> ids) {
+        if (ids.size() > MAX_BATCH_LOOKUP) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_LOOKUP + " ids per lookup");
+        }
+        return userRepository.findAllById(new HashSet<>(ids)).stream()
+                .map(user -> new UserDto(user.getId(), user.getEmail(), user.getFullName(), user.getRole().name()))
+                .toList();
+    }
+}
@@ -0,0 +1,33 @@
+package com.courier.auth.service;
+
+import com.courier.auth.entity.User;
+import com.courier.events.UserChanged;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Announces every write of a user's directory fields (email, name, role) so other services'
+ * user directories stay current. Users are only ever created here, by registration and the admin
+ * seed; a lost event is repaired when the other side's cached entry expires and is looked up again.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserChangePublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void publish(User user) {
+        try {
+            rabbitTemplate.convertAndSend(UserChanged.EXCHANGE, UserChanged.ROUTING_KEY, UserChanged.of(
+                    user.getId(), user.getEmail(), user.getFullName(), user.getRole().name(), Instant.now()));
+        } catch (AmqpException e) {
+            log.warn("Failed to publish user change for {}: {}", user.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.courier.auth.controller;
+
+import com.courier.auth.dto.UserDto;
+import com.courier.auth.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class InternalUserControllerTest {
+
+    private final AuthService authService = mock(AuthService.class);
+    private final InternalUserController controller = new InternalUserController(authService, "secret-key");
+
+    @Test
+    void batchLookupWithoutValidKeyIsForbidden() {
+        List<UUID> ids = List.of(UUID.randomUUID());
+
+        assertThat(controller.getUsersByIds(null, ids).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(controller.getUsersByIds("wrong-key", ids).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void batchLookupWithKeyReturnsUsers() {
+        UUID id = UUID.randomUUID();
+        List<UserDto> users = List.of(new UserDto(id, "driver@example.com", "Dee Driver", "DRIVER"));
+        when(authService.getUsersByIds(List.of(id))).thenReturn(users);
+
+        assertThat(controller.getUsersByIds("secret-key", List.of(id)).getBody()).isEqualTo(users);
+    }
+}
@@ -0,0 +1,34 @@
+package com.courier.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published on order.exchange with routing key {@value #ROUTING_KEY} when a driver takes a
+ * PENDING order (which moves it to ASSIGNED). Version 2 added {@code customerId}, version 3 the
+ * pickup coordinates and version 4 the delivery coordinates (null when the order has none).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record DriverAssigned(
+    int version,
+    UUID orderId,
+    UUID customerId,
+    UUID driverId,
+    Instant assignedAt,
+    Double pickupLatitude,
+    Double pickupLongitude,
+    Double deliveryLatitude,
+    Double deliveryLongitude
+) {
+    public static final int VERSION = 4;
+    public static final String ROUTING_KEY = "order.assigned";
+
+    public static DriverAssigned of(UUID orderId, UUID customerId, UUID driverId, Instant assignedAt,
+                                    Double pickupLatitude, Double pickupLongitude,
+                                    Double deliveryLatitude, Double deliveryLongitude) {
+        return new DriverAssigned(VERSION, orderId, customerId, driverId, assignedAt, pickupLatitude, pickupLongitude,
+                deliveryLatitude, deliveryLongitude);
+    }
+}
@@ -0,0 +1,24 @@
+package com.courier.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published on order.exchange with routing key {@value #ROUTING_KEY} when an order is placed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OrderCreated(
+    int version,
+    UUID orderId,
+    UUID customerId,
+    Instant createdAt
+) {
+    public static final int VERSION = 1;
+    public static final String ROUTING_KEY = "order.created";
+
+    public static OrderCreated of(UUID orderId, UUID customerId, Instant createdAt) {
+        return new OrderCreated(VERSION, orderId, customerId, createdAt);
+    }
+}
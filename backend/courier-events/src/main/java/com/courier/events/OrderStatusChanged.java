@@ -0,0 +1,33 @@
+package com.courier.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published on order.exchange with routing key {@value #ROUTING_KEY} on every status transition.
+ * Statuses are the order-service OrderStatus names. Version 2 added {@code customerId}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OrderStatusChanged(
+    int version,
+    UUID orderId,
+    UUID customerId,
+    UUID driverId,
+    String previousStatus,
+    String status,
+    Instant changedAt
+) {
+    public static final int VERSION = 2;
+    public static final String ROUTING_KEY = "order.updated";
+
+    public static OrderStatusChanged of(UUID orderId, UUID customerId, UUID driverId, String previousStatus,
+                                        String status, Instant changedAt) {
+        return new OrderStatusChanged(VERSION, orderId, customerId, driverId, previousStatus, status, changedAt);
+    }
+
+    public boolean isTerminal() {
+        return "DELIVERED".equals(status) || "CANCELLED".equals(status);
+    }
+}
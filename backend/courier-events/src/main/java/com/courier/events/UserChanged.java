@@ -0,0 +1,28 @@
+package com.courier.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published on {@value #EXCHANGE} with routing key {@value #ROUTING_KEY} when a user's
+ * directory fields (email, name, role) are created or changed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record UserChanged(
+    int version,
+    UUID userId,
+    String email,
+    String fullName,
+    String role,
+    Instant changedAt
+) {
+    public static final int VERSION = 1;
+    public static final String EXCHANGE = "user.exchange";
+    public static final String ROUTING_KEY = "user.changed";
+
+    public static UserChanged of(UUID userId, String email, String fullName, String role, Instant changedAt) {
+        return new UserChanged(VERSION, userId, email, fullName, role, changedAt);
+    }
+}
@@ -0,0 +1,32 @@
+package com.courier.order.client;
+
+import com.courier.order.dto.UserDto;
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// auth-service lookups that are not exposed through the gateway; requests carry the shared internal key
+@FeignClient(name = "auth-service", contextId = "internalUserClient", path = "/internal/users",
+        configuration = InternalUserClient.KeyConfig.class)
+public interface InternalUserClient {
+
+    // Unknown ids are absent from the result
+    @PostMapping("/batch")
+    List<UserDto> getUsersByIds(@RequestBody Collection<UUID> ids);
+
+    // Not a @Configuration, so the interceptor stays scoped to this client
+    class KeyConfig {
+
+        @Bean
+        RequestInterceptor internalKeyInterceptor(@Value("${internal.api-key}") String apiKey) {
+            return template -> template.header("X-Internal-Key", apiKey);
+        }
+    }
+}
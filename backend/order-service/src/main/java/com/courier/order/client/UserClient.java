@@ -1,15 +0,0 @@
-package com.courier.order.client;
-
-import com.courier.order.dto.UserDto;
-import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-
-import java.util.UUID;
-
-@FeignClient(name = "auth-service", path = "/api/v1/auth/users")
-public interface UserClient {
-
-    @GetMapping("/{id}")
-    UserDto getUserById(@PathVariable("id") UUID id);
-}
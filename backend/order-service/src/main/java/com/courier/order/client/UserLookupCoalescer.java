@@ -0,0 +1,118 @@
+package com.courier.order.client;
+
+import com.courier.order.dto.UserDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Single-user lookups against auth-service, coalesced: ids requested concurrently within a
+ * short window (or until the batch is full) are resolved with one {@link InternalUserClient#getUsersByIds}
+ * call, and callers asking for the same id share the result.
+ */
+@Component
+@Slf4j
+public class UserLookupCoalescer {
+
+    private final InternalUserClient userClient;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Counter batchCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-lookup-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this
+    private Map<UUID, CompletableFuture<UserDto>> pending = new HashMap<>();
+
+    public UserLookupCoalescer(InternalUserClient userClient,
+                               @Value("${user-directory.coalesce-window-ms:5}") long windowMillis,
+                               @Value("${user-directory.max-batch:200}") int maxBatchSize,
+                               MeterRegistry meterRegistry) {
+        this.userClient = userClient;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.batchCounter = meterRegistry.counter("user.lookup.batches");
+        this.batchSizeSummary = meterRegistry.summary("user.lookup.batch.size");
+    }
+
+    /**
+     * @return the user, or null when auth-service does not know the id
+     */
+    public UserDto getUserById(UUID id) {
+        CompletableFuture<UserDto> future;
+        boolean full = false;
+        synchronized (this) {
+            future = pending.get(id);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(id, future);
+                if (pending.size() == 1) {
+                    scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+                full = pending.size() >= maxBatchSize;
+            }
+        }
+        if (full) {
+            flush();
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void flush() {
+        Map<UUID, CompletableFuture<UserDto>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        // The HTTP call runs off the scheduler so the next window is not delayed by it
+        Thread.ofVirtual().name("user-lookup").start(() -> fetch(batch));
+    }
+
+    private void fetch(Map<UUID, CompletableFuture<UserDto>> batch) {
+        batchCounter.increment();
+        batchSizeSummary.record(batch.size());
+        try {
+            List<UserDto> users = userClient.getUsersByIds(batch.keySet());
+            Map<UUID, UserDto> byId = users.stream().collect(Collectors.toMap(UserDto::id, Function.identity(), (a, b) -> a));
+            batch.forEach((id, future) -> future.complete(byId.get(id)));
+        } catch (RuntimeException e) {
+            log.warn("Batch lookup of {} users failed: {}", batch.size(), e.getMessage());
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
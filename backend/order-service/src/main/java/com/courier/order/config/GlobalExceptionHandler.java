@@ -1,5 +1,10 @@
 package com.courier.order.config;
 
+import com.courier.order.exception.IllegalTransitionException;
+import com.courier.order.exception.InvalidBulkRequestException;
+import com.courier.order.exception.InvalidCursorException;
+import com.courier.order.exception.OrderConflictException;
+import com.courier.order.exception.OrderNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,6 +15,41 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursor(InvalidCursorException e) {
+        log.warn("Rejected cursor: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidBulkRequestException.class)
+    public ResponseEntity<String> handleInvalidBulkRequest(InvalidBulkRequestException e) {
+        log.warn("Rejected bulk request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(OrderConflictException.class)
+    public ResponseEntity<String> handleOrderConflict(OrderConflictException e) {
+        log.warn("Order conflict: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalTransitionException.class)
+    public ResponseEntity<String> handleIllegalTransition(IllegalTransitionException e) {
+        log.warn("Illegal transition: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(OrderNotFoundException.class)
+    public ResponseEntity<String> handleOrderNotFound(OrderNotFoundException e) {
+        log.warn("Order not found: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(e.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleException(Exception e) {
         log.error("Unhandled exception occurred", e);
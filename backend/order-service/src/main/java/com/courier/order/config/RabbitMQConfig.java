@@ -1,5 +1,9 @@
 package com.courier.order.config;
 
+import com.courier.events.DriverAssigned;
+import com.courier.events.OrderCreated;
+import com.courier.events.OrderStatusChanged;
+import com.courier.events.UserChanged;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -37,7 +41,7 @@ public class RabbitMQConfig {
     public Binding binding(Queue orderCreatedQueue, TopicExchange orderExchange) {
         return BindingBuilder.bind(orderCreatedQueue)
                 .to(orderExchange)
-                .with("order.created");
+                .with(OrderCreated.ROUTING_KEY);
     }
 
     @Bean
@@ -47,6 +51,66 @@ public class RabbitMQConfig {
                 .with(ORDER_DELIVERED_ROUTING_KEY);
     }
 
+    // Per-instance copy of the order lifecycle for the AvailableOrdersView
+    @Bean
+    public Queue availableOrdersQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding availableOrdersCreatedBinding(Queue availableOrdersQueue, TopicExchange orderExchange) {
+        return BindingBuilder.bind(availableOrdersQueue).to(orderExchange).with(OrderCreated.ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding availableOrdersUpdatedBinding(Queue availableOrdersQueue, TopicExchange orderExchange) {
+        return BindingBuilder.bind(availableOrdersQueue).to(orderExchange).with(OrderStatusChanged.ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding availableOrdersAssignedBinding(Queue availableOrdersQueue, TopicExchange orderExchange) {
+        return BindingBuilder.bind(availableOrdersQueue).to(orderExchange).with(DriverAssigned.ROUTING_KEY);
+    }
+
+    // Per-instance copy of the order lifecycle for the OrderStreamService subscribers connected here
+    @Bean
+    public Queue orderStreamQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding orderStreamCreatedBinding(Queue orderStreamQueue, TopicExchange orderExchange) {
+        return BindingBuilder.bind(orderStreamQueue).to(orderExchange).with(OrderCreated.ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderStreamUpdatedBinding(Queue orderStreamQueue, TopicExchange orderExchange) {
+        return BindingBuilder.bind(orderStreamQueue).to(orderExchange).with(OrderStatusChanged.ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderStreamAssignedBinding(Queue orderStreamQueue, TopicExchange orderExchange) {
+        return BindingBuilder.bind(orderStreamQueue).to(orderExchange).with(DriverAssigned.ROUTING_KEY);
+    }
+
+    @Bean
+    public TopicExchange userExchange() {
+        return new TopicExchange(UserChanged.EXCHANGE);
+    }
+
+    // Every instance keeps its own UserDirectory, so each gets its own auto-deleted copy of the changes
+    @Bean
+    public Queue userDirectoryQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding userDirectoryBinding(Queue userDirectoryQueue, TopicExchange userExchange) {
+        return BindingBuilder.bind(userDirectoryQueue)
+                .to(userExchange)
+                .with(UserChanged.ROUTING_KEY);
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -1,11 +1,16 @@
 package com.courier.order.controller;
 
+import com.courier.order.dto.BulkCreateOrdersResponse;
 import com.courier.order.dto.CreateOrderRequest;
+import com.courier.order.dto.OrderPage;
 import com.courier.order.entity.Order;
 import com.courier.order.service.OrderService;
+import com.courier.order.service.OrderStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,7 +20,11 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class OrderController {
 
+    // Opaque token for the next page; absent on the last page
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final OrderService orderService;
+    private final OrderStreamService orderStreamService;
 
     @PostMapping
     public ResponseEntity<Order> createOrder(
@@ -24,19 +33,40 @@ public class OrderController {
         return ResponseEntity.ok(orderService.createOrder(request, userId));
     }
 
+    // Up to OrderService.MAX_BULK_SIZE orders in one transaction, with a result per item
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateOrdersResponse> createOrders(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestBody List<CreateOrderRequest> requests) {
+        return ResponseEntity.ok(orderService.createOrders(requests, userId));
+    }
+
+    // Listings are newest first and paged by (createdAt, id); pass X-Next-Cursor back as ?cursor=
     @GetMapping
-    public ResponseEntity<List<Order>> getMyOrders(@RequestHeader("X-User-Id") String userId) {
-        return ResponseEntity.ok(orderService.getMyOrders(userId));
+    public ResponseEntity<List<Order>> getMyOrders(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return page(orderService.getMyOrders(userId, cursor, limit));
     }
 
+    // Answered from memory; with lat/lon only orders whose pickup lies within radius meters are listed
     @GetMapping("/available")
-    public ResponseEntity<List<Order>> getAvailableOrders() {
-        return ResponseEntity.ok(orderService.getAvailableOrders());
+    public ResponseEntity<List<Order>> getAvailableOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(defaultValue = "10000") double radius) {
+        return page(orderService.getAvailableOrders(cursor, limit, lat, lon, radius));
     }
 
     @GetMapping("/assigned")
-    public ResponseEntity<List<Order>> getDriverOrders(@RequestHeader("X-User-Id") String driverId) {
-        return ResponseEntity.ok(orderService.getDriverOrders(driverId));
+    public ResponseEntity<List<Order>> getDriverOrders(
+            @RequestHeader("X-User-Id") String driverId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return page(orderService.getDriverOrders(driverId, cursor, limit));
     }
 
     @PutMapping("/{id}/status")
@@ -53,8 +83,25 @@ public class OrderController {
         return ResponseEntity.ok(orderService.assignDriver(id, driverId));
     }
 
+    // Status changes of the caller's orders (as customer or driver) as server-sent events;
+    // reconnect with Last-Event-ID to resume, reload the lists on a "resync" event
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderStreamService.subscribe(UUID.fromString(userId), lastEventId);
+    }
+
     @GetMapping("/recent")
     public ResponseEntity<List<Order>> getRecentActivities(@RequestParam(defaultValue = "10") int limit) {
         return ResponseEntity.ok(orderService.getRecentOrderActivities(limit));
     }
+
+    private static ResponseEntity<List<Order>> page(OrderPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
 }
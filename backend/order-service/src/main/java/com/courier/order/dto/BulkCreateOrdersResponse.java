@@ -0,0 +1,9 @@
+package com.courier.order.dto;
+
+import java.util.List;
+
+public record BulkCreateOrdersResponse(
+    int created,
+    int rejected,
+    List<BulkOrderResult> results
+) {}
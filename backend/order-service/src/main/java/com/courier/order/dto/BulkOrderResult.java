@@ -0,0 +1,10 @@
+package com.courier.order.dto;
+
+import java.util.UUID;
+
+public record BulkOrderResult(
+    int index,      // Position in the request
+    UUID orderId,   // null when rejected
+    String status,  // CREATED or REJECTED
+    String error
+) {}
@@ -3,5 +3,9 @@ package com.courier.order.dto;
 public record CreateOrderRequest(
     String pickupAddress,
     String deliveryAddress,
-    String packageDescription
+    String packageDescription,
+    Double pickupLatitude,
+    Double pickupLongitude,
+    Double deliveryLatitude,
+    Double deliveryLongitude
 ) {}
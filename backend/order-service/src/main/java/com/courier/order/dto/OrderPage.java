@@ -0,0 +1,10 @@
+package com.courier.order.dto;
+
+import com.courier.order.entity.Order;
+
+import java.util.List;
+
+public record OrderPage(
+    List<Order> items,
+    String nextCursor // null on the last page
+) {}
@@ -0,0 +1,20 @@
+package com.courier.order.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record OrderStreamEvent(
+    UUID orderId,
+    String status,
+    String previousStatus, // null for newly created orders
+    UUID driverId,
+    Instant changedAt
+) {
+    /**
+     * SSE id, derived from the event itself so every instance assigns the same id and a
+     * client can resume on whichever instance it reconnects to.
+     */
+    public String eventId() {
+        return changedAt.toEpochMilli() + "-" + orderId + "-" + status;
+    }
+}
@@ -12,7 +12,24 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+// Guarded status change in one statement; the locked subselect exposes the status it replaced
+@NamedNativeQuery(name = "Order.transition",
+        query = "UPDATE orders o SET status = :status, updated_at = :now "
+                + "FROM (SELECT id, status FROM orders WHERE id = :id FOR UPDATE) prev "
+                + "WHERE o.id = prev.id AND prev.status IN (:sources) "
+                + "RETURNING o.*, prev.status AS previous_status",
+        resultSetMapping = "Order.transition")
+@SqlResultSetMapping(name = "Order.transition",
+        entities = @EntityResult(entityClass = Order.class),
+        columns = @ColumnResult(name = "previous_status", type = String.class))
+// Composite indexes back the (createdAt, id) keyset pages in OrderRepository;
+// updated_at backs the AvailableOrdersView resync
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at, id"),
+        @Index(name = "idx_orders_driver_created", columnList = "driver_id, created_at, id"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_orders_updated", columnList = "updated_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -39,6 +56,16 @@ public class Order {
     @Column(nullable = false)
     private String packageDescription;
 
+    // Optional pickup coordinates; orders without them are left out of distance-filtered listings
+    private Double pickupLatitude;
+
+    private Double pickupLongitude;
+
+    // Optional delivery coordinates; tracking fences and estimates arrival at them
+    private Double deliveryLatitude;
+
+    private Double deliveryLongitude;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
@@ -0,0 +1,7 @@
+package com.courier.order.exception;
+
+public class IllegalTransitionException extends RuntimeException {
+    public IllegalTransitionException(String message) {
+        super(message);
+    }
+}
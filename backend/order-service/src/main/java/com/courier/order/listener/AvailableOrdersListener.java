@@ -0,0 +1,37 @@
+package com.courier.order.listener;
+
+import com.courier.events.DriverAssigned;
+import com.courier.events.OrderCreated;
+import com.courier.events.OrderStatusChanged;
+import com.courier.order.entity.Order;
+import com.courier.order.service.AvailableOrdersView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+// Events of every instance reach every instance, so each view sees all changes
+@Component
+@RequiredArgsConstructor
+@RabbitListener(queues = "#{availableOrdersQueue.name}")
+public class AvailableOrdersListener {
+
+    private final AvailableOrdersView availableOrdersView;
+
+    @RabbitHandler
+    public void handleOrderCreated(OrderCreated event) {
+        availableOrdersView.onCreated(event.orderId());
+    }
+
+    @RabbitHandler
+    public void handleDriverAssigned(DriverAssigned event) {
+        availableOrdersView.onLeftPending(event.orderId());
+    }
+
+    @RabbitHandler
+    public void handleStatusChanged(OrderStatusChanged event) {
+        if (!Order.OrderStatus.PENDING.name().equals(event.status())) {
+            availableOrdersView.onLeftPending(event.orderId());
+        }
+    }
+}
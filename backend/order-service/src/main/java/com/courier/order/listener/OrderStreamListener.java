@@ -0,0 +1,49 @@
+package com.courier.order.listener;
+
+import com.courier.events.DriverAssigned;
+import com.courier.events.OrderCreated;
+import com.courier.events.OrderStatusChanged;
+import com.courier.order.dto.OrderStreamEvent;
+import com.courier.order.entity.Order;
+import com.courier.order.service.OrderStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Events arrive after their transaction committed (via the outbox), on every instance
+@Component
+@RequiredArgsConstructor
+@RabbitListener(queues = "#{orderStreamQueue.name}")
+public class OrderStreamListener {
+
+    private final OrderStreamService orderStreamService;
+
+    @RabbitHandler
+    public void handleOrderCreated(OrderCreated event) {
+        orderStreamService.publish(new OrderStreamEvent(event.orderId(), Order.OrderStatus.PENDING.name(), null,
+                null, event.createdAt()), recipients(event.customerId(), null));
+    }
+
+    @RabbitHandler
+    public void handleDriverAssigned(DriverAssigned event) {
+        orderStreamService.publish(new OrderStreamEvent(event.orderId(), Order.OrderStatus.ASSIGNED.name(),
+                Order.OrderStatus.PENDING.name(), event.driverId(), event.assignedAt()),
+                recipients(event.customerId(), event.driverId()));
+    }
+
+    @RabbitHandler
+    public void handleStatusChanged(OrderStatusChanged event) {
+        orderStreamService.publish(new OrderStreamEvent(event.orderId(), event.status(), event.previousStatus(),
+                event.driverId(), event.changedAt()), recipients(event.customerId(), event.driverId()));
+    }
+
+    private static List<UUID> recipients(UUID customerId, UUID driverId) {
+        return Stream.of(customerId, driverId).filter(Objects::nonNull).distinct().toList();
+    }
+}
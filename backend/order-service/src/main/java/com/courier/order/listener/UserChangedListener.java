@@ -0,0 +1,23 @@
+package com.courier.order.listener;
+
+import com.courier.events.UserChanged;
+import com.courier.order.dto.UserDto;
+import com.courier.order.service.UserDirectory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserChangedListener {
+
+    private final UserDirectory userDirectory;
+
+    @RabbitListener(queues = "#{userDirectoryQueue.name}")
+    public void handleUserChanged(UserChanged event) {
+        log.debug("User {} changed", event.userId());
+        userDirectory.put(new UserDto(event.userId(), event.email(), event.fullName(), event.role()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.courier.order.repository;
+
+import com.courier.order.entity.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Plain JDBC batch insert for bulk order creation. Ids are generated by the caller, so no
+ * per-row round trip is needed, and with reWriteBatchedInserts the driver folds each batch
+ * into multi-row INSERTs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO orders "
+            + "(id, customer_id, pickup_address, delivery_address, package_description, pickup_latitude, pickup_longitude, "
+            + "delivery_latitude, delivery_longitude, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Order> orders) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, orders, BATCH_SIZE, (ps, order) -> {
+            ps.setObject(1, order.getId());
+            ps.setObject(2, order.getCustomerId());
+            ps.setString(3, order.getPickupAddress());
+            ps.setString(4, order.getDeliveryAddress());
+            ps.setString(5, order.getPackageDescription());
+            ps.setObject(6, order.getPickupLatitude(), Types.DOUBLE);
+            ps.setObject(7, order.getPickupLongitude(), Types.DOUBLE);
+            ps.setObject(8, order.getDeliveryLatitude(), Types.DOUBLE);
+            ps.setObject(9, order.getDeliveryLongitude(), Types.DOUBLE);
+            ps.setString(10, order.getStatus().name());
+            ps.setObject(11, order.getCreatedAt().atOffset(ZoneOffset.UTC));
+            ps.setObject(12, order.getUpdatedAt().atOffset(ZoneOffset.UTC));
+        });
+    }
+}
@@ -2,7 +2,13 @@ package com.courier.order.repository;
 
 import com.courier.order.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable; // Add this import
@@ -12,5 +18,54 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByDriverId(UUID driverId);
     List<Order> findByStatus(Order.OrderStatus status);
     List<Order> findTopByOrderByCreatedAtDesc(Pageable pageable); // Corrected method signature
-}
 
+    // Keyset pages, newest first. The row comparison lets Postgres walk the
+    // (owner, created_at, id) indexes on Order directly, so deep pages cost the same as the first.
+
+    @Query(value = "SELECT * FROM orders WHERE customer_id = :customerId "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findFirstPageByCustomerId(@Param("customerId") UUID customerId, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders WHERE customer_id = :customerId AND (created_at, id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findPageByCustomerId(@Param("customerId") UUID customerId, @Param("createdAt") Instant createdAt,
+                                     @Param("id") UUID id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders WHERE driver_id = :driverId "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findFirstPageByDriverId(@Param("driverId") UUID driverId, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders WHERE driver_id = :driverId AND (created_at, id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findPageByDriverId(@Param("driverId") UUID driverId, @Param("createdAt") Instant createdAt,
+                                   @Param("id") UUID id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders WHERE status = :status "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findFirstPageByStatus(@Param("status") String status, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders WHERE status = :status AND (created_at, id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findPageByStatus(@Param("status") String status, @Param("createdAt") Instant createdAt,
+                                 @Param("id") UUID id, @Param("limit") int limit);
+
+    // Orders written since a watermark, for reconciling the in-memory AvailableOrdersView
+    @Query(value = "SELECT * FROM orders WHERE updated_at > :since", nativeQuery = true)
+    List<Order> findChangedSince(@Param("since") Instant since);
+
+    // Conditional writes: the WHERE clause carries the allowed source statuses, so two callers
+    // racing for the same order cannot both succeed. No row back means the guard failed.
+
+    /**
+     * Moves the order to {@code status} if it is currently in one of {@code sources}.
+     * Rows are {@code [Order updated, String previousStatus]}; see the named query on {@link Order}.
+     */
+    @Query(name = "Order.transition")
+    List<Object[]> transition(@Param("id") UUID id, @Param("status") String status,
+                              @Param("sources") Collection<String> sources, @Param("now") Instant now);
+
+    @Query(value = "UPDATE orders SET status = 'ASSIGNED', driver_id = :driverId, driver_name = :driverName, "
+            + "updated_at = :now WHERE id = :id AND status = 'PENDING' RETURNING *", nativeQuery = true)
+    Optional<Order> claim(@Param("id") UUID id, @Param("driverId") UUID driverId,
+                          @Param("driverName") String driverName, @Param("now") Instant now);
+}
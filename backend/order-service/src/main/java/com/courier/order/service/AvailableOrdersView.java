@@ -0,0 +1,186 @@
+package com.courier.order.service;
+
+import com.courier.order.dto.OrderPage;
+import com.courier.order.entity.Order;
+import com.courier.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory view of PENDING orders in listing order (newest first), so driver polling never
+ * touches the database. Built once at startup and kept current from order events; created
+ * orders are loaded in one query per tick, orders leaving PENDING are dropped immediately.
+ * The event queue is not durable, so a periodic resync re-reads the orders changed since the
+ * previous pass and repairs whatever an event missed.
+ */
+@Service
+@Slf4j
+public class AvailableOrdersView {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    // Same order as the SQL listings: created_at DESC, id DESC (Postgres compares uuids as unsigned bytes)
+    private static final Comparator<OrderCursor> NEWEST_FIRST = Comparator.comparing(OrderCursor::createdAt)
+            .thenComparing(OrderCursor::id, AvailableOrdersView::compareUnsigned)
+            .reversed();
+
+    private final OrderRepository orderRepository;
+    private final long tombstoneMillis;
+    private final Duration resyncLag;
+    private final Counter repairedCounter;
+
+    private final NavigableMap<OrderCursor, Order> orders = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+    private final Map<UUID, OrderCursor> keys = new ConcurrentHashMap<>();
+    private final Set<UUID> toLoad = ConcurrentHashMap.newKeySet();
+    // Orders that left PENDING recently; a load that read them before the change must not re-add them
+    private final Map<UUID, Long> removed = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private volatile Instant syncedAt;
+
+    public AvailableOrdersView(OrderRepository orderRepository,
+                               @Value("${orders.available-view.tombstone-seconds:60}") long tombstoneSeconds,
+                               @Value("${orders.available-view.resync-lag-seconds:10}") long resyncLagSeconds,
+                               MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.tombstoneMillis = tombstoneSeconds * 1000;
+        this.resyncLag = Duration.ofSeconds(resyncLagSeconds);
+        this.repairedCounter = meterRegistry.counter("orders.available.resync.repaired");
+        Gauge.builder("orders.available.size", keys, Map::size)
+                .register(meterRegistry);
+    }
+
+    // Runs after the listener containers started, so no event between snapshot and subscription is lost
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        syncedAt = Instant.now();
+        List<Order> pending = orderRepository.findByStatus(Order.OrderStatus.PENDING);
+        pending.forEach(this::add);
+        ready = true;
+        log.info("Available orders view built with {} orders", keys.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void onCreated(UUID orderId) {
+        toLoad.add(orderId);
+    }
+
+    public synchronized void onLeftPending(UUID orderId) {
+        removed.put(orderId, System.currentTimeMillis());
+        toLoad.remove(orderId);
+        OrderCursor key = keys.remove(orderId);
+        if (key != null) {
+            orders.remove(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.available-view.load-interval-ms:250}")
+    public void loadCreated() {
+        if (!toLoad.isEmpty()) {
+            List<UUID> ids = new ArrayList<>(toLoad);
+            ids.forEach(toLoad::remove);
+            for (Order order : orderRepository.findAllById(ids)) {
+                if (order.getStatus() == Order.OrderStatus.PENDING) {
+                    add(order);
+                }
+            }
+        }
+        long cutoff = System.currentTimeMillis() - tombstoneMillis;
+        removed.values().removeIf(removedAt -> removedAt < cutoff);
+    }
+
+    /**
+     * Re-reads orders changed since the previous pass (minus a lag for late commits) and adds
+     * PENDING ones the view is missing and drops ones that left PENDING. Cost is bounded by the
+     * order churn of one interval plus the lag, not by the number of open orders.
+     */
+    @Scheduled(fixedDelayString = "${orders.available-view.resync-interval-ms:5000}")
+    public void resync() {
+        if (!ready) {
+            return;
+        }
+        Instant started = Instant.now();
+        int repaired = 0;
+        for (Order order : orderRepository.findChangedSince(syncedAt.minus(resyncLag))) {
+            if (order.getStatus() == Order.OrderStatus.PENDING) {
+                repaired += add(order) ? 1 : 0;
+            } else if (keys.containsKey(order.getId())) {
+                onLeftPending(order.getId());
+                repaired++;
+            }
+        }
+        syncedAt = started;
+        if (repaired > 0) {
+            repairedCounter.increment(repaired);
+            log.info("Available orders resync repaired {} orders", repaired);
+        }
+    }
+
+    /**
+     * One page after {@code after} (null for the first). With a latitude and longitude only
+     * orders whose pickup coordinates lie within {@code radiusMeters} are listed.
+     */
+    OrderPage page(OrderCursor after, int size, Double latitude, Double longitude, double radiusMeters) {
+        boolean nearby = latitude != null && longitude != null;
+        NavigableMap<OrderCursor, Order> from = after == null ? orders : orders.tailMap(after, false);
+        List<Order> items = new ArrayList<>(size);
+        for (Order order : from.values()) {
+            if (nearby && !isWithin(order, latitude, longitude, radiusMeters)) {
+                continue;
+            }
+            if (items.size() == size) {
+                return new OrderPage(items, OrderCursor.after(items.get(size - 1)).encode());
+            }
+            items.add(order);
+        }
+        return new OrderPage(items, null);
+    }
+
+    private synchronized boolean add(Order order) {
+        if (removed.containsKey(order.getId()) || keys.containsKey(order.getId())) {
+            return false;
+        }
+        OrderCursor key = OrderCursor.after(order);
+        keys.put(order.getId(), key);
+        orders.put(key, order);
+        return true;
+    }
+
+    private static boolean isWithin(Order order, double latitude, double longitude, double radiusMeters) {
+        if (order.getPickupLatitude() == null || order.getPickupLongitude() == null) {
+            return false;
+        }
+        double dLat = Math.toRadians(order.getPickupLatitude() - latitude);
+        double dLon = Math.toRadians(order.getPickupLongitude() - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(order.getPickupLatitude()))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a)) <= radiusMeters;
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int most = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return most != 0 ? most : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
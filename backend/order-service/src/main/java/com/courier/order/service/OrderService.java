@@ -1,30 +1,61 @@
 package com.courier.order.service;
 
-import com.courier.order.client.UserClient;
 import com.courier.order.dto.UserDto;
 import com.courier.order.config.RabbitMQConfig;
+import com.courier.order.dto.BulkCreateOrdersResponse;
+import com.courier.order.dto.BulkOrderResult;
 import com.courier.order.dto.CreateOrderRequest;
+import com.courier.order.dto.OrderPage;
 import com.courier.order.entity.Order;
+import com.courier.order.exception.IllegalTransitionException;
+import com.courier.order.exception.InvalidBulkRequestException;
+import com.courier.order.exception.OrderConflictException;
+import com.courier.order.exception.OrderNotFoundException;
+import com.courier.order.repository.OrderBatchRepository;
 import com.courier.order.repository.OrderRepository;
+import com.courier.events.DriverAssigned;
+import com.courier.events.OrderCreated;
+import com.courier.events.OrderStatusChanged;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BULK_SIZE = 1000;
+
+    // Statuses each status may be entered from; terminal statuses are never a source
+    private static final Map<Order.OrderStatus, Set<Order.OrderStatus>> TRANSITION_SOURCES = Map.of(
+            Order.OrderStatus.ASSIGNED, EnumSet.of(Order.OrderStatus.PENDING),
+            Order.OrderStatus.PICKED_UP, EnumSet.of(Order.OrderStatus.ASSIGNED),
+            Order.OrderStatus.DELIVERED, EnumSet.of(Order.OrderStatus.PICKED_UP),
+            Order.OrderStatus.CANCELLED, EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.ASSIGNED, Order.OrderStatus.PICKED_UP));
+
     private final OrderRepository orderRepository;
-    private final RabbitTemplate rabbitTemplate;
-    private final UserClient userClient;
+    private final OrderBatchRepository orderBatchRepository;
+    private final OutboxService outboxService;
+    private final AvailableOrdersView availableOrdersView;
+    private final UserDirectory userDirectory;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public Order createOrder(CreateOrderRequest request, String customerId) {
@@ -33,110 +64,234 @@ public class OrderService {
                 .pickupAddress(request.pickupAddress())
                 .deliveryAddress(request.deliveryAddress())
                 .packageDescription(request.packageDescription())
+                .pickupLatitude(request.pickupLatitude())
+                .pickupLongitude(request.pickupLongitude())
+                .deliveryLatitude(request.deliveryLatitude())
+                .deliveryLongitude(request.deliveryLongitude())
                 .status(Order.OrderStatus.PENDING)
                 .build();
 
         Order savedOrder = orderRepository.save(order);
         
-        // Publish Event
-        rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE, "order.created", savedOrder);
+        // Publish Event (via the outbox, after commit)
+        outboxService.enqueue(RabbitMQConfig.ORDER_EXCHANGE, OrderCreated.ROUTING_KEY,
+                OrderCreated.of(savedOrder.getId(), savedOrder.getCustomerId(), savedOrder.getCreatedAt()));
         log.info("Order created: {}", savedOrder.getId());
         
         return savedOrder;
     }
 
+    /**
+     * Creates a batch of orders in one transaction. Invalid items are rejected individually;
+     * the valid ones are inserted with client-generated ids in JDBC batches and their
+     * OrderCreated events are written to the outbox in one batch as well.
+     */
+    @Transactional
+    public BulkCreateOrdersResponse createOrders(List<CreateOrderRequest> requests, String customerId) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidBulkRequestException("At least one order is required");
+        }
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new InvalidBulkRequestException("At most " + MAX_BULK_SIZE + " orders per request");
+        }
+
+        UUID customer = UUID.fromString(customerId);
+        Instant now = Instant.now();
+        List<BulkOrderResult> results = new ArrayList<>(requests.size());
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validate(requests.get(i));
+            if (error != null) {
+                results.add(new BulkOrderResult(i, null, "REJECTED", error));
+                continue;
+            }
+            CreateOrderRequest request = requests.get(i);
+            Order order = Order.builder()
+                    .id(UUID.randomUUID())
+                    .customerId(customer)
+                    .pickupAddress(request.pickupAddress())
+                    .deliveryAddress(request.deliveryAddress())
+                    .packageDescription(request.packageDescription())
+                    .pickupLatitude(request.pickupLatitude())
+                    .pickupLongitude(request.pickupLongitude())
+                    .deliveryLatitude(request.deliveryLatitude())
+                    .deliveryLongitude(request.deliveryLongitude())
+                    .status(Order.OrderStatus.PENDING)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+            orders.add(order);
+            results.add(new BulkOrderResult(i, order.getId(), "CREATED", null));
+        }
+
+        if (!orders.isEmpty()) {
+            orderBatchRepository.insertAll(orders);
+            outboxService.enqueueAll(RabbitMQConfig.ORDER_EXCHANGE, OrderCreated.ROUTING_KEY, orders.stream()
+                    .map(order -> OrderCreated.of(order.getId(), order.getCustomerId(), order.getCreatedAt()))
+                    .toList());
+        }
+        log.info("Bulk created {} of {} orders for customer {}", orders.size(), requests.size(), customerId);
+        return new BulkCreateOrdersResponse(orders.size(), requests.size() - orders.size(), results);
+    }
+
+    private static String validate(CreateOrderRequest request) {
+        if (request == null) {
+            return "Order is empty";
+        }
+        if (request.pickupAddress() == null || request.pickupAddress().isBlank()) {
+            return "pickupAddress is required";
+        }
+        if (request.deliveryAddress() == null || request.deliveryAddress().isBlank()) {
+            return "deliveryAddress is required";
+        }
+        if (request.packageDescription() == null || request.packageDescription().isBlank()) {
+            return "packageDescription is required";
+        }
+        return null;
+    }
+
+    /**
+     * Applies a status change with one guarded UPDATE. Repeating the current status is a no-op.
+     * If another request already moved the order past every status the change may start from,
+     * an {@link OrderConflictException} is thrown; a change that could not have applied from any
+     * status the order has been in (PENDING to DELIVERED, anything to PENDING) is an
+     * {@link IllegalTransitionException}.
+     */
     @Transactional
     public Order updateStatus(UUID orderId, Order.OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+        Set<Order.OrderStatus> allowed = TRANSITION_SOURCES.getOrDefault(newStatus, Set.of());
+        if (allowed.isEmpty()) {
+            throw new IllegalTransitionException("Orders cannot move to " + newStatus);
+        }
+        List<String> sources = allowed.stream()
+                .map(Enum::name)
+                .toList();
+        List<Object[]> rows = orderRepository.transition(orderId, newStatus.name(), sources, Instant.now());
+        if (rows.isEmpty()) {
+            return unchangedOrRejected(orderId, newStatus, allowed);
+        }
 
-        validateTransition(order.getStatus(), newStatus);
-        
-        order.setStatus(newStatus);
-        Order updatedOrder = orderRepository.save(order);
-        
-        rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE, "order.updated", updatedOrder);
+        Order updatedOrder = (Order) rows.get(0)[0];
+        String previousStatus = (String) rows.get(0)[1];
+        outboxService.enqueue(RabbitMQConfig.ORDER_EXCHANGE, OrderStatusChanged.ROUTING_KEY,
+                OrderStatusChanged.of(orderId, updatedOrder.getCustomerId(), updatedOrder.getDriverId(),
+                        previousStatus, newStatus.name(), Instant.now()));
         return updatedOrder;
     }
-    
-    @Transactional
+
+    /**
+     * Claims a PENDING order for a driver. The driver name is resolved from the
+     * {@link UserDirectory} before the transaction starts, so a slow auth-service never holds a
+     * pooled connection; losing a race to another driver is a conflict.
+     */
     public Order assignDriver(UUID orderId, UUID driverId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        if (order.getStatus() != Order.OrderStatus.PENDING) {
-            throw new IllegalStateException("Order must be PENDING to assign driver");
+        String driverName = fetchDriverName(driverId);
+        return transactionTemplate.execute(status -> claim(orderId, driverId, driverName));
+    }
+
+    private Order claim(UUID orderId, UUID driverId, String driverName) {
+        Optional<Order> claimed = orderRepository.claim(orderId, driverId, driverName, Instant.now());
+        if (claimed.isEmpty()) {
+            // The order is not PENDING (or gone); if the view still lists it, it missed an event
+            availableOrdersView.onLeftPending(orderId);
+            Order order = findOrder(orderId);
+            if (order.getStatus() == Order.OrderStatus.ASSIGNED && driverId.equals(order.getDriverId())) {
+                return order; // Retried claim by the same driver
+            }
+            throw new OrderConflictException("Order " + orderId + " is " + order.getStatus() + " and cannot be assigned");
         }
 
-        order.setDriverId(driverId);
-        
+        Order order = claimed.get();
+        outboxService.enqueue(RabbitMQConfig.ORDER_EXCHANGE, DriverAssigned.ROUTING_KEY,
+                DriverAssigned.of(orderId, order.getCustomerId(), driverId, Instant.now(),
+                        order.getPickupLatitude(), order.getPickupLongitude(),
+                        order.getDeliveryLatitude(), order.getDeliveryLongitude()));
+        return order;
+    }
+
+    private String fetchDriverName(UUID driverId) {
         try {
-            UserDto driver = userClient.getUserById(driverId);
+            UserDto driver = userDirectory.get(driverId);
             if (driver != null) {
-                log.info("Fetched driver details: {}", driver);
-                order.setDriverName(driver.fullName());
-            } else {
-                log.warn("Driver details fetched are null for id: {}", driverId);
+                log.debug("Resolved driver details: {}", driver);
+                return driver.fullName();
             }
-        } catch (feign.FeignException.NotFound e) {
-             log.warn("Driver with ID {} not found in Auth Service. Using default name.", driverId);
-             order.setDriverName("Unknown Driver");
+            log.warn("Driver with ID {} not found in Auth Service. Using default name.", driverId);
+            return "Unknown Driver";
         } catch (Exception e) {
             log.error("Failed to fetch driver name for id: {}. Error: {}", driverId, e.getMessage(), e);
         }
+        return null;
+    }
 
-        order.setStatus(Order.OrderStatus.ASSIGNED);
-        return orderRepository.save(order);
+    // The guarded UPDATE matched nothing: tell a missing order, a repeat, a conflict and an illegal change apart.
+    // Statuses are declared in lifecycle order, so an order past one of the sources was moved under the caller.
+    private Order unchangedOrRejected(UUID orderId, Order.OrderStatus newStatus, Set<Order.OrderStatus> sources) {
+        Order order = findOrder(orderId);
+        Order.OrderStatus current = order.getStatus();
+        if (current == newStatus) {
+            return order;
+        }
+        String message = "Order " + orderId + " is " + current + " and cannot move to " + newStatus;
+        if (sources.stream().anyMatch(source -> source.compareTo(current) < 0)) {
+            throw new OrderConflictException(message);
+        }
+        throw new IllegalTransitionException(message);
     }
 
-    public List<Order> getMyOrders(String customerId) {
-        return orderRepository.findByCustomerId(UUID.fromString(customerId));
+    private Order findOrder(UUID orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order " + orderId + " not found"));
     }
 
-    public List<Order> getAvailableOrders() {
-        return orderRepository.findByStatus(Order.OrderStatus.PENDING);
+    public OrderPage getMyOrders(String customerId, String cursor, int limit) {
+        UUID id = UUID.fromString(customerId);
+        return page(cursor, limit,
+                size -> orderRepository.findFirstPageByCustomerId(id, size),
+                (after, size) -> orderRepository.findPageByCustomerId(id, after.createdAt(), after.id(), size));
     }
 
-    public List<Order> getDriverOrders(String driverId) {
-        return orderRepository.findByDriverId(UUID.fromString(driverId));
+    /**
+     * Served from the in-memory {@link AvailableOrdersView}. Until the view has been built at
+     * startup the page comes from the database and the distance filter is not applied.
+     */
+    public OrderPage getAvailableOrders(String cursor, int limit, Double latitude, Double longitude, double radiusMeters) {
+        if (availableOrdersView.isReady()) {
+            int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            OrderCursor after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+            return availableOrdersView.page(after, size, latitude, longitude, radiusMeters);
+        }
+        String status = Order.OrderStatus.PENDING.name();
+        return page(cursor, limit,
+                size -> orderRepository.findFirstPageByStatus(status, size),
+                (after, size) -> orderRepository.findPageByStatus(status, after.createdAt(), after.id(), size));
     }
 
-    public List<Order> getRecentOrderActivities(int limit) {
-        // Use PageRequest to limit the number of results and sort by creation date descending
-        return orderRepository.findTopByOrderByCreatedAtDesc(PageRequest.of(0, limit, Sort.by("createdAt").descending()));
+    public OrderPage getDriverOrders(String driverId, String cursor, int limit) {
+        UUID id = UUID.fromString(driverId);
+        return page(cursor, limit,
+                size -> orderRepository.findFirstPageByDriverId(id, size),
+                (after, size) -> orderRepository.findPageByDriverId(id, after.createdAt(), after.id(), size));
     }
 
-    private void validateTransition(Order.OrderStatus current, Order.OrderStatus next) {
-        if (current == next) {
-            return;
-        }
-        
-        if (current == Order.OrderStatus.DELIVERED || current == Order.OrderStatus.CANCELLED) {
-            throw new IllegalStateException("Cannot update terminal state: " + current);
-        }
-
-        if (next == Order.OrderStatus.CANCELLED) {
-            return; // Can cancel from any non-terminal state
-        }
-
-        switch (current) {
-            case PENDING:
-                if (next != Order.OrderStatus.ASSIGNED) {
-                    throw new IllegalStateException("PENDING orders must be ASSIGNED next");
-                }
-                break;
-            case ASSIGNED:
-                if (next != Order.OrderStatus.PICKED_UP) {
-                    throw new IllegalStateException("ASSIGNED orders must be PICKED_UP next");
-                }
-                break;
-            case PICKED_UP:
-                if (next != Order.OrderStatus.DELIVERED) {
-                    throw new IllegalStateException("PICKED_UP orders must be DELIVERED next");
-                }
-                break;
-            default:
-                throw new IllegalStateException("Invalid state transition from " + current + " to " + next);
+    // Fetches one row more than requested to learn whether another page exists
+    private OrderPage page(String cursor, int limit,
+                           IntFunction<List<Order>> firstPage,
+                           BiFunction<OrderCursor, Integer, List<Order>> nextPage) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Order> rows = cursor == null || cursor.isBlank()
+                ? firstPage.apply(size + 1)
+                : nextPage.apply(OrderCursor.decode(cursor), size + 1);
+        if (rows.size() <= size) {
+            return new OrderPage(rows, null);
         }
+        List<Order> items = rows.subList(0, size);
+        return new OrderPage(items, OrderCursor.after(items.get(size - 1)).encode());
+    }
+
+    public List<Order> getRecentOrderActivities(int limit) {
+        // Use PageRequest to limit the number of results and sort by creation date descending
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return orderRepository.findTopByOrderByCreatedAtDesc(PageRequest.of(0, size, Sort.by("createdAt").descending()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,237 @@
+package com.courier.order.service;
+
+import com.courier.order.dto.OrderStreamEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent order status changes, per user (customer or driver). Each subscriber has its own
+ * queue drained on a virtual thread, so a slow client never delays the others or the listener,
+ * and an idle connection costs no thread at all. The last few events of each user are kept so
+ * a reconnect with Last-Event-ID can resume; when they do not reach back far enough the client
+ * gets a {@value #RESYNC_EVENT} event and should reload its lists.
+ */
+@Service
+@Slf4j
+public class OrderStreamService {
+
+    public static final String STATUS_EVENT = "status";
+    public static final String RESYNC_EVENT = "resync";
+
+    private final long timeoutMillis;
+    private final int replaySize;
+    private final long replayIdleMillis;
+    private final Counter sentCounter;
+    private final Counter resyncCounter;
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<UUID, Replay> replays = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OrderStreamService(@Value("${order-stream.timeout-minutes:30}") long timeoutMinutes,
+                              @Value("${order-stream.replay-size:50}") int replaySize,
+                              @Value("${order-stream.replay-idle-minutes:10}") long replayIdleMinutes,
+                              MeterRegistry meterRegistry) {
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.replaySize = replaySize;
+        this.replayIdleMillis = TimeUnit.MINUTES.toMillis(replayIdleMinutes);
+        this.sentCounter = meterRegistry.counter("order.stream.sent");
+        this.resyncCounter = meterRegistry.counter("order.stream.resyncs");
+        Gauge.builder("order.stream.connections", connections, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(UUID userId, String lastEventId) {
+        Subscriber subscriber = new Subscriber(userId, newEmitter());
+        subscriber.emitter.onCompletion(() -> unsubscribe(userId, subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(userId, subscriber));
+        subscriber.emitter.onError(e -> unsubscribe(userId, subscriber));
+        subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+        connections.incrementAndGet();
+
+        // Registered first so nothing published meanwhile is lost; ids let the client drop a repeat
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            replay(userId, subscriber, lastEventId);
+        }
+        return subscriber.emitter;
+    }
+
+    public void publish(OrderStreamEvent event, Collection<UUID> userIds) {
+        for (UUID userId : userIds) {
+            replays.computeIfAbsent(userId, id -> new Replay()).add(event);
+            Set<Subscriber> current = subscribers.get(userId);
+            if (current != null) {
+                current.forEach(subscriber -> subscriber.enqueue(statusEvent(event)));
+            }
+        }
+    }
+
+    // Keeps proxies from closing idle streams and finds clients that went away
+    @Scheduled(fixedDelayString = "${order-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber ->
+                subscriber.enqueue(SseEmitter.event().comment("keep-alive"))));
+    }
+
+    @Scheduled(fixedDelayString = "${order-stream.replay-sweep-ms:60000}")
+    public void sweepReplays() {
+        long cutoff = System.currentTimeMillis() - replayIdleMillis;
+        replays.entrySet().removeIf(entry -> entry.getValue().lastTouched < cutoff && !subscribers.containsKey(entry.getKey()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdown();
+    }
+
+    private void replay(UUID userId, Subscriber subscriber, String lastEventId) {
+        Replay replay = replays.get(userId);
+        List<OrderStreamEvent> events = replay != null ? replay.snapshot() : List.of();
+        int position = -1;
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i).eventId().equals(lastEventId)) {
+                position = i;
+                break;
+            }
+        }
+        if (position < 0) {
+            // Another instance's id or an evicted one: resume by time if the buffer reaches back that far.
+            // The whole millisecond is resent, since other orders may have changed in it; the client
+            // drops the events whose ids it has already seen
+            long since = sinceMillis(lastEventId);
+            if (events.isEmpty() || since < events.get(0).changedAt().toEpochMilli()) {
+                resyncCounter.increment();
+                subscriber.enqueue(SseEmitter.event().name(RESYNC_EVENT).data(""));
+            }
+            events.stream()
+                    .filter(event -> event.changedAt().toEpochMilli() >= since)
+                    .forEach(event -> subscriber.enqueue(statusEvent(event)));
+            return;
+        }
+        events.subList(position + 1, events.size()).forEach(event -> subscriber.enqueue(statusEvent(event)));
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void unsubscribe(UUID userId, Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        subscribers.computeIfPresent(userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static SseEmitter.SseEventBuilder statusEvent(OrderStreamEvent event) {
+        return SseEmitter.event().id(event.eventId()).name(STATUS_EVENT).data(event);
+    }
+
+    private static long sinceMillis(String eventId) {
+        try {
+            int separator = eventId.indexOf('-');
+            return Long.parseLong(separator < 0 ? eventId : eventId.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private final class Subscriber {
+
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        // At most one drain per subscriber runs at a time, which keeps its events in order
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    emitter.send(event);
+                    sentCounter.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Order stream of {} closed: {}", userId, e.getMessage());
+                unsubscribe(userId, this);
+                pending.clear();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+    }
+
+    // Most recent events of one user, oldest first
+    private final class Replay {
+
+        private final Deque<OrderStreamEvent> events = new ArrayDeque<>();
+        private volatile long lastTouched = System.currentTimeMillis();
+
+        synchronized void add(OrderStreamEvent event) {
+            events.addLast(event);
+            if (events.size() > replaySize) {
+                events.removeFirst();
+            }
+            lastTouched = System.currentTimeMillis();
+        }
+
+        synchronized List<OrderStreamEvent> snapshot() {
+            return new ArrayList<>(events);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.courier.order.service;
+
+import com.courier.order.entity.OutboxEvent;
+import com.courier.order.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records events in the outbox table. Must run inside the transaction that changes the
+ * order, so the event exists if and only if the change commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_events "
+            + "(id, exchange, routing_key, payload_type, payload, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageConverter messageConverter;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String exchange, String routingKey, Object payload) {
+        outboxEventRepository.save(toEvent(exchange, routingKey, payload));
+    }
+
+    // Bulk variant: one JDBC batch instead of an INSERT per event
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(String exchange, String routingKey, List<?> payloads) {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = payloads.stream()
+                .map(payload -> toEvent(exchange, routingKey, payload))
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, BATCH_SIZE, (ps, event) -> {
+            ps.setObject(1, UUID.randomUUID());
+            ps.setString(2, event.getExchange());
+            ps.setString(3, event.getRoutingKey());
+            ps.setString(4, event.getPayloadType());
+            ps.setString(5, event.getPayload());
+            ps.setObject(6, now.atOffset(ZoneOffset.UTC));
+        });
+    }
+
+    private OutboxEvent toEvent(String exchange, String routingKey, Object payload) {
+        // Serialized with the RabbitMQ converter so consumers see exactly what convertAndSend produced
+        Message message = messageConverter.toMessage(payload, new MessageProperties());
+        Object typeId = message.getMessageProperties().getHeaders().get(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        return OutboxEvent.builder()
+                .exchange(exchange)
+                .routingKey(routingKey)
+                .payloadType(String.valueOf(typeId))
+                .payload(new String(message.getBody(), StandardCharsets.UTF_8))
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.courier.order.service;
+
+import com.courier.order.client.UserLookupCoalescer;
+import com.courier.order.dto.UserDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Local copy of the auth-service user directory. auth-service announces every user it creates
+ * (it has no profile edits) with a user.changed event; entries expire after a TTL, which bounds
+ * how stale a copy gets when an event is lost. Misses fall back to auth-service through the
+ * {@link UserLookupCoalescer}, which batches concurrent misses into one call, and ids it does not
+ * know are remembered for a short negative TTL. The fallback is a remote call, so callers must
+ * not hold a transaction (and its pooled connection) around it.
+ */
+@Service
+public class UserDirectory {
+
+    private final UserLookupCoalescer userLookup;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LongSupplier clock;
+    private final Map<UUID, CachedUser> users;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer fallbackTimer;
+
+    public UserDirectory(UserLookupCoalescer userLookup,
+                         @Value("${user-directory.ttl-minutes:30}") long ttlMinutes,
+                         @Value("${user-directory.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                         @Value("${user-directory.max-size:10000}") int maxSize,
+                         MeterRegistry meterRegistry) {
+        this(userLookup, ttlMinutes, negativeTtlSeconds, maxSize, meterRegistry, System::currentTimeMillis);
+    }
+
+    UserDirectory(UserLookupCoalescer userLookup, long ttlMinutes, long negativeTtlSeconds, int maxSize,
+                  MeterRegistry meterRegistry, LongSupplier clock) {
+        this.userLookup = userLookup;
+        this.ttlMillis = ttlMinutes * 60_000;
+        this.negativeTtlMillis = negativeTtlSeconds * 1_000;
+        this.clock = clock;
+        this.users = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedUser> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hitCounter = meterRegistry.counter("user.directory.hits");
+        this.missCounter = meterRegistry.counter("user.directory.misses");
+        this.fallbackTimer = Timer.builder("user.directory.fallback")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("user.directory.hit.ratio", this, UserDirectory::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("user.directory.size", this, UserDirectory::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the user, from memory when a fresh entry exists, otherwise from auth-service;
+     * null when the user does not exist (remote errors propagate)
+     */
+    public UserDto get(UUID id) {
+        long now = clock.getAsLong();
+        synchronized (users) {
+            CachedUser cached = users.get(id);
+            if (cached != null && cached.expiresAt() > now) {
+                hitCounter.increment();
+                return cached.user();
+            }
+        }
+        missCounter.increment();
+        UserDto user = fallbackTimer.record(() -> userLookup.getUserById(id));
+        if (user != null) {
+            put(user);
+        } else {
+            // Not (yet) known to auth-service; its user.changed event replaces this when it registers
+            synchronized (users) {
+                users.put(id, new CachedUser(null, clock.getAsLong() + negativeTtlMillis));
+            }
+        }
+        return user;
+    }
+
+    public void put(UserDto user) {
+        long expiresAt = clock.getAsLong() + ttlMillis;
+        synchronized (users) {
+            users.put(user.id(), new CachedUser(user, expiresAt));
+        }
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private int size() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    private record CachedUser(UserDto user, long expiresAt) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.courier.order.client;
+
+import com.courier.order.dto.UserDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserLookupCoalescerTest {
+
+    private final InternalUserClient userClient = mock(InternalUserClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserLookupCoalescer coalescer;
+
+    @AfterEach
+    void stop() {
+        coalescer.stop();
+    }
+
+    @Test
+    void concurrentLookupsWithinTheWindowShareOneBatch() {
+        coalescer = new UserLookupCoalescer(userClient, 200, 100, meterRegistry);
+        UserDto first = user();
+        UserDto second = user();
+        UUID unknown = UUID.randomUUID();
+        when(userClient.getUsersByIds(any())).thenReturn(List.of(first, second));
+
+        List<CompletableFuture<UserDto>> lookups = new ArrayList<>();
+        for (UUID id : List.of(first.id(), second.id(), first.id(), unknown)) {
+            lookups.add(lookup(id));
+        }
+
+        assertThat(lookups).extracting(CompletableFuture::join).containsExactly(first, second, first, null);
+        verify(userClient, times(1)).getUsersByIds(any());
+        assertThat(meterRegistry.summary("user.lookup.batch.size").totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void fullBatchIsFetchedWithoutWaitingForTheWindow() {
+        coalescer = new UserLookupCoalescer(userClient, 60_000, 2, meterRegistry);
+        UserDto first = user();
+        UserDto second = user();
+        when(userClient.getUsersByIds(any())).thenReturn(List.of(first, second));
+
+        CompletableFuture<UserDto> firstLookup = lookup(first.id());
+        CompletableFuture<UserDto> secondLookup = lookup(second.id());
+
+        assertThat(firstLookup.orTimeout(2, TimeUnit.SECONDS).join()).isEqualTo(first);
+        assertThat(secondLookup.orTimeout(2, TimeUnit.SECONDS).join()).isEqualTo(second);
+        verify(userClient).getUsersByIds(Set.of(first.id(), second.id()));
+    }
+
+    @Test
+    void failedBatchFailsEveryWaiter() {
+        coalescer = new UserLookupCoalescer(userClient, 200, 100, meterRegistry);
+        when(userClient.getUsersByIds(any())).thenThrow(new IllegalStateException("auth-service down"));
+
+        CompletableFuture<UserDto> first = lookup(UUID.randomUUID());
+        CompletableFuture<UserDto> second = lookup(UUID.randomUUID());
+
+        for (CompletableFuture<UserDto> lookup : List.of(first, second)) {
+            assertThatThrownBy(lookup::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        verify(userClient, times(1)).getUsersByIds(any());
+    }
+
+    // Each caller blocks on its own thread, as request threads do
+    private CompletableFuture<UserDto> lookup(UUID id) {
+        CompletableFuture<UserDto> result = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                result.complete(coalescer.getUserById(id));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private static UserDto user() {
+        UUID id = UUID.randomUUID();
+        return new UserDto(id, id + "@example.com", "Driver " + id, "DRIVER");
+    }
+}
@@ -0,0 +1,49 @@
+package com.courier.order.listener;
+
+import com.courier.events.DriverAssigned;
+import com.courier.events.OrderCreated;
+import com.courier.events.OrderStatusChanged;
+import com.courier.order.dto.OrderStreamEvent;
+import com.courier.order.service.OrderStreamService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OrderStreamListenerTest {
+
+    private static final Instant AT = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final OrderStreamService orderStreamService = mock(OrderStreamService.class);
+    private final OrderStreamListener listener = new OrderStreamListener(orderStreamService);
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID customerId = UUID.randomUUID();
+    private final UUID driverId = UUID.randomUUID();
+
+    @Test
+    void createdOrderGoesToCustomerOnly() {
+        listener.handleOrderCreated(OrderCreated.of(orderId, customerId, AT));
+
+        verify(orderStreamService).publish(new OrderStreamEvent(orderId, "PENDING", null, null, AT), List.of(customerId));
+    }
+
+    @Test
+    void assignmentGoesToCustomerAndDriver() {
+        listener.handleDriverAssigned(DriverAssigned.of(orderId, customerId, driverId, AT, 52.5, 13.4, 52.4, 13.3));
+
+        verify(orderStreamService).publish(new OrderStreamEvent(orderId, "ASSIGNED", "PENDING", driverId, AT),
+                List.of(customerId, driverId));
+    }
+
+    @Test
+    void statusChangeForCustomerWhoIsAlsoDriverIsPublishedOnce() {
+        listener.handleStatusChanged(OrderStatusChanged.of(orderId, customerId, customerId, "ASSIGNED", "PICKED_UP", AT));
+
+        verify(orderStreamService).publish(new OrderStreamEvent(orderId, "PICKED_UP", "ASSIGNED", customerId, AT),
+                List.of(customerId));
+    }
+}
@@ -0,0 +1,63 @@
+package com.courier.order.repository;
+
+import com.courier.order.entity.Order;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OrderBatchRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final OrderBatchRepository repository = new OrderBatchRepository(jdbcTemplate);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bindsEveryColumnInStatementOrder() throws Exception {
+        Instant now = Instant.parse("2026-03-01T12:00:00Z");
+        Order order = Order.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .pickupAddress("Depot 1")
+                .deliveryAddress("Main St 1")
+                .packageDescription("parcel")
+                .pickupLatitude(52.0)
+                .pickupLongitude(13.0)
+                .status(Order.OrderStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        repository.insertAll(List.of(order));
+
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Order>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of(order)), eq(500), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, order);
+        verify(ps).setObject(1, order.getId());
+        verify(ps).setObject(2, order.getCustomerId());
+        verify(ps).setString(3, "Depot 1");
+        verify(ps).setString(4, "Main St 1");
+        verify(ps).setString(5, "parcel");
+        verify(ps).setObject(6, 52.0, Types.DOUBLE);
+        verify(ps).setObject(7, 13.0, Types.DOUBLE);
+        verify(ps).setObject(8, null, Types.DOUBLE);
+        verify(ps).setObject(9, null, Types.DOUBLE);
+        verify(ps).setString(10, "PENDING");
+        verify(ps).setObject(11, now.atOffset(ZoneOffset.UTC));
+        verify(ps).setObject(12, now.atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,152 @@
+package com.courier.order.service;
+
+import com.courier.order.entity.Order;
+import com.courier.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 5k drivers polling /available through the view while orders are created and claimed: page
+ * latency percentiles and the database queries per second the view issues (its create loads and
+ * resyncs) against one query per poll without it. Polling is compressed from every 10 s to every
+ * {@link #POLL_INTERVAL_MS}. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AvailableOrdersLoadBenchmark {
+
+    private static final int DRIVERS = 5_000;
+    private static final int INITIAL_ORDERS = 2_000;
+    private static final int CREATED_PER_SECOND = 50;
+    private static final long POLL_INTERVAL_MS = 1_000;
+    private static final long DURATION_MS = 20_000;
+    private static final int PAGE_SIZE = 50;
+    private static final double RADIUS_METERS = 5_000;
+
+    private final Map<UUID, Order> database = new ConcurrentHashMap<>();
+    private final AtomicLong queries = new AtomicLong();
+
+    @Test
+    void pollingDriversAgainstView() throws Exception {
+        OrderRepository orderRepository = repository();
+        for (int i = 0; i < INITIAL_ORDERS; i++) {
+            Order order = newOrder();
+            database.put(order.getId(), order);
+        }
+        AvailableOrdersView view = new AvailableOrdersView(orderRepository, 60, 10, new SimpleMeterRegistry());
+        view.build();
+        queries.set(0);
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        scheduler.scheduleWithFixedDelay(view::loadCreated, 250, 250, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(view::resync, 5_000, 5_000, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(() -> {
+            for (int i = 0; i < CREATED_PER_SECOND / 10; i++) {
+                Order order = newOrder();
+                database.put(order.getId(), order);
+                view.onCreated(order.getId());
+            }
+        }, 0, 100, TimeUnit.MILLISECONDS);
+
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+        List<long[]> samples = new ArrayList<>();
+        try (ExecutorService drivers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int d = 0; d < DRIVERS; d++) {
+                long[] latencies = new long[(int) (DURATION_MS / POLL_INTERVAL_MS) + 1];
+                samples.add(latencies);
+                drivers.submit(() -> poll(view, latencies, deadline));
+            }
+        }
+        scheduler.shutdownNow();
+
+        long[] all = samples.stream().flatMapToLong(Arrays::stream).filter(nanos -> nanos > 0).sorted().toArray();
+        double seconds = DURATION_MS / 1000.0;
+        System.out.printf("%d drivers polling every %d ms, %d orders + %d/s created%n",
+                DRIVERS, POLL_INTERVAL_MS, INITIAL_ORDERS, CREATED_PER_SECOND);
+        System.out.printf("polls %d | p50 %.3f ms | p99 %.3f ms | max %.3f ms%n", all.length,
+                percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1] / 1e6);
+        System.out.printf("database: %.1f queries/s with the view vs %.0f queries/s querying per poll%n",
+                queries.get() / seconds, all.length / seconds);
+    }
+
+    // Each driver polls around its own position and claims the first order it sees now and then
+    private void poll(AvailableOrdersView view, long[] latencies, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double latitude = 52.52 + random.nextDouble(-0.2, 0.2);
+        double longitude = 13.40 + random.nextDouble(-0.3, 0.3);
+        try {
+            Thread.sleep(random.nextLong(POLL_INTERVAL_MS));
+            for (int i = 0; i < latencies.length && System.currentTimeMillis() < deadline; i++) {
+                long start = System.nanoTime();
+                List<Order> items = view.page(null, PAGE_SIZE, latitude, longitude, RADIUS_METERS).items();
+                latencies[i] = System.nanoTime() - start;
+                if (!items.isEmpty() && random.nextInt(100) == 0) {
+                    Order claimed = items.get(0);
+                    claimed.setStatus(Order.OrderStatus.ASSIGNED);
+                    claimed.setUpdatedAt(Instant.now());
+                    view.onLeftPending(claimed.getId());
+                }
+                Thread.sleep(POLL_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OrderRepository repository() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findByStatus(Order.OrderStatus.PENDING)).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            return database.values().stream().filter(order -> order.getStatus() == Order.OrderStatus.PENDING).toList();
+        });
+        when(orderRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            List<Order> found = new ArrayList<>();
+            invocation.<Iterable<UUID>>getArgument(0).forEach(id -> found.add(database.get(id)));
+            return found;
+        });
+        when(orderRepository.findChangedSince(any())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            Instant since = invocation.getArgument(0);
+            return database.values().stream().filter(order -> order.getUpdatedAt().isAfter(since)).toList();
+        });
+        return orderRepository;
+    }
+
+    private static Order newOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Instant now = Instant.now();
+        return Order.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .pickupLatitude(52.52 + random.nextDouble(-0.2, 0.2))
+                .pickupLongitude(13.40 + random.nextDouble(-0.3, 0.3))
+                .status(Order.OrderStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * sorted.length))] / 1e6;
+    }
+}
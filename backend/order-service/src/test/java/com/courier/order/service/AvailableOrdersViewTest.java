@@ -0,0 +1,162 @@
+package com.courier.order.service;
+
+import com.courier.order.dto.OrderPage;
+import com.courier.order.entity.Order;
+import com.courier.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvailableOrdersViewTest {
+
+    private static final Instant BASE = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AvailableOrdersView view = new AvailableOrdersView(orderRepository, 60, 10, meterRegistry);
+
+    @Test
+    void pagesNewestFirstAndCursorWalksEveryOrderOnce() {
+        List<Order> pending = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pending.add(order(BASE.plusSeconds(i), null, null));
+        }
+        List<Order> shuffled = new ArrayList<>(pending);
+        Collections.shuffle(shuffled);
+        build(shuffled);
+
+        List<Order> listed = new ArrayList<>();
+        OrderPage page = view.page(null, 2, null, null, 0);
+        listed.addAll(page.items());
+        while (page.nextCursor() != null) {
+            page = view.page(OrderCursor.decode(page.nextCursor()), 2, null, null, 0);
+            listed.addAll(page.items());
+        }
+
+        assertThat(listed).containsExactlyElementsOf(pending.reversed());
+    }
+
+    @Test
+    void equalTimestampsAreOrderedByUnsignedIdLikePostgres() {
+        Order high = order(new UUID(0x8000_0000_0000_0000L, 0), BASE);
+        Order low = order(new UUID(1, 0), BASE);
+        build(List.of(low, high));
+
+        assertThat(view.page(null, 10, null, null, 0).items()).containsExactly(high, low);
+    }
+
+    @Test
+    void nearbyListingSkipsFarAndUnlocatedOrders() {
+        Order near = order(BASE.plusSeconds(3), 52.52, 13.40);
+        Order far = order(BASE.plusSeconds(2), 48.14, 11.58);
+        Order unlocated = order(BASE.plusSeconds(1), null, null);
+        Order alsoNear = order(BASE, 52.51, 13.39);
+        build(List.of(near, far, unlocated, alsoNear));
+
+        OrderPage first = view.page(null, 1, 52.52, 13.40, 5_000);
+        OrderPage second = view.page(OrderCursor.decode(first.nextCursor()), 1, 52.52, 13.40, 5_000);
+
+        assertThat(first.items()).containsExactly(near);
+        assertThat(second.items()).containsExactly(alsoNear);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void createdOrdersAppearAfterLoadAndLeaveImmediately() {
+        build(List.of());
+        Order created = order(BASE, null, null);
+        when(orderRepository.findAllById(anyIterable())).thenReturn(List.of(created));
+
+        view.onCreated(created.getId());
+        view.loadCreated();
+        assertThat(view.page(null, 10, null, null, 0).items()).containsExactly(created);
+
+        view.onLeftPending(created.getId());
+        assertThat(view.page(null, 10, null, null, 0).items()).isEmpty();
+    }
+
+    @Test
+    void staleLoadDoesNotReaddOrderThatLeftPending() {
+        build(List.of());
+        Order created = order(BASE, null, null);
+        when(orderRepository.findAllById(anyIterable())).thenReturn(List.of(created));
+
+        view.onCreated(created.getId());
+        view.onLeftPending(created.getId());
+        view.onCreated(created.getId());
+        view.loadCreated();
+
+        assertThat(view.page(null, 10, null, null, 0).items()).isEmpty();
+    }
+
+    @Test
+    void resyncRepairsMissedCreateAndMissedClaim() {
+        Order claimed = order(BASE, null, null);
+        build(List.of(claimed));
+        Order missed = order(BASE.plusSeconds(1), null, null);
+        Order claimedNow = order(claimed.getId(), claimed.getCreatedAt());
+        claimedNow.setStatus(Order.OrderStatus.ASSIGNED);
+        when(orderRepository.findChangedSince(any())).thenReturn(List.of(missed, claimedNow));
+
+        view.resync();
+
+        assertThat(view.page(null, 10, null, null, 0).items()).containsExactly(missed);
+        assertThat(meterRegistry.counter("orders.available.resync.repaired").count()).isEqualTo(2);
+    }
+
+    @Test
+    void resyncReadsFromPreviousPassMinusLag() {
+        Instant before = Instant.now();
+        build(List.of());
+        when(orderRepository.findChangedSince(any())).thenReturn(List.of());
+
+        view.resync();
+        Instant secondPass = Instant.now();
+        view.resync();
+
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        verify(orderRepository, times(2)).findChangedSince(since.capture());
+        Duration lag = Duration.ofSeconds(10);
+        assertThat(since.getAllValues().get(0)).isBetween(before.minus(lag), secondPass.minus(lag));
+        assertThat(since.getAllValues().get(1)).isAfterOrEqualTo(since.getAllValues().get(0));
+    }
+
+    @Test
+    void resyncWaitsForInitialBuild() {
+        view.resync();
+
+        verify(orderRepository, never()).findChangedSince(any());
+    }
+
+    private void build(List<Order> pending) {
+        when(orderRepository.findByStatus(Order.OrderStatus.PENDING)).thenReturn(pending);
+        view.build();
+    }
+
+    private static Order order(Instant createdAt, Double latitude, Double longitude) {
+        Order order = order(UUID.randomUUID(), createdAt);
+        order.setPickupLatitude(latitude);
+        order.setPickupLongitude(longitude);
+        return order;
+    }
+
+    private static Order order(UUID id, Instant createdAt) {
+        return Order.builder().id(id).createdAt(createdAt).status(Order.OrderStatus.PENDING).build();
+    }
+}
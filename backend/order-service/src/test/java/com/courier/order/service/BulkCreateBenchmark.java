@@ -0,0 +1,117 @@
+package com.courier.order.service;
+
+import com.courier.order.config.RabbitMQConfig;
+import com.courier.order.entity.Order;
+import com.courier.order.repository.OrderBatchRepository;
+import com.courier.order.repository.OutboxEventRepository;
+import com.courier.events.OrderCreated;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Order creation throughput by orders per request: each request is one transaction writing its
+ * orders and their outbox rows through {@link OrderBatchRepository} and
+ * {@link OutboxService#enqueueAll}, as {@code OrderService.createOrders} does. Needs a Postgres
+ * (the application's by default, or {@code -Dbenchmark.jdbc.url/user/password}); both tables are
+ * temporary and shadow the real ones for this session. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class BulkCreateBenchmark {
+
+    private static final int ORDERS = 10_000;
+    private static final int[] REQUEST_SIZES = {1, 50, 500};
+
+    @Test
+    void throughputByRequestSize() throws SQLException {
+        SingleConnectionDataSource dataSource = dataSource();
+        try (Connection connection = dataSource.getConnection()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            createTables(jdbcTemplate);
+            OrderBatchRepository orderBatchRepository = new OrderBatchRepository(jdbcTemplate);
+            OutboxService outboxService = new OutboxService(mock(OutboxEventRepository.class),
+                    new RabbitMQConfig().messageConverter(), jdbcTemplate);
+            connection.setAutoCommit(false);
+
+            System.out.printf("%d orders per run%n", ORDERS);
+            for (int requestSize : REQUEST_SIZES) {
+                jdbcTemplate.execute("TRUNCATE orders, outbox_events");
+                connection.commit();
+                UUID customerId = UUID.randomUUID();
+                long start = System.nanoTime();
+                for (int created = 0; created < ORDERS; created += requestSize) {
+                    List<Order> orders = orders(customerId, requestSize);
+                    orderBatchRepository.insertAll(orders);
+                    outboxService.enqueueAll(RabbitMQConfig.ORDER_EXCHANGE, OrderCreated.ROUTING_KEY, orders.stream()
+                            .map(order -> OrderCreated.of(order.getId(), order.getCustomerId(), order.getCreatedAt()))
+                            .toList());
+                    connection.commit();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%4d per request: %8.0f orders/s%n", requestSize, ORDERS / seconds);
+            }
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static SingleConnectionDataSource dataSource() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/order_db?reWriteBatchedInserts=true"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", "password"),
+                true);
+        try {
+            dataSource.getConnection();
+        } catch (SQLException e) {
+            Assumptions.abort("No Postgres available: " + e.getMessage());
+        }
+        return dataSource;
+    }
+
+    // Columns written by the batch inserts; temporary tables come first on the search path
+    private static void createTables(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TEMP TABLE orders (id uuid PRIMARY KEY, customer_id uuid NOT NULL, "
+                + "pickup_address varchar(255) NOT NULL, delivery_address varchar(255) NOT NULL, "
+                + "package_description varchar(255) NOT NULL, pickup_latitude float8, pickup_longitude float8, "
+                + "delivery_latitude float8, delivery_longitude float8, status varchar(32) NOT NULL, "
+                + "created_at timestamptz, updated_at timestamptz)");
+        jdbcTemplate.execute("CREATE INDEX ON orders (customer_id, created_at, id)");
+        jdbcTemplate.execute("CREATE INDEX ON orders (status, created_at, id)");
+        jdbcTemplate.execute("CREATE TEMP TABLE outbox_events (id uuid PRIMARY KEY, exchange varchar(255) NOT NULL, "
+                + "routing_key varchar(255) NOT NULL, payload_type varchar(255) NOT NULL, payload text NOT NULL, "
+                + "created_at timestamptz, sent_at timestamptz)");
+        jdbcTemplate.execute("CREATE INDEX ON outbox_events (sent_at, created_at)");
+    }
+
+    private static List<Order> orders(UUID customerId, int count) {
+        Instant now = Instant.now();
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(Order.builder()
+                    .id(UUID.randomUUID())
+                    .customerId(customerId)
+                    .pickupAddress("Depot " + i)
+                    .deliveryAddress("Main St " + i)
+                    .packageDescription("parcel")
+                    .pickupLatitude(52.5)
+                    .pickupLongitude(13.4)
+                    .status(Order.OrderStatus.PENDING)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return orders;
+    }
+}
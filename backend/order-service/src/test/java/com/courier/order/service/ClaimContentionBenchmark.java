@@ -0,0 +1,244 @@
+package com.courier.order.service;
+
+import com.courier.order.config.RabbitMQConfig;
+import com.courier.order.dto.UserDto;
+import com.courier.order.entity.Order;
+import com.courier.order.exception.OrderConflictException;
+import com.courier.order.repository.OrderBatchRepository;
+import com.courier.order.repository.OrderRepository;
+import com.courier.order.repository.OutboxEventRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 100 drivers racing for the same few available orders through {@link OrderService#assignDriver},
+ * then deliveries racing cancellations through {@link OrderService#updateStatus}: claim throughput,
+ * conflict rate and latency of the guarded {@code claim} and {@code Order.transition} UPDATEs,
+ * plus a count of orders won twice (always 0 if the guards hold). Every driver picks among the
+ * oldest {@code hotspot} open orders, as drivers polling the same list do. Needs a Postgres (the
+ * application's by default, or {@code -Dbenchmark.jdbc.url/user/password}); the tables live in a
+ * scratch schema that is dropped afterwards. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ClaimContentionBenchmark {
+
+    private static final String SCHEMA = "claim_benchmark";
+    private static final int DRIVERS = 100;
+    private static final int ORDERS = 2_000;
+    private static final int[] HOTSPOTS = {1, 10, 100};
+    private static final int POOL_SIZE = 20;
+
+    @Test
+    void claimAndTransitionRaces() throws Exception {
+        String url = System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/order_db");
+        String user = System.getProperty("benchmark.jdbc.user", "postgres");
+        String password = System.getProperty("benchmark.jdbc.password", "password");
+        execute(url, user, password, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE; CREATE SCHEMA " + SCHEMA);
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(user);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(POOL_SIZE);
+        dataSource.addDataSourceProperty("currentSchema", SCHEMA);
+        LocalContainerEntityManagerFactoryBean factoryBean = entityManagerFactory(dataSource);
+        try {
+            EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            JpaRepositoryFactory repositories = new JpaRepositoryFactory(entityManager);
+            OrderRepository orderRepository = repositories.getRepository(OrderRepository.class);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            OrderBatchRepository orderBatchRepository = new OrderBatchRepository(jdbcTemplate);
+            OutboxService outboxService = new OutboxService(repositories.getRepository(OutboxEventRepository.class),
+                    new RabbitMQConfig().messageConverter(), jdbcTemplate);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+            UserDirectory userDirectory = mock(UserDirectory.class);
+            when(userDirectory.get(any())).thenAnswer(invocation ->
+                    new UserDto(invocation.getArgument(0), "driver@example.com", "Benchmark Driver", "DRIVER"));
+            OrderService orderService = new OrderService(orderRepository, orderBatchRepository, outboxService,
+                    new AvailableOrdersView(orderRepository, 60, 10, new SimpleMeterRegistry()), userDirectory,
+                    transactionTemplate);
+
+            System.out.printf("%d drivers, %d orders per run, pool of %d connections%n", DRIVERS, ORDERS, POOL_SIZE);
+            System.out.println(" hotspot |  claims/s | attempts/s | conflicts | p50 ms | p99 ms | won twice");
+            List<UUID> orders = List.of();
+            for (int hotspot : HOTSPOTS) {
+                jdbcTemplate.execute("TRUNCATE orders, outbox_events");
+                orders = insertPending(orderBatchRepository, transactionTemplate);
+                claimRace(orderService, jdbcTemplate, orders, hotspot);
+            }
+            transitionRace(orderService, transactionTemplate, jdbcTemplate, orders);
+        } finally {
+            factoryBean.destroy();
+            dataSource.close();
+            execute(url, user, password, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    private static void claimRace(OrderService orderService, JdbcTemplate jdbcTemplate, List<UUID> orders, int hotspot) {
+        ConcurrentSkipListSet<Integer> open = new ConcurrentSkipListSet<>();
+        for (int i = 0; i < orders.size(); i++) {
+            open.add(i);
+        }
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+        try (ExecutorService drivers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int d = 0; d < DRIVERS; d++) {
+                UUID driverId = UUID.randomUUID();
+                drivers.submit(() -> {
+                    Integer index;
+                    while ((index = pick(open, hotspot)) != null) {
+                        long begin = System.nanoTime();
+                        attempts.incrementAndGet();
+                        try {
+                            orderService.assignDriver(orders.get(index), driverId);
+                        } catch (OrderConflictException e) {
+                            conflicts.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - begin);
+                        open.remove(index); // Taken either way
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        // One DriverAssigned per order if no claim ever succeeded twice
+        Integer events = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM outbox_events WHERE routing_key = 'order.assigned'", Integer.class);
+        System.out.printf("%8d | %9.0f | %10.0f | %8.1f%% | %6.2f | %6.2f | %9d%n", hotspot, orders.size() / seconds,
+                attempts.get() / seconds, 100.0 * conflicts.get() / attempts.get(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), events - orders.size());
+    }
+
+    // Pickups, then every delivery racing a cancellation of the same order: exactly one may win
+    private static void transitionRace(OrderService orderService, TransactionTemplate transactionTemplate,
+                                       JdbcTemplate jdbcTemplate, List<UUID> orders) {
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newFixedThreadPool(DRIVERS)) {
+            for (UUID orderId : orders) {
+                workers.submit(() -> transactionTemplate.execute(status ->
+                        orderService.updateStatus(orderId, Order.OrderStatus.PICKED_UP)));
+            }
+        }
+        double pickupSeconds = (System.nanoTime() - start) / 1e9;
+
+        AtomicInteger rejected = new AtomicInteger();
+        start = System.nanoTime();
+        try (ExecutorService workers = Executors.newFixedThreadPool(DRIVERS)) {
+            for (UUID orderId : orders) {
+                for (Order.OrderStatus target : List.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED)) {
+                    workers.submit(() -> {
+                        try {
+                            transactionTemplate.execute(status -> orderService.updateStatus(orderId, target));
+                        } catch (OrderConflictException e) {
+                            rejected.incrementAndGet();
+                        }
+                    });
+                }
+            }
+        }
+        double raceSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> outcome = jdbcTemplate.queryForMap("SELECT "
+                + "count(*) FILTER (WHERE status = 'DELIVERED') AS delivered, "
+                + "count(*) FILTER (WHERE status = 'CANCELLED') AS cancelled FROM orders");
+        Integer finals = jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events WHERE routing_key = 'order.updated' "
+                + "AND (payload LIKE '%\"status\":\"DELIVERED\"%' OR payload LIKE '%\"status\":\"CANCELLED\"%')", Integer.class);
+        System.out.printf("pickups: %.0f transitions/s%n", orders.size() / pickupSeconds);
+        System.out.printf("deliver vs cancel: %.0f attempts/s | %s delivered | %s cancelled | %d rejected | won twice %d%n",
+                2 * orders.size() / raceSeconds, outcome.get("delivered"), outcome.get("cancelled"), rejected.get(),
+                finals - orders.size());
+    }
+
+    private static Integer pick(ConcurrentSkipListSet<Integer> open, int hotspot) {
+        int skip = ThreadLocalRandom.current().nextInt(hotspot);
+        Iterator<Integer> oldest = open.iterator();
+        Integer picked = null;
+        for (int i = 0; i <= skip && oldest.hasNext(); i++) {
+            picked = oldest.next();
+        }
+        return picked;
+    }
+
+    private static List<UUID> insertPending(OrderBatchRepository orderBatchRepository, TransactionTemplate transactionTemplate) {
+        Instant now = Instant.now();
+        List<Order> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(Order.builder()
+                    .id(UUID.randomUUID())
+                    .customerId(UUID.randomUUID())
+                    .pickupAddress("Depot " + i)
+                    .deliveryAddress("Main St " + i)
+                    .packageDescription("parcel")
+                    .status(Order.OrderStatus.PENDING)
+                    .createdAt(now.plusMillis(i))
+                    .updatedAt(now)
+                    .build());
+        }
+        transactionTemplate.executeWithoutResult(status -> orderBatchRepository.insertAll(orders));
+        return orders.stream().map(Order::getId).toList();
+    }
+
+    // The application's mapping, so the tables carry the same columns and indexes
+    private static LocalContainerEntityManagerFactoryBean entityManagerFactory(HikariDataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.courier.order.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+        factoryBean.afterPropertiesSet();
+        return factoryBean;
+    }
+
+    private static void execute(String url, String user, String password, String sql) {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            Assumptions.abort("No Postgres available: " + e.getMessage());
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * sorted.length))] / 1e6;
+    }
+}
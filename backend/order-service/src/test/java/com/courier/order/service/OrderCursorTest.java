@@ -0,0 +1,47 @@
+package com.courier.order.service;
+
+import com.courier.order.entity.Order;
+import com.courier.order.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderCursorTest {
+
+    @Test
+    void roundTripsLastOrderOfPage() {
+        Order order = Order.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2026-01-02T03:04:05.123456Z")).build();
+
+        OrderCursor decoded = OrderCursor.decode(OrderCursor.after(order).encode());
+
+        assertThat(decoded).isEqualTo(new OrderCursor(order.getCreatedAt(), order.getId()));
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new OrderCursor(Instant.now(), UUID.randomUUID()).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        String noSeparator = base64("2026-01-02T03:04:05Z");
+        String badId = base64("2026-01-02T03:04:05Z|not-a-uuid");
+        String badTime = base64("yesterday|" + UUID.randomUUID());
+
+        for (String token : new String[] {"%%%", noSeparator, badId, badTime}) {
+            assertThatThrownBy(() -> OrderCursor.decode(token)).isInstanceOf(InvalidCursorException.class);
+        }
+    }
+
+    private static String base64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
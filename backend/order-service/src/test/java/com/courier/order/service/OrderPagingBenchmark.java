@@ -0,0 +1,125 @@
+package com.courier.order.service;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Page latency by depth for one customer owning 1M orders: the keyset query used by
+ * {@code OrderRepository.findPageByCustomerId} against the OFFSET query it replaced. Needs a
+ * Postgres (the application's by default, or {@code -Dbenchmark.jdbc.url/user/password}); the data
+ * lives in a temporary table. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class OrderPagingBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int[] DEPTHS = {0, 100, 1_000, 5_000, 19_999};
+    private static final int SAMPLES = 21;
+
+    private static final String KEYSET = "SELECT * FROM bench_orders WHERE customer_id = ? AND (created_at, id) < (?, ?) "
+            + "ORDER BY created_at DESC, id DESC LIMIT ?";
+    private static final String OFFSET = "SELECT * FROM bench_orders WHERE customer_id = ? "
+            + "ORDER BY created_at DESC, id DESC OFFSET ? LIMIT ?";
+
+    @Test
+    void latencyByPageDepth() throws SQLException {
+        try (Connection connection = connect()) {
+            UUID customerId = UUID.randomUUID();
+            load(connection, customerId);
+
+            System.out.printf("%d orders, %d per page%n", ORDERS, PAGE_SIZE);
+            System.out.println("    page |  keyset p50 ms |  offset p50 ms");
+            for (int depth : DEPTHS) {
+                Object[] cursor = cursorBefore(connection, customerId, depth);
+                double keyset = median(connection, KEYSET, statement -> {
+                    statement.setObject(1, customerId);
+                    statement.setTimestamp(2, (Timestamp) cursor[0]);
+                    statement.setObject(3, cursor[1]);
+                    statement.setInt(4, PAGE_SIZE);
+                });
+                double offset = median(connection, OFFSET, statement -> {
+                    statement.setObject(1, customerId);
+                    statement.setInt(2, depth * PAGE_SIZE);
+                    statement.setInt(3, PAGE_SIZE);
+                });
+                System.out.printf("%8d | %14.3f | %14.3f%n", depth, keyset, offset);
+            }
+        }
+    }
+
+    private static Connection connect() {
+        try {
+            return DriverManager.getConnection(
+                    System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/order_db"),
+                    System.getProperty("benchmark.jdbc.user", "postgres"),
+                    System.getProperty("benchmark.jdbc.password", "password"));
+        } catch (SQLException e) {
+            Assumptions.abort("No Postgres available: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Same shape and index as orders/idx_orders_customer_created, one order per second going back
+    private static void load(Connection connection, UUID customerId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE bench_orders (id uuid PRIMARY KEY, customer_id uuid NOT NULL, "
+                    + "status varchar(32) NOT NULL, package_description varchar(255), created_at timestamptz NOT NULL)");
+            statement.execute("INSERT INTO bench_orders SELECT gen_random_uuid(), '" + customerId + "', 'DELIVERED', "
+                    + "'parcel ' || n, now() - n * interval '1 second' FROM generate_series(1, " + ORDERS + ") n");
+            statement.execute("CREATE INDEX ON bench_orders (customer_id, created_at, id)");
+            statement.execute("ANALYZE bench_orders");
+        }
+    }
+
+    // Position of the last order on the page before `depth`; page 0 starts after the newest row
+    private static Object[] cursorBefore(Connection connection, UUID customerId, int depth) throws SQLException {
+        if (depth == 0) {
+            return new Object[] {Timestamp.valueOf("9999-01-01 00:00:00"), new UUID(-1, -1)};
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT created_at, id FROM bench_orders "
+                + "WHERE customer_id = ? ORDER BY created_at DESC, id DESC OFFSET ? LIMIT 1")) {
+            statement.setObject(1, customerId);
+            statement.setInt(2, depth * PAGE_SIZE - 1);
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                return new Object[] {rows.getTimestamp(1), rows.getObject(2, UUID.class)};
+            }
+        }
+    }
+
+    private static double median(Connection connection, String sql, Binder binder) throws SQLException {
+        double[] millis = new double[SAMPLES];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            for (int i = -3; i < SAMPLES; i++) {
+                long start = System.nanoTime();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        rows.getString("package_description");
+                    }
+                }
+                if (i >= 0) {
+                    millis[i] = (System.nanoTime() - start) / 1e6;
+                }
+            }
+        }
+        Arrays.sort(millis);
+        return millis[SAMPLES / 2];
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+}
@@ -0,0 +1,260 @@
+package com.courier.order.service;
+
+import com.courier.events.OrderCreated;
+import com.courier.events.OrderStatusChanged;
+import com.courier.order.config.RabbitMQConfig;
+import com.courier.order.dto.BulkCreateOrdersResponse;
+import com.courier.order.dto.BulkOrderResult;
+import com.courier.order.dto.CreateOrderRequest;
+import com.courier.order.dto.OrderPage;
+import com.courier.order.entity.Order;
+import com.courier.order.exception.IllegalTransitionException;
+import com.courier.order.exception.InvalidBulkRequestException;
+import com.courier.order.exception.InvalidCursorException;
+import com.courier.order.exception.OrderConflictException;
+import com.courier.order.exception.OrderNotFoundException;
+import com.courier.order.repository.OrderBatchRepository;
+import com.courier.order.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderBatchRepository orderBatchRepository = mock(OrderBatchRepository.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final AvailableOrdersView availableOrdersView = mock(AvailableOrdersView.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final OrderService orderService = new OrderService(orderRepository, orderBatchRepository, outboxService,
+            availableOrdersView, mock(UserDirectory.class), transactionTemplate);
+    private final UUID customerId = UUID.randomUUID();
+    private final UUID orderId = UUID.randomUUID();
+
+    @SuppressWarnings("unchecked")
+    OrderServiceTest() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void fullPageCarriesCursorOfItsLastOrder() {
+        List<Order> rows = orders(4);
+        when(orderRepository.findFirstPageByCustomerId(customerId, 4)).thenReturn(rows);
+
+        OrderPage page = orderService.getMyOrders(customerId.toString(), null, 3);
+
+        assertThat(page.items()).containsExactlyElementsOf(rows.subList(0, 3));
+        assertThat(OrderCursor.decode(page.nextCursor())).isEqualTo(OrderCursor.after(rows.get(2)));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        List<Order> rows = orders(2);
+        when(orderRepository.findFirstPageByCustomerId(customerId, 4)).thenReturn(rows);
+
+        OrderPage page = orderService.getMyOrders(customerId.toString(), "", 3);
+
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void cursorContinuesAfterItsPosition() {
+        OrderCursor after = new OrderCursor(Instant.parse("2026-01-01T00:00:00Z"), UUID.randomUUID());
+        when(orderRepository.findPageByCustomerId(customerId, after.createdAt(), after.id(), 11)).thenReturn(orders(1));
+
+        OrderPage page = orderService.getMyOrders(customerId.toString(), after.encode(), 10);
+
+        assertThat(page.items()).hasSize(1);
+        verify(orderRepository).findPageByCustomerId(customerId, after.createdAt(), after.id(), 11);
+    }
+
+    @Test
+    void limitIsClampedToPageBounds() {
+        UUID driverId = UUID.randomUUID();
+        when(orderRepository.findFirstPageByDriverId(driverId, OrderService.MAX_PAGE_SIZE + 1)).thenReturn(List.of());
+        when(orderRepository.findFirstPageByDriverId(driverId, 2)).thenReturn(List.of());
+
+        orderService.getDriverOrders(driverId.toString(), null, 10_000);
+        orderService.getDriverOrders(driverId.toString(), null, 0);
+
+        verify(orderRepository).findFirstPageByDriverId(driverId, OrderService.MAX_PAGE_SIZE + 1);
+        verify(orderRepository).findFirstPageByDriverId(driverId, 2);
+    }
+
+    @Test
+    void malformedCursorIsRejectedBeforeQuerying() {
+        assertThatThrownBy(() -> orderService.getMyOrders(customerId.toString(), "not a cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void availableOrdersComeFromDatabaseUntilViewIsReady() {
+        when(orderRepository.findFirstPageByStatus(Order.OrderStatus.PENDING.name(), 6)).thenReturn(orders(3));
+
+        OrderPage page = orderService.getAvailableOrders(null, 5, null, null, 0);
+
+        assertThat(page.items()).hasSize(3);
+        verify(availableOrdersView).isReady();
+        verify(availableOrdersView, never()).page(any(), anyInt(), any(), any(), anyDouble());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkCreateRejectsInvalidItemsAndInsertsTheRestInOneBatch() {
+        List<CreateOrderRequest> requests = List.of(
+                request("Depot 1"),
+                new CreateOrderRequest("Depot 2", " ", "parcel", null, null, null, null),
+                request("Depot 3"));
+
+        BulkCreateOrdersResponse response = orderService.createOrders(requests, customerId.toString());
+
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.rejected()).isEqualTo(1);
+        assertThat(response.results()).extracting(BulkOrderResult::status).containsExactly("CREATED", "REJECTED", "CREATED");
+        assertThat(response.results().get(1).error()).isEqualTo("deliveryAddress is required");
+        ArgumentCaptor<List<Order>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(orderBatchRepository).insertAll(inserted.capture());
+        assertThat(inserted.getValue()).extracting(Order::getId)
+                .containsExactly(response.results().get(0).orderId(), response.results().get(2).orderId());
+        assertThat(inserted.getValue()).allSatisfy(order -> {
+            assertThat(order.getCustomerId()).isEqualTo(customerId);
+            assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.PENDING);
+            assertThat(order.getCreatedAt()).isNotNull();
+        });
+        verify(outboxService).enqueueAll(eq(RabbitMQConfig.ORDER_EXCHANGE), eq(OrderCreated.ROUTING_KEY), argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void bulkCreateWithOnlyInvalidItemsWritesNothing() {
+        BulkCreateOrdersResponse response = orderService.createOrders(
+                Collections.singletonList(null), customerId.toString());
+
+        assertThat(response.rejected()).isEqualTo(1);
+        verifyNoInteractions(orderBatchRepository, outboxService);
+    }
+
+    @Test
+    void bulkCreateRejectsEmptyAndOversizedRequests() {
+        List<CreateOrderRequest> tooMany = Collections.nCopies(OrderService.MAX_BULK_SIZE + 1, request("Depot"));
+
+        assertThatThrownBy(() -> orderService.createOrders(List.of(), customerId.toString()))
+                .isInstanceOf(InvalidBulkRequestException.class);
+        assertThatThrownBy(() -> orderService.createOrders(tooMany, customerId.toString()))
+                .isInstanceOf(InvalidBulkRequestException.class);
+        verifyNoInteractions(orderBatchRepository);
+    }
+
+    // Newest first, as the keyset queries return them
+    @Test
+    void transitionPublishesPreviousStatus() {
+        Order updated = order(Order.OrderStatus.PICKED_UP);
+        when(orderRepository.transition(eq(orderId), eq("PICKED_UP"), eq(List.of("ASSIGNED")), any()))
+                .thenReturn(List.<Object[]>of(new Object[] {updated, "ASSIGNED"}));
+
+        assertThat(orderService.updateStatus(orderId, Order.OrderStatus.PICKED_UP)).isSameAs(updated);
+
+        verify(outboxService).enqueue(eq(RabbitMQConfig.ORDER_EXCHANGE), eq(OrderStatusChanged.ROUTING_KEY),
+                argThat(event -> event instanceof OrderStatusChanged changed
+                        && "ASSIGNED".equals(changed.previousStatus()) && "PICKED_UP".equals(changed.status())));
+    }
+
+    @Test
+    void repeatingCurrentStatusIsNoOp() {
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order(Order.OrderStatus.DELIVERED)));
+
+        assertThat(orderService.updateStatus(orderId, Order.OrderStatus.DELIVERED).getStatus())
+                .isEqualTo(Order.OrderStatus.DELIVERED);
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void orderMovedUnderCallerIsConflict() {
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order(Order.OrderStatus.CANCELLED)));
+
+        assertThatThrownBy(() -> orderService.updateStatus(orderId, Order.OrderStatus.PICKED_UP))
+                .isInstanceOf(OrderConflictException.class);
+    }
+
+    @Test
+    void skippingStatusesIsIllegal() {
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order(Order.OrderStatus.PENDING)));
+
+        assertThatThrownBy(() -> orderService.updateStatus(orderId, Order.OrderStatus.DELIVERED))
+                .isInstanceOf(IllegalTransitionException.class);
+    }
+
+    @Test
+    void movingBackToPendingIsIllegalWithoutQuerying() {
+        assertThatThrownBy(() -> orderService.updateStatus(orderId, Order.OrderStatus.PENDING))
+                .isInstanceOf(IllegalTransitionException.class);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void unknownOrderIsNotFound() {
+        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> orderService.updateStatus(orderId, Order.OrderStatus.CANCELLED))
+                .isInstanceOf(OrderNotFoundException.class);
+        assertThatThrownBy(() -> orderService.assignDriver(orderId, UUID.randomUUID()))
+                .isInstanceOf(OrderNotFoundException.class);
+    }
+
+    @Test
+    void failedClaimEvictsFromViewAndIsConflictUnlessRetriedBySameDriver() {
+        UUID driverId = UUID.randomUUID();
+        Order assigned = order(Order.OrderStatus.ASSIGNED);
+        assigned.setDriverId(driverId);
+        when(orderRepository.claim(eq(orderId), any(), any(), any())).thenReturn(Optional.empty());
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(assigned));
+
+        assertThat(orderService.assignDriver(orderId, driverId)).isSameAs(assigned);
+        assertThatThrownBy(() -> orderService.assignDriver(orderId, UUID.randomUUID()))
+                .isInstanceOf(OrderConflictException.class);
+        verifyNoInteractions(outboxService);
+        verify(availableOrdersView, times(2)).onLeftPending(orderId);
+    }
+
+    private static CreateOrderRequest request(String pickupAddress) {
+        return new CreateOrderRequest(pickupAddress, "Main St 1", "parcel", 52.0, 13.0, null, null);
+    }
+
+    private Order order(Order.OrderStatus status) {
+        return Order.builder().id(orderId).customerId(customerId).status(status).build();
+    }
+
+    private static List<Order> orders(int count) {
+        Instant base = Instant.parse("2026-03-01T12:00:00Z");
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(Order.builder().id(UUID.randomUUID()).createdAt(base.minusSeconds(i))
+                    .status(Order.OrderStatus.PENDING).build());
+        }
+        return orders;
+    }
+}
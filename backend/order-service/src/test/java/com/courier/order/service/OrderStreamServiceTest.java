@@ -0,0 +1,221 @@
+package com.courier.order.service;
+
+import com.courier.order.dto.OrderStreamEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+class OrderStreamServiceTest {
+
+    private static final Instant BASE = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private final OrderStreamService service = new OrderStreamService(30, 50, 10, meterRegistry) {
+        @Override
+        SseEmitter newEmitter() {
+            return emitters.remove(0);
+        }
+    };
+    private final UUID user = UUID.randomUUID();
+
+    @AfterEach
+    void stop() {
+        service.stop();
+    }
+
+    @Test
+    void eventIdIsTheSameOnEveryInstance() {
+        UUID orderId = UUID.randomUUID();
+        OrderStreamEvent event = new OrderStreamEvent(orderId, "ASSIGNED", "PENDING", UUID.randomUUID(), BASE);
+
+        assertThat(event.eventId()).isEqualTo(BASE.toEpochMilli() + "-" + orderId + "-ASSIGNED");
+        assertThat(new OrderStreamEvent(orderId, "ASSIGNED", "PENDING", null, BASE).eventId()).isEqualTo(event.eventId());
+    }
+
+    @Test
+    void lastEventIdResumesAfterThatEvent() {
+        OrderStreamEvent first = event(BASE, "PENDING");
+        OrderStreamEvent second = event(BASE.plusSeconds(1), "ASSIGNED");
+        OrderStreamEvent third = event(BASE.plusSeconds(2), "PICKED_UP");
+        List.of(first, second, third).forEach(event -> service.publish(event, List.of(user)));
+
+        RecordingEmitter emitter = subscribe(first.eventId());
+
+        assertThat(emitter.take(2)).extracting(Sent::data).containsExactly(second, third);
+        emitter.assertNothingMore();
+    }
+
+    @Test
+    void unknownIdWithinBufferResumesFromItsMillisecondWithoutResync() {
+        OrderStreamEvent sameMillis = event(BASE, "ASSIGNED");
+        OrderStreamEvent later = event(BASE.plusSeconds(1), "PICKED_UP");
+        service.publish(event(BASE.minusSeconds(1), "PENDING"), List.of(user));
+        service.publish(sameMillis, List.of(user));
+        service.publish(later, List.of(user));
+
+        // An id assigned by another instance for an order this one never streamed to the user
+        RecordingEmitter emitter = subscribe(event(BASE, "DELIVERED").eventId());
+
+        assertThat(emitter.take(2)).extracting(Sent::data).containsExactly(sameMillis, later);
+        emitter.assertNothingMore();
+        assertThat(meterRegistry.counter("order.stream.resyncs").count()).isZero();
+    }
+
+    @Test
+    void idOlderThanBufferGetsResyncThenBufferedEvents() {
+        OrderStreamEvent buffered = event(BASE, "ASSIGNED");
+        service.publish(buffered, List.of(user));
+
+        RecordingEmitter emitter = subscribe(event(BASE.minusSeconds(60), "PENDING").eventId());
+
+        List<Sent> sent = emitter.take(2);
+        assertThat(sent.get(0).name()).isEqualTo(OrderStreamService.RESYNC_EVENT);
+        assertThat(sent.get(1).data()).isEqualTo(buffered);
+        assertThat(meterRegistry.counter("order.stream.resyncs").count()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownUserWithLastEventIdGetsResync() {
+        RecordingEmitter emitter = subscribe("not-an-id");
+
+        assertThat(emitter.take(1)).extracting(Sent::name).containsExactly(OrderStreamService.RESYNC_EVENT);
+    }
+
+    @Test
+    void drainKeepsEachSubscribersEventsInOrder() {
+        RecordingEmitter slow = new RecordingEmitter(null, 1);
+        RecordingEmitter fast = new RecordingEmitter(null, 0);
+        emitters.add(slow);
+        emitters.add(fast);
+        service.subscribe(user, null);
+        service.subscribe(user, null);
+
+        List<OrderStreamEvent> published = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            OrderStreamEvent event = event(BASE.plusMillis(i), "ASSIGNED");
+            published.add(event);
+            service.publish(event, List.of(user));
+        }
+
+        assertThat(fast.take(200)).extracting(Sent::data).containsExactlyElementsOf(published);
+        assertThat(slow.take(200)).extracting(Sent::data).containsExactlyElementsOf(published);
+    }
+
+    @Test
+    void failedSendUnsubscribes() {
+        RecordingEmitter broken = new RecordingEmitter(new IOException("Broken pipe"), 0);
+        emitters.add(broken);
+        service.subscribe(user, null);
+        assertThat(connections()).isEqualTo(1);
+
+        service.publish(event(BASE, "ASSIGNED"), List.of(user));
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (connections() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        service.publish(event(BASE.plusSeconds(1), "PICKED_UP"), List.of(user));
+
+        assertThat(connections()).isZero();
+        assertThat(broken.attempts.get()).isEqualTo(1);
+    }
+
+    private RecordingEmitter subscribe(String lastEventId) {
+        RecordingEmitter emitter = new RecordingEmitter(null, 0);
+        emitters.add(emitter);
+        service.subscribe(user, lastEventId);
+        return emitter;
+    }
+
+    private double connections() {
+        return meterRegistry.get("order.stream.connections").gauge().value();
+    }
+
+    private static OrderStreamEvent event(Instant changedAt, String status) {
+        return new OrderStreamEvent(UUID.randomUUID(), status, null, null, changedAt);
+    }
+
+    private record Sent(String name, Object data) {}
+
+    // Records what would be written to the response; optionally slow or failing
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final IOException failure;
+        private final long delayMillis;
+
+        RecordingEmitter(IOException failure, long delayMillis) {
+            this.failure = failure;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            StringBuilder text = new StringBuilder();
+            Object data = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : parts) {
+                if (part.getData() instanceof String string) {
+                    text.append(string);
+                } else {
+                    data = part.getData();
+                }
+            }
+            String name = text.toString().lines()
+                    .filter(line -> line.startsWith("event:"))
+                    .map(line -> line.substring("event:".length()))
+                    .findFirst().orElse(null);
+            sent.add(new Sent(name, data));
+        }
+
+        List<Sent> take(int count) {
+            List<Sent> taken = new ArrayList<>();
+            try {
+                for (int i = 0; i < count; i++) {
+                    Sent next = sent.poll(2, TimeUnit.SECONDS);
+                    if (next == null) {
+                        fail("Expected " + count + " events, got " + taken);
+                    }
+                    taken.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return taken;
+        }
+
+        void assertNothingMore() {
+            try {
+                assertThat(sent.poll(100, TimeUnit.MILLISECONDS)).isNull();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.courier.order.service;
+
+import com.courier.order.entity.OutboxEvent;
+import com.courier.order.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Relay throughput against a slowed broker: every publisher-confirm round trip costs
+ * {@link #CONFIRM_LATENCY_MS}, so confirming per event (batch size 1) is bound by the round trip
+ * while batches amortise it. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class OutboxRelayBenchmark {
+
+    private static final int EVENTS = 5_000;
+    private static final long CONFIRM_LATENCY_MS = 2;
+    private static final int[] BATCH_SIZES = {1, 50, 200};
+
+    @Test
+    void throughputByBatchSize() {
+        System.out.printf("%d events, %d ms per confirm round trip%n", EVENTS, CONFIRM_LATENCY_MS);
+        for (int batchSize : BATCH_SIZES) {
+            InMemoryOutbox outbox = new InMemoryOutbox(EVENTS);
+            OutboxRelay relay = new OutboxRelay(outbox.repository, slowBroker(), transactions(), batchSize, 5000, 24);
+
+            long start = System.nanoTime();
+            while (outbox.unsent() > 0) {
+                relay.relay();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("batch %4d: %8.0f events/s%n", batchSize, EVENTS / seconds);
+        }
+    }
+
+    private static RabbitTemplate slowBroker() {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(rabbitTemplate));
+        doAnswer(invocation -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(CONFIRM_LATENCY_MS));
+            return null;
+        }).when(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+        return rabbitTemplate;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TransactionTemplate transactions() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        return transactionTemplate;
+    }
+
+    // Unsent rows in creation order; a batch is always the head, so markSent pops it
+    private static class InMemoryOutbox {
+
+        final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+        private final Deque<OutboxEvent> unsent = new ArrayDeque<>();
+
+        InMemoryOutbox(int events) {
+            for (int i = 0; i < events; i++) {
+                unsent.add(OutboxEvent.builder().id(UUID.randomUUID()).exchange("orders.exchange")
+                        .routingKey("order.created").payloadType("com.courier.events.OrderCreated")
+                        .payload("{\"version\":1}").build());
+            }
+            when(repository.lockUnsent(anyInt())).thenAnswer(invocation -> {
+                int limit = invocation.getArgument(0);
+                List<OutboxEvent> batch = new ArrayList<>(limit);
+                for (OutboxEvent event : unsent) {
+                    if (batch.size() == limit) {
+                        break;
+                    }
+                    batch.add(event);
+                }
+                return batch;
+            });
+            when(repository.markSent(anyCollection(), any())).thenAnswer(invocation -> {
+                Collection<UUID> ids = invocation.getArgument(0);
+                ids.forEach(id -> unsent.poll());
+                return ids.size();
+            });
+        }
+
+        int unsent() {
+            return unsent.size();
+        }
+    }
+}
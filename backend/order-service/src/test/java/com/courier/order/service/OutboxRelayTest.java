@@ -0,0 +1,113 @@
+package com.courier.order.service;
+
+import com.courier.order.entity.OutboxEvent;
+import com.courier.order.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final OutboxRelay relay = new OutboxRelay(repository, rabbitTemplate, transactionTemplate, 2, 1000, 24);
+
+    @SuppressWarnings("unchecked")
+    OutboxRelayTest() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(rabbitTemplate));
+    }
+
+    @Test
+    void publishesBatchWithRowIdAsMessageIdAndMarksItSent() {
+        OutboxEvent event = event();
+        when(repository.lockUnsent(2)).thenReturn(List.of(event));
+
+        relay.relay();
+
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("orders.exchange"), eq("order.created"), message.capture());
+        assertThat(message.getValue().getMessageProperties().getMessageId()).isEqualTo(event.getId().toString());
+        assertThat(message.getValue().getMessageProperties().getHeaders()).containsEntry("__TypeId__", "com.courier.events.OrderCreated");
+        assertThat(new String(message.getValue().getBody(), StandardCharsets.UTF_8)).isEqualTo(event.getPayload());
+        verify(rabbitTemplate).waitForConfirmsOrDie(1000);
+        verify(repository).markSent(eq(List.of(event.getId())), any(Instant.class));
+    }
+
+    @Test
+    void keepsDrainingWhileBatchesAreFull() {
+        when(repository.lockUnsent(2)).thenReturn(List.of(event(), event()), List.of(event(), event()), List.of(event()));
+
+        relay.relay();
+
+        verify(repository, times(3)).lockUnsent(2);
+        verify(rabbitTemplate, times(3)).waitForConfirmsOrDie(1000);
+    }
+
+    @Test
+    void unconfirmedBatchIsLeftUnsent() {
+        when(repository.lockUnsent(2)).thenReturn(List.of(event(), event()));
+        doThrow(new AmqpTimeoutException("no confirm")).when(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+
+        relay.relay();
+
+        verify(repository, times(1)).lockUnsent(2);
+        verify(repository, never()).markSent(anyCollection(), any());
+    }
+
+    @Test
+    void emptyOutboxTouchesNoBroker() {
+        when(repository.lockUnsent(2)).thenReturn(List.of());
+
+        relay.relay();
+
+        verify(rabbitTemplate, never()).invoke(any());
+    }
+
+    @Test
+    void deletesRowsSentBeforeRetention() {
+        Instant before = Instant.now();
+
+        relay.deleteSent();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).deleteSentBefore(cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(before.minus(Duration.ofHours(24)), Instant.now().minus(Duration.ofHours(24)));
+    }
+
+    private static OutboxEvent event() {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .exchange("orders.exchange")
+                .routingKey("order.created")
+                .payloadType("com.courier.events.OrderCreated")
+                .payload("{\"version\":1}")
+                .build();
+    }
+}
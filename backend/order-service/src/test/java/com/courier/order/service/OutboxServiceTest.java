@@ -0,0 +1,58 @@
+package com.courier.order.service;
+
+import com.courier.events.OrderCreated;
+import com.courier.order.config.RabbitMQConfig;
+import com.courier.order.entity.OutboxEvent;
+import com.courier.order.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OutboxServiceTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final OutboxService outboxService = new OutboxService(repository, new RabbitMQConfig().messageConverter(), jdbcTemplate);
+
+    @Test
+    void storesPayloadAsTheRabbitConverterWouldSendIt() {
+        UUID orderId = UUID.randomUUID();
+
+        outboxService.enqueue("orders.exchange", OrderCreated.ROUTING_KEY, OrderCreated.of(orderId, UUID.randomUUID(), Instant.now()));
+
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(repository).save(event.capture());
+        assertThat(event.getValue().getExchange()).isEqualTo("orders.exchange");
+        assertThat(event.getValue().getRoutingKey()).isEqualTo(OrderCreated.ROUTING_KEY);
+        assertThat(event.getValue().getPayloadType()).isEqualTo(OrderCreated.class.getName());
+        assertThat(event.getValue().getPayload()).contains(orderId.toString());
+        assertThat(event.getValue().getSentAt()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkEnqueueIsOneJdbcBatch() {
+        List<OrderCreated> payloads = List.of(
+                OrderCreated.of(UUID.randomUUID(), UUID.randomUUID(), Instant.now()),
+                OrderCreated.of(UUID.randomUUID(), UUID.randomUUID(), Instant.now()));
+
+        outboxService.enqueueAll("orders.exchange", OrderCreated.ROUTING_KEY, payloads);
+
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), events.capture(), eq(500), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(events.getValue()).hasSize(2)
+                .allSatisfy(event -> assertThat(event.getPayloadType()).isEqualTo(OrderCreated.class.getName()));
+    }
+}
@@ -0,0 +1,117 @@
+package com.courier.order.service;
+
+import com.courier.order.client.UserLookupCoalescer;
+import com.courier.order.dto.UserDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserDirectoryTest {
+
+    private static final long TTL_MILLIS = 30 * 60_000;
+    private static final long NEGATIVE_TTL_MILLIS = 30_000;
+
+    private final UserLookupCoalescer userLookup = mock(UserLookupCoalescer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final UserDirectory directory = new UserDirectory(userLookup, 30, 30, 2, meterRegistry, now::get);
+
+    @Test
+    void entryIsServedFromMemoryUntilTtlExpires() {
+        UserDto user = user();
+        when(userLookup.getUserById(user.id())).thenReturn(user);
+
+        assertThat(directory.get(user.id())).isEqualTo(user);
+        now.addAndGet(TTL_MILLIS - 1);
+        assertThat(directory.get(user.id())).isEqualTo(user);
+        verify(userLookup, times(1)).getUserById(user.id());
+
+        now.addAndGet(1);
+        assertThat(directory.get(user.id())).isEqualTo(user);
+        verify(userLookup, times(2)).getUserById(user.id());
+    }
+
+    @Test
+    void unknownIdIsRememberedForTheNegativeTtl() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThat(directory.get(unknown)).isNull();
+        now.addAndGet(NEGATIVE_TTL_MILLIS - 1);
+        assertThat(directory.get(unknown)).isNull();
+        verify(userLookup, times(1)).getUserById(unknown);
+
+        now.addAndGet(1);
+        directory.get(unknown);
+        verify(userLookup, times(2)).getUserById(unknown);
+    }
+
+    @Test
+    void putFromUserChangedEventReplacesNegativeEntry() {
+        UserDto user = user();
+        assertThat(directory.get(user.id())).isNull();
+
+        directory.put(user);
+
+        assertThat(directory.get(user.id())).isEqualTo(user);
+        verify(userLookup, times(1)).getUserById(user.id());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAtMaxSize() {
+        UserDto first = user();
+        UserDto second = user();
+        UserDto third = user();
+        directory.put(first);
+        directory.put(second);
+        directory.get(first.id());
+
+        directory.put(third);
+
+        assertThat(meterRegistry.get("user.directory.size").gauge().value()).isEqualTo(2);
+        directory.get(first.id());
+        directory.get(third.id());
+        verify(userLookup, never()).getUserById(any());
+        directory.get(second.id());
+        verify(userLookup).getUserById(second.id());
+    }
+
+    @Test
+    void hitRatioGaugeCountsHitsOverAllGets() {
+        UserDto user = user();
+        when(userLookup.getUserById(user.id())).thenReturn(user);
+
+        directory.get(user.id());
+        directory.get(user.id());
+        directory.get(user.id());
+        directory.get(user.id());
+
+        assertThat(meterRegistry.get("user.directory.hit.ratio").gauge().value()).isEqualTo(0.75);
+    }
+
+    @Test
+    void remoteFailureIsNotCached() {
+        UUID id = UUID.randomUUID();
+        when(userLookup.getUserById(id)).thenThrow(new IllegalStateException("auth-service down"));
+
+        assertThatThrownBy(() -> directory.get(id)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> directory.get(id)).isInstanceOf(IllegalStateException.class);
+
+        verify(userLookup, times(2)).getUserById(id);
+    }
+
+    private static UserDto user() {
+        UUID id = UUID.randomUUID();
+        return new UserDto(id, id + "@example.com", "Driver " + id, "DRIVER");
+    }
+}
@@ -0,0 +1,35 @@
+package com.courier.tracking.cluster;
+
+import com.courier.tracking.dto.LocationUpdate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * What a node's viewers are subscribed to, announced with every heartbeat so owners only
+ * replicate fixes somebody on that node will see.
+ */
+public record ClusterInterest(
+    boolean allDrivers, // Admin map viewers (or wildcard order subscriptions): every fix
+    Set<UUID> orders    // Orders with a subscriber on the node
+) {
+    public static final ClusterInterest NONE = new ClusterInterest(false, Set.of());
+
+    public List<LocationUpdate> select(List<LocationUpdate> updates) {
+        if (allDrivers) {
+            return updates;
+        }
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<LocationUpdate> selected = new ArrayList<>();
+        for (LocationUpdate update : updates) {
+            if (update.orderId() != null && orders.contains(update.orderId())) {
+                selected.add(update);
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,65 @@
+package com.courier.tracking.cluster;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live view of the cluster built from heartbeats: a peer joins on its first heartbeat and
+ * leaves when it says so, when a message to it bounces, or after {@code failureTimeoutMillis}
+ * of silence. Not thread-safe on its own; {@link ShardRouter} serializes changes.
+ */
+public class ClusterMembership {
+
+    private record Peer(long lastSeen, ClusterInterest interest) {}
+
+    private final String self;
+    private final long failureTimeoutMillis;
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+
+    public ClusterMembership(String self, long failureTimeoutMillis) {
+        this.self = self;
+        this.failureTimeoutMillis = failureTimeoutMillis;
+    }
+
+    /**
+     * @return true if the node was not a member before
+     */
+    public boolean heartbeat(String nodeId, ClusterInterest interest, long nowMillis) {
+        if (self.equals(nodeId)) {
+            return false;
+        }
+        return peers.put(nodeId, new Peer(nowMillis, interest != null ? interest : ClusterInterest.NONE)) == null;
+    }
+
+    /**
+     * @return true if the node was a member
+     */
+    public boolean leave(String nodeId) {
+        return peers.remove(nodeId) != null;
+    }
+
+    /**
+     * Drops peers not heard from within the failure timeout.
+     *
+     * @return true if any peer was dropped
+     */
+    public boolean expire(long nowMillis) {
+        return peers.values().removeIf(peer -> nowMillis - peer.lastSeen() > failureTimeoutMillis);
+    }
+
+    // This node and every live peer, sorted so every node builds the same ring
+    public Set<String> members() {
+        Set<String> members = new TreeSet<>(peers.keySet());
+        members.add(self);
+        return members;
+    }
+
+    public Map<String, ClusterInterest> peerInterests() {
+        Map<String, ClusterInterest> interests = new HashMap<>();
+        peers.forEach((node, peer) -> interests.put(node, peer.interest()));
+        return interests;
+    }
+}
@@ -0,0 +1,8 @@
+package com.courier.tracking.cluster;
+
+import java.util.List;
+
+/**
+ * Published by {@link ShardRouter} after the ring was rebuilt; driver ownership may have moved.
+ */
+public record ClusterMembershipChangedEvent(List<String> members) {}
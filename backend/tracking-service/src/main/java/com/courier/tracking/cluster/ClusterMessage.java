@@ -0,0 +1,32 @@
+package com.courier.tracking.cluster;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.OrderGeofences;
+import com.courier.tracking.dto.TripProgress;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ClusterMessage(
+    String origin,
+    Type type,
+    List<LocationUpdate> updates,
+    List<UUID> driverIds,
+    UUID orderId,
+    OrderGeofences geofences,
+    ClusterInterest interest,
+    TripProgress trip,
+    ClusterTrail trail
+) {
+    public enum Type {
+        INGEST,    // fixes for drivers owned by the receiving node
+        REPLICA,   // fixes accepted by their owner, sent to nodes whose viewers are interested
+        EVICT,     // drivers evicted by their owner
+        GEOFENCE,  // fences registered (or removed, when geofences is null) on one node
+        TRIP,      // a trip of a driver the origin no longer owns, for the receiving node to continue
+        TRAIL,     // a trail read; every node answers with what it recorded
+        POINTS,    // the points the origin recorded for a TRAIL read
+        HEARTBEAT, // the origin is alive, with what its viewers subscribe to
+        LEAVE      // the origin is shutting down
+    }
+}
@@ -0,0 +1,31 @@
+package com.courier.tracking.cluster;
+
+import com.courier.tracking.dto.TrailPoint;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A trail read fanned out to every node: an order's trail (orderId set) or a driver's fixes
+ * between two instants (driverId set). Replies carry the points the answering node recorded.
+ */
+public record ClusterTrail(
+    UUID requestId,
+    UUID orderId,
+    UUID driverId,
+    long fromMillis,
+    long toMillis,
+    List<TrailPoint> points
+) {
+    public static ClusterTrail ofOrder(UUID orderId) {
+        return new ClusterTrail(UUID.randomUUID(), orderId, null, 0, Long.MAX_VALUE, null);
+    }
+
+    public static ClusterTrail ofDriver(UUID driverId, long fromMillis, long toMillis) {
+        return new ClusterTrail(UUID.randomUUID(), null, driverId, fromMillis, toMillis, null);
+    }
+
+    public ClusterTrail withPoints(List<TrailPoint> points) {
+        return new ClusterTrail(requestId, orderId, driverId, fromMillis, toMillis, points);
+    }
+}
@@ -0,0 +1,20 @@
+package com.courier.tracking.cluster;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Moves {@link ClusterMessage}s between tracking-service nodes.
+ */
+public interface ClusterTransport {
+
+    // Messages that cannot reach the node are handed back to the undeliverable handler
+    void send(String nodeId, ClusterMessage message);
+
+    // Delivers to every node except the sender
+    void broadcast(ClusterMessage message);
+
+    void setReceiver(Consumer<ClusterMessage> receiver);
+
+    void setUndeliverableHandler(BiConsumer<String, ClusterMessage> handler);
+}
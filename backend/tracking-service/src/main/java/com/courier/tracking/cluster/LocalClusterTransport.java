@@ -0,0 +1,57 @@
+package com.courier.tracking.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM stand-in for {@link RabbitClusterTransport}: nodes created in the same JVM deliver
+ * to each other synchronously. Meant for tests and local multi-node runs.
+ */
+public class LocalClusterTransport implements ClusterTransport {
+
+    private static final Map<String, LocalClusterTransport> NODES = new ConcurrentHashMap<>();
+
+    private final String nodeId;
+    private volatile Consumer<ClusterMessage> receiver = message -> { };
+    private volatile BiConsumer<String, ClusterMessage> undeliverable = (node, message) -> { };
+
+    public LocalClusterTransport(String nodeId) {
+        this.nodeId = nodeId;
+        NODES.put(nodeId, this);
+    }
+
+    @Override
+    public void send(String targetNodeId, ClusterMessage message) {
+        LocalClusterTransport target = NODES.get(targetNodeId);
+        if (target != null) {
+            target.receiver.accept(message);
+        } else {
+            undeliverable.accept(targetNodeId, message);
+        }
+    }
+
+    @Override
+    public void broadcast(ClusterMessage message) {
+        NODES.forEach((id, node) -> {
+            if (!id.equals(nodeId)) {
+                node.receiver.accept(message);
+            }
+        });
+    }
+
+    @Override
+    public void setReceiver(Consumer<ClusterMessage> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void setUndeliverableHandler(BiConsumer<String, ClusterMessage> handler) {
+        this.undeliverable = handler;
+    }
+
+    public void close() {
+        NODES.remove(nodeId, this);
+    }
+}
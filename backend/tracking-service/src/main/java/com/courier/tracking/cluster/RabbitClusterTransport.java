@@ -0,0 +1,77 @@
+package com.courier.tracking.cluster;
+
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Cluster transport over the tracking.cluster topic exchange. Every node owns a queue bound to
+ * {@code node.<nodeId>} (direct sends) and {@code broadcast}; see ClusterConfig. Direct sends are
+ * mandatory, so a message to a node whose queue is gone comes back instead of vanishing.
+ */
+public class RabbitClusterTransport implements ClusterTransport {
+
+    public static final String CLUSTER_EXCHANGE = "tracking.cluster";
+    public static final String BROADCAST_ROUTING_KEY = "broadcast";
+
+    private static final String NODE_ROUTING_PREFIX = "node.";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String nodeId;
+    private volatile Consumer<ClusterMessage> receiver = message -> { };
+    private volatile BiConsumer<String, ClusterMessage> undeliverable = (node, message) -> { };
+
+    // The template must be dedicated to the cluster: it is made mandatory and owns the returns callback
+    public RabbitClusterTransport(RabbitTemplate rabbitTemplate, String nodeId) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.nodeId = nodeId;
+        rabbitTemplate.setMandatory(true);
+        rabbitTemplate.setReturnsCallback(this::onReturned);
+    }
+
+    public static String nodeRoutingKey(String nodeId) {
+        return NODE_ROUTING_PREFIX + nodeId;
+    }
+
+    @Override
+    public void send(String targetNodeId, ClusterMessage message) {
+        rabbitTemplate.convertAndSend(CLUSTER_EXCHANGE, nodeRoutingKey(targetNodeId), message);
+    }
+
+    @Override
+    public void broadcast(ClusterMessage message) {
+        rabbitTemplate.convertAndSend(CLUSTER_EXCHANGE, BROADCAST_ROUTING_KEY, message);
+    }
+
+    @Override
+    public void setReceiver(Consumer<ClusterMessage> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void setUndeliverableHandler(BiConsumer<String, ClusterMessage> handler) {
+        this.undeliverable = handler;
+    }
+
+    @RabbitListener(queues = "#{clusterQueue.name}")
+    public void onMessage(ClusterMessage message) {
+        if (nodeId.equals(message.origin())) {
+            return; // Our own broadcast
+        }
+        receiver.accept(message);
+    }
+
+    private void onReturned(ReturnedMessage returned) {
+        String routingKey = returned.getRoutingKey();
+        if (routingKey == null || !routingKey.startsWith(NODE_ROUTING_PREFIX)) {
+            return; // A broadcast with no other node listening
+        }
+        Object body = rabbitTemplate.getMessageConverter().fromMessage(returned.getMessage());
+        if (body instanceof ClusterMessage message) {
+            undeliverable.accept(routingKey.substring(NODE_ROUTING_PREFIX.length()), message);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.courier.tracking.cluster;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.OrderGeofences;
+import com.courier.tracking.dto.TrailPoint;
+import com.courier.tracking.dto.TripProgress;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decides which node owns a driver and moves fixes between nodes. Without a
+ * {@link ClusterTransport} (tracking.cluster.enabled=false) this node owns every driver.
+ *
+ * <p>Membership is live: every node broadcasts a heartbeat with its viewers' interest, and the
+ * ring is rebuilt whenever a node joins, leaves, goes silent or bounces a message. Accepted
+ * fixes are replicated only to the nodes whose viewers subscribe to them. History stays on the
+ * node that recorded it, so trail reads ask every node and merge the answers.
+ */
+@Component
+@Slf4j
+public class ShardRouter {
+
+    private final String nodeId;
+    private final int virtualNodes;
+    private final long trailTimeoutMillis;
+    private final ClusterTransport transport;
+    private final ClusterMembership membership;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile ConsistentHashRing ring;
+    private volatile Consumer<ClusterMessage> receiver = message -> { };
+    private volatile Supplier<ClusterInterest> interest = () -> ClusterInterest.NONE;
+    private volatile Function<ClusterTrail, List<TrailPoint>> trailSource = query -> List.of();
+    private final Map<UUID, PendingTrail> pendingTrails = new ConcurrentHashMap<>();
+
+    public ShardRouter(@Value("${tracking.cluster.node-id:local}") String nodeId,
+                       @Value("${tracking.cluster.virtual-nodes:128}") int virtualNodes,
+                       @Value("${tracking.cluster.failure-timeout-ms:5000}") long failureTimeoutMillis,
+                       @Value("${tracking.cluster.trail-timeout-ms:1000}") long trailTimeoutMillis,
+                       ObjectProvider<ClusterTransport> transport,
+                       ApplicationEventPublisher eventPublisher) {
+        this.nodeId = nodeId;
+        this.virtualNodes = virtualNodes;
+        this.trailTimeoutMillis = trailTimeoutMillis;
+        this.membership = new ClusterMembership(nodeId, failureTimeoutMillis);
+        this.ring = new ConsistentHashRing(membership.members(), virtualNodes);
+        this.eventPublisher = eventPublisher;
+        this.transport = transport.getIfAvailable();
+        if (this.transport != null) {
+            this.transport.setReceiver(this::onMessage);
+            this.transport.setUndeliverableHandler(this::onUndeliverable);
+            log.info("Tracking node {} joining cluster", nodeId);
+        }
+    }
+
+    public boolean isClustered() {
+        return transport != null && ring.nodes().size() > 1;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public List<String> members() {
+        return ring.nodes();
+    }
+
+    public boolean owns(UUID driverId) {
+        return !isClustered() || nodeId.equals(ring.ownerOf(driverId));
+    }
+
+    public Map<String, List<LocationUpdate>> partition(List<LocationUpdate> updates) {
+        ConsistentHashRing current = ring;
+        Map<String, List<LocationUpdate>> byOwner = new HashMap<>();
+        for (LocationUpdate update : updates) {
+            if (update.driverId() != null) {
+                byOwner.computeIfAbsent(current.ownerOf(update.driverId()), node -> new ArrayList<>()).add(update);
+            }
+        }
+        return byOwner;
+    }
+
+    public void forward(String targetNodeId, List<LocationUpdate> updates) {
+        ClusterMessage message = new ClusterMessage(nodeId, ClusterMessage.Type.INGEST, updates, List.of(), null, null, null, null, null);
+        try {
+            transport.send(targetNodeId, message);
+        } catch (Exception e) {
+            log.warn("Failed to forward {} fixes to node {}", updates.size(), targetNodeId, e);
+            onUndeliverable(targetNodeId, message);
+        }
+    }
+
+    public void replicate(List<LocationUpdate> accepted) {
+        if (!isClustered() || accepted.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, ClusterInterest> peer : membership.peerInterests().entrySet()) {
+            List<LocationUpdate> wanted = peer.getValue().select(accepted);
+            if (!wanted.isEmpty()) {
+                send(peer.getKey(), new ClusterMessage(nodeId, ClusterMessage.Type.REPLICA, wanted, List.of(), null, null, null, null, null));
+            }
+        }
+    }
+
+    public void replicateEviction(Collection<UUID> driverIds) {
+        if (isClustered() && !driverIds.isEmpty()) {
+            broadcast(new ClusterMessage(nodeId, ClusterMessage.Type.EVICT, List.of(), List.copyOf(driverIds), null, null, null, null, null));
+        }
+    }
+
+    public void replicateGeofences(UUID orderId, OrderGeofences geofences) {
+        if (isClustered()) {
+            broadcast(new ClusterMessage(nodeId, ClusterMessage.Type.GEOFENCE, List.of(), List.of(), orderId, geofences, null, null, null));
+        }
+    }
+
+    // A trip of a driver this node no longer owns, continued by the driver's owner
+    public void handOffTrip(UUID orderId, TripProgress trip) {
+        send(ring.ownerOf(trip.driverId()), new ClusterMessage(nodeId, ClusterMessage.Type.TRIP, List.of(), List.of(),
+                orderId, null, null, trip, null));
+    }
+
+    // Receives every cluster message except membership traffic, which the router handles itself
+    public void setReceiver(Consumer<ClusterMessage> receiver) {
+        this.receiver = receiver;
+    }
+
+    // Answers trail reads from this node's own history
+    public void setTrailSource(Function<ClusterTrail, List<TrailPoint>> trailSource) {
+        this.trailSource = trailSource;
+    }
+
+    /**
+     * Points of a trail recorded anywhere in the cluster, in time order. A driver's fixes are
+     * recorded by whichever node owned it at the time, so one trail can be spread over several
+     * nodes. Nodes that do not answer within tracking.cluster.trail-timeout-ms are left out.
+     */
+    public List<TrailPoint> collectTrail(ClusterTrail query) {
+        if (!isClustered()) {
+            return trailSource.apply(query);
+        }
+        Set<String> peers = new HashSet<>(ring.nodes());
+        peers.remove(nodeId);
+        PendingTrail pending = new PendingTrail(peers);
+        pendingTrails.put(query.requestId(), pending);
+        try {
+            broadcast(new ClusterMessage(nodeId, ClusterMessage.Type.TRAIL, List.of(), List.of(), null, null, null, null, query));
+            pending.add(nodeId, trailSource.apply(query));
+            pending.done.completeOnTimeout(null, trailTimeoutMillis, TimeUnit.MILLISECONDS).join();
+        } finally {
+            pendingTrails.remove(query.requestId());
+        }
+        Set<String> missing = pending.awaiting();
+        if (!missing.isEmpty()) {
+            log.warn("Trail read answered without nodes {}, which did not reply within {} ms", missing, trailTimeoutMillis);
+        }
+        return pending.points();
+    }
+
+    // What this node's viewers subscribe to, sent with each heartbeat
+    public void setInterest(Supplier<ClusterInterest> interest) {
+        this.interest = interest;
+    }
+
+    @Scheduled(fixedRateString = "${tracking.cluster.heartbeat-ms:1000}")
+    public void heartbeat() {
+        if (transport == null) {
+            return;
+        }
+        broadcast(new ClusterMessage(nodeId, ClusterMessage.Type.HEARTBEAT, List.of(), List.of(), null, null, interest.get(), null, null));
+        boolean changed;
+        synchronized (membership) {
+            changed = membership.expire(System.currentTimeMillis());
+            if (changed) {
+                rebuildRing("peer timed out");
+            }
+        }
+        if (changed) {
+            publishMembershipChange();
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (transport != null) {
+            broadcast(new ClusterMessage(nodeId, ClusterMessage.Type.LEAVE, List.of(), List.of(), null, null, null, null, null));
+        }
+    }
+
+    private void onMessage(ClusterMessage message) {
+        switch (message.type()) {
+            case HEARTBEAT -> {
+                boolean joined;
+                synchronized (membership) {
+                    joined = membership.heartbeat(message.origin(), message.interest(), System.currentTimeMillis());
+                    if (joined) {
+                        rebuildRing("node " + message.origin() + " joined");
+                    }
+                }
+                if (joined) {
+                    publishMembershipChange();
+                }
+            }
+            case LEAVE -> removeMember(message.origin(), "left");
+            case TRAIL -> send(message.origin(), new ClusterMessage(nodeId, ClusterMessage.Type.POINTS, List.of(), List.of(),
+                    null, null, null, null, message.trail().withPoints(trailSource.apply(message.trail()))));
+            case POINTS -> {
+                PendingTrail pending = pendingTrails.get(message.trail().requestId());
+                if (pending != null) {
+                    pending.add(message.origin(), message.trail().points());
+                }
+            }
+            default -> receiver.accept(message);
+        }
+    }
+
+    // The target is gone: drop it from the ring and ingest bounced fixes here instead of losing them
+    private void onUndeliverable(String targetNodeId, ClusterMessage message) {
+        removeMember(targetNodeId, "unreachable");
+        if (message.type() == ClusterMessage.Type.INGEST) {
+            receiver.accept(message);
+        }
+    }
+
+    private void removeMember(String member, String reason) {
+        boolean left;
+        synchronized (membership) {
+            left = membership.leave(member);
+            if (left) {
+                rebuildRing("node " + member + " " + reason);
+            }
+        }
+        if (left) {
+            publishMembershipChange();
+        }
+    }
+
+    // Called with the membership lock held; listeners are notified after it is released
+    private void rebuildRing(String reason) {
+        Set<String> members = membership.members();
+        ring = new ConsistentHashRing(members, virtualNodes);
+        log.info("Cluster membership changed ({}): {}", reason, members);
+    }
+
+    private void publishMembershipChange() {
+        eventPublisher.publishEvent(new ClusterMembershipChangedEvent(ring.nodes()));
+    }
+
+    private void send(String targetNodeId, ClusterMessage message) {
+        try {
+            transport.send(targetNodeId, message);
+        } catch (Exception e) {
+            log.warn("Failed to send {} to node {}", message.type(), targetNodeId, e);
+        }
+    }
+
+    private void broadcast(ClusterMessage message) {
+        try {
+            transport.broadcast(message);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast {} to the cluster", message.type(), e);
+        }
+    }
+
+    // Points gathered for one trail read; done once every peer has answered
+    private static final class PendingTrail {
+
+        private final Set<String> awaiting = ConcurrentHashMap.newKeySet();
+        private final List<TrailPoint> points = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingTrail(Set<String> peers) {
+            awaiting.addAll(peers);
+        }
+
+        void add(String node, List<TrailPoint> recorded) {
+            synchronized (points) {
+                points.addAll(recorded);
+            }
+            if (awaiting.remove(node) && awaiting.isEmpty()) {
+                done.complete(null);
+            }
+        }
+
+        Set<String> awaiting() {
+            return Set.copyOf(awaiting);
+        }
+
+        List<TrailPoint> points() {
+            synchronized (points) {
+                List<TrailPoint> sorted = new ArrayList<>(points);
+                sorted.sort(Comparator.comparingLong(TrailPoint::timestamp));
+                return sorted;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.courier.tracking.config;
+
+import com.courier.tracking.websocket.BinaryLocationHandler;
+import com.courier.tracking.websocket.LocationFrameCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+// Binary location frames (see LocationFrameCodec) next to the STOMP endpoint in WebSocketConfig;
+// JSON/STOMP clients keep using /ws
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class BinaryWebSocketConfig implements WebSocketConfigurer {
+
+    private final BinaryLocationHandler binaryLocationHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(binaryLocationHandler, "/ws-binary")
+                .setAllowedOriginPatterns("*");
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        // Room for the largest LocationFrameCodec frame: header, 1024 fixes and 1024 removals
+        container.setMaxBinaryMessageBufferSize(LocationFrameCodec.MAX_FRAME_BYTES);
+        return container;
+    }
+}
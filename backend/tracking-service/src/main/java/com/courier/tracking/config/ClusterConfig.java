@@ -0,0 +1,76 @@
+package com.courier.tracking.config;
+
+import com.courier.tracking.cluster.ClusterTransport;
+import com.courier.tracking.cluster.LocalClusterTransport;
+import com.courier.tracking.cluster.RabbitClusterTransport;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Clustered mode: drivers are sharded over the nodes that are currently heartbeating and fixes
+ * travel between nodes over the configured transport ("rabbit", or "local" for in-JVM runs).
+ * Returned (unroutable) cluster messages need spring.rabbitmq.publisher-returns=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracking.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Value("${tracking.cluster.node-id:local}")
+    private String nodeId;
+
+    @Configuration
+    @ConditionalOnProperty(name = "tracking.cluster.transport", havingValue = "rabbit", matchIfMissing = true)
+    static class RabbitTransportConfig {
+
+        @Value("${tracking.cluster.node-id:local}")
+        private String nodeId;
+
+        @Bean
+        public TopicExchange clusterExchange() {
+            return new TopicExchange(RabbitClusterTransport.CLUSTER_EXCHANGE);
+        }
+
+        // Per-node queue; auto-deleted so a node that leaves does not accumulate fixes
+        @Bean
+        public Queue clusterQueue() {
+            return new Queue(RabbitClusterTransport.CLUSTER_EXCHANGE + "." + nodeId, false, false, true);
+        }
+
+        @Bean
+        public Binding clusterNodeBinding(Queue clusterQueue, TopicExchange clusterExchange) {
+            return BindingBuilder.bind(clusterQueue)
+                    .to(clusterExchange)
+                    .with(RabbitClusterTransport.nodeRoutingKey(nodeId));
+        }
+
+        @Bean
+        public Binding clusterBroadcastBinding(Queue clusterQueue, TopicExchange clusterExchange) {
+            return BindingBuilder.bind(clusterQueue)
+                    .to(clusterExchange)
+                    .with(RabbitClusterTransport.BROADCAST_ROUTING_KEY);
+        }
+
+        // Own template, so making it mandatory does not change how other publishers behave
+        @Bean
+        public RabbitClusterTransport clusterTransport(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+            RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+            rabbitTemplate.setMessageConverter(messageConverter);
+            return new RabbitClusterTransport(rabbitTemplate, nodeId);
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracking.cluster.transport", havingValue = "local")
+    public ClusterTransport localClusterTransport() {
+        return new LocalClusterTransport(nodeId);
+    }
+}
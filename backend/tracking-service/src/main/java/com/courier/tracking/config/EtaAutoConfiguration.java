@@ -0,0 +1,20 @@
+package com.courier.tracking.config;
+
+import com.courier.tracking.eta.Router;
+import com.courier.tracking.eta.StraightLineRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+// An auto-configuration, so the fallback is only registered after every application Router bean is known
+@AutoConfiguration
+public class EtaAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(Router.class)
+    public Router straightLineRouter(@Value("${tracking.eta.road-factor:1.3}") double roadFactor,
+                                     @Value("${tracking.eta.average-speed-kmh:25}") double averageSpeedKmh) {
+        return new StraightLineRouter(roadFactor, averageSpeedKmh);
+    }
+}
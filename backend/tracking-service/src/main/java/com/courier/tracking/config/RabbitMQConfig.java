@@ -0,0 +1,85 @@
+package com.courier.tracking.config;
+
+import com.courier.events.DriverAssigned;
+import com.courier.events.OrderStatusChanged;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    public static final String TRACKING_EXCHANGE = "tracking.exchange";
+    public static final String DRIVER_STALE_ROUTING_KEY = "driver.stale";
+    public static final String GEOFENCE_ENTERED_ROUTING_KEY = "geofence.entered";
+    public static final String GEOFENCE_EXITED_ROUTING_KEY = "geofence.exited";
+
+    public static final String ORDER_EXCHANGE = "order.exchange";
+    public static final String ORDER_STATUS_QUEUE_PREFIX = "tracking.order.status.";
+    public static final String TRIP_COMPLETED_ROUTING_KEY = "order.trip.completed";
+
+    public static final String DRIVER_EXCHANGE = "driver-exchange";
+    public static final String DRIVER_STATUS_QUEUE = "tracking.driver.status.queue";
+    public static final String DRIVER_STATUS_ROUTING_KEY = "driver.status.changed";
+
+    @Bean
+    public TopicExchange trackingExchange() {
+        return new TopicExchange(TRACKING_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange driverExchange() {
+        return new TopicExchange(DRIVER_EXCHANGE);
+    }
+
+    @Bean
+    public Queue driverStatusQueue() {
+        return new Queue(DRIVER_STATUS_QUEUE);
+    }
+
+    @Bean
+    public Binding driverStatusBinding(Queue driverStatusQueue, TopicExchange driverExchange) {
+        return BindingBuilder.bind(driverStatusQueue)
+                .to(driverExchange)
+                .with(DRIVER_STATUS_ROUTING_KEY);
+    }
+
+    @Bean
+    public TopicExchange orderExchange() {
+        return new TopicExchange(ORDER_EXCHANGE);
+    }
+
+    // One auto-delete queue per instance: every node keeps its own copy of the geofences
+    @Bean
+    public Queue orderStatusQueue(@Value("${tracking.cluster.node-id:local}") String nodeId) {
+        return new Queue(ORDER_STATUS_QUEUE_PREFIX + nodeId, false, false, true);
+    }
+
+    @Bean
+    public Binding orderStatusBinding(Queue orderStatusQueue, TopicExchange orderExchange) {
+        return BindingBuilder.bind(orderStatusQueue)
+                .to(orderExchange)
+                .with(OrderStatusChanged.ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding orderAssignedBinding(Queue orderStatusQueue, TopicExchange orderExchange) {
+        return BindingBuilder.bind(orderStatusQueue)
+                .to(orderExchange)
+                .with(DriverAssigned.ROUTING_KEY);
+    }
+
+    @Bean
+    public MessageConverter messageConverter() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+}
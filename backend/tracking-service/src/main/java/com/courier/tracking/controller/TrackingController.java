@@ -1,31 +1,163 @@
 package com.courier.tracking.controller;
 
+import com.courier.tracking.dto.BatchUpdateResponse;
 import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.MapFrame;
+import com.courier.tracking.dto.NearbyDriver;
+import com.courier.tracking.dto.OrderGeofences;
+import com.courier.tracking.dto.OutboundSessionStats;
+import com.courier.tracking.dto.ReportingAdvice;
+import com.courier.tracking.dto.Trail;
+import com.courier.tracking.dto.TrailPoint;
+import com.courier.tracking.dto.Viewport;
+import com.courier.tracking.service.AdminMapBroadcaster;
+import com.courier.tracking.service.DriverIndex;
+import com.courier.tracking.service.GeofenceEngine;
+import com.courier.tracking.service.ReportingIntervalAdvisor;
 import com.courier.tracking.service.TrackingService;
+import com.courier.tracking.service.TrailService;
+import com.courier.tracking.service.ViewportRegistry;
+import com.courier.tracking.websocket.OutboundSessionRegistry;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller; // Use Controller instead of RestController if mixing, but RestController works for both
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/v1/tracking")
 @RequiredArgsConstructor
 public class TrackingController {
 
+    private static final long MAX_TRAIL_WINDOW_MS = 24 * 60 * 60 * 1000L;
+    private static final String ADMIN_ROLE = "ADMIN";
+
     private final TrackingService trackingService;
+    private final DriverIndex driverIndex;
+    private final AdminMapBroadcaster adminMapBroadcaster;
+    private final ViewportRegistry viewportRegistry;
+    private final TrailService trailService;
+    private final OutboundSessionRegistry outboundSessionRegistry;
+    private final ReportingIntervalAdvisor reportingIntervalAdvisor;
+    private final GeofenceEngine geofenceEngine;
 
-    // REST endpoint for HTTP updates
+    // REST endpoint for HTTP updates; the response carries the recommended reporting interval
     @PostMapping("/update")
-    public ResponseEntity<Void> updateLocationRest(@RequestBody LocationUpdate update) {
+    public ResponseEntity<ReportingAdvice> updateLocationRest(@RequestBody LocationUpdate update) {
         trackingService.updateLocation(update);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(reportingIntervalAdvisor.advise(update));
+    }
+
+    // REST endpoint for batched HTTP updates; a batch may hold several drivers, each gets its own interval
+    @PostMapping("/updates")
+    public ResponseEntity<BatchUpdateResponse> updateLocationsRest(@RequestBody List<LocationUpdate> updates) {
+        int accepted = trackingService.updateLocations(updates);
+        return ResponseEntity.ok(new BatchUpdateResponse(updates.size(), accepted, reportingIntervalAdvisor.advise(updates)));
+    }
+
+    // Nearest drivers around a point, answered from the in-memory index. In a cluster each node
+    // only indexes the drivers it owns or replicates, so this reads the shared Redis GEO set instead,
+    // which lags live fixes by the GEO write-behind interval.
+    @GetMapping("/drivers/nearby")
+    public ResponseEntity<List<NearbyDriver>> getNearbyDrivers(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+            @RequestParam(defaultValue = "5000") @DecimalMin("1") @DecimalMax("50000") double radius,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int limit) {
+        return ResponseEntity.ok(driverIndex.nearby(lat, lon, radius, limit));
+    }
+
+    // Drivers inside a bounding box; answered like /drivers/nearby
+    @GetMapping("/drivers/within")
+    public ResponseEntity<List<LocationUpdate>> getDriversWithin(
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double minLat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double minLon,
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") double maxLat,
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") double maxLon,
+            @RequestParam(defaultValue = "1000") @Min(1) @Max(5000) int limit) {
+        return ResponseEntity.ok(driverIndex.within(minLat, minLon, maxLat, maxLon, limit));
+    }
+
+    // Breadcrumb trail of an order, optionally simplified (tolerance in meters) and delta-encoded.
+    // In a cluster it is gathered from every node; nodes that do not answer in time are left out.
+    @GetMapping("/orders/{orderId}/trail")
+    public ResponseEntity<Trail> getOrderTrail(
+            @PathVariable UUID orderId,
+            @RequestParam(required = false) Double tolerance,
+            @RequestParam(defaultValue = "false") boolean delta) {
+        return ResponseEntity.ok(trailService.getOrderTrail(orderId, tolerance, delta));
+    }
+
+    // Pickup and delivery fences of an order; arrivals are published as geofence.entered / geofence.exited
+    @PutMapping("/orders/{orderId}/geofences")
+    public ResponseEntity<Void> putOrderGeofences(@PathVariable UUID orderId, @RequestBody OrderGeofences geofences) {
+        geofenceEngine.register(orderId, geofences);
+        return ResponseEntity.noContent().build();
     }
 
-    // WebSocket endpoint for STOMP updates
+    @DeleteMapping("/orders/{orderId}/geofences")
+    public ResponseEntity<Void> deleteOrderGeofences(@PathVariable UUID orderId) {
+        geofenceEngine.unregister(orderId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Fixes of a driver between two epoch-millis instants, at most MAX_TRAIL_WINDOW_MS apart; gathered like order trails
+    @GetMapping("/drivers/{driverId}/trail")
+    public ResponseEntity<List<TrailPoint>> getDriverTrail(
+            @PathVariable UUID driverId,
+            @RequestParam long from,
+            @RequestParam long to) {
+        if (from < 0 || to < from || to - from > MAX_TRAIL_WINDOW_MS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(trailService.getDriverTrail(driverId, from, to));
+    }
+
+    // Outbound queue depth and drop counts of every STOMP session; admins only (role set by the gateway)
+    @GetMapping("/sessions/outbound")
+    public ResponseEntity<List<OutboundSessionStats>> getOutboundSessionStats(
+            @RequestHeader(value = "X-User-Role", required = false) String role) {
+        if (!ADMIN_ROLE.equals(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(outboundSessionRegistry.stats());
+    }
+
+    // WebSocket endpoint for STOMP updates; interval changes are pushed to /user/queue/reporting-interval
     @MessageMapping("/courier-location")
-    public void updateLocationWs(@Payload LocationUpdate update) {
+    public void updateLocationWs(@Payload LocationUpdate update, @Header("simpSessionId") String sessionId) {
         trackingService.updateLocation(update);
+        reportingIntervalAdvisor.adviseSession(sessionId, update);
+    }
+
+    // WebSocket endpoint for batched STOMP updates; changed intervals are pushed per driver
+    @MessageMapping("/courier-locations")
+    public void updateLocationsWs(@Payload List<LocationUpdate> updates, @Header("simpSessionId") String sessionId) {
+        trackingService.updateLocations(updates);
+        reportingIntervalAdvisor.adviseSession(sessionId, updates);
+    }
+
+    // Full admin map snapshot, sent once to late subscribers before they follow /topic/admin/map deltas
+    @SubscribeMapping("/admin/map/snapshot")
+    public MapFrame getAdminMapSnapshot() {
+        return adminMapBroadcaster.snapshot();
+    }
+
+    // Registers (or moves) the caller's map viewport; frames for it arrive on /user/queue/admin/map
+    @MessageMapping("/admin/viewport")
+    public void updateViewport(@Payload Viewport viewport, @Header("simpSessionId") String sessionId) {
+        viewportRegistry.register(sessionId, viewport);
+        adminMapBroadcaster.sendViewportSnapshot(sessionId, viewport);
     }
 }
@@ -0,0 +1,9 @@
+package com.courier.tracking.dto;
+
+import java.util.List;
+
+public record BatchUpdateResponse(
+    int received,
+    int accepted,
+    List<ReportingAdvice> advice // One per driver in the batch
+) {}
@@ -0,0 +1,9 @@
+package com.courier.tracking.dto;
+
+import java.util.UUID;
+
+public record DriverStaleEvent(
+    UUID driverId,
+    Long lastSeenMillis,
+    String reason // TIMEOUT or OFFLINE
+) {}
@@ -0,0 +1,13 @@
+package com.courier.tracking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.UUID;
+
+// driver.status.changed payload published by driver-service (its Driver entity)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record DriverStatusEvent(
+    UUID id,
+    UUID userId,
+    String status
+) {}
@@ -0,0 +1,8 @@
+package com.courier.tracking.dto;
+
+public record Eta(
+    String target, // PICKUP or DELIVERY
+    double distanceMeters,
+    double durationSeconds,
+    long computedAt
+) {}
@@ -0,0 +1,7 @@
+package com.courier.tracking.dto;
+
+public record FenceSpec(
+    double latitude,
+    double longitude,
+    Double radiusMeters // Defaults to tracking.geofence.default-radius-meters
+) {}
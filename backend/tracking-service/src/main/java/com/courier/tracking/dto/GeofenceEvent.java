@@ -0,0 +1,13 @@
+package com.courier.tracking.dto;
+
+import java.util.UUID;
+
+public record GeofenceEvent(
+    UUID orderId,
+    UUID driverId,
+    String fence,      // PICKUP or DELIVERY
+    String transition, // ENTERED or EXITED
+    double latitude,
+    double longitude,
+    long timestamp
+) {}
@@ -6,5 +6,6 @@ public record LocationUpdate(
     UUID driverId,
     UUID orderId,
     double latitude,
-    double longitude
+    double longitude,
+    Long timestamp // Client fix time (epoch millis), optional
 ) {}
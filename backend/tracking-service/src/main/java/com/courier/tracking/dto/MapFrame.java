@@ -0,0 +1,11 @@
+package com.courier.tracking.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record MapFrame(
+    long sequence,
+    boolean snapshot, // true: full fleet, false: drivers that moved since the previous frame
+    List<LocationUpdate> drivers,
+    List<UUID> removed // drivers evicted since the previous frame
+) {}
@@ -0,0 +1,11 @@
+package com.courier.tracking.dto;
+
+import java.util.UUID;
+
+public record NearbyDriver(
+    UUID driverId,
+    UUID orderId,
+    double latitude,
+    double longitude,
+    double distanceMeters
+) {}
@@ -0,0 +1,9 @@
+package com.courier.tracking.dto;
+
+import java.util.UUID;
+
+public record OrderGeofences(
+    UUID driverId, // Optional; without it fences match fixes carrying the order id
+    FenceSpec pickup,
+    FenceSpec delivery
+) {}
@@ -0,0 +1,21 @@
+package com.courier.tracking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+// /topic/orders/{orderId} payload: the LocationUpdate fields plus the ETA when the order has a target
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderPosition(
+    UUID driverId,
+    UUID orderId,
+    double latitude,
+    double longitude,
+    Long timestamp,
+    Eta eta
+) {
+    public static OrderPosition of(LocationUpdate update, Eta eta) {
+        return new OrderPosition(update.driverId(), update.orderId(), update.latitude(), update.longitude(),
+                update.timestamp(), eta);
+    }
+}
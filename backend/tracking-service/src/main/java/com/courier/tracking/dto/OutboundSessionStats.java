@@ -0,0 +1,9 @@
+package com.courier.tracking.dto;
+
+public record OutboundSessionStats(
+    String sessionId,
+    int depth,
+    long dropped,
+    long conflated,
+    long sendInProgressMillis
+) {}
@@ -0,0 +1,8 @@
+package com.courier.tracking.dto;
+
+import java.util.UUID;
+
+public record ReportingAdvice(
+    UUID driverId,
+    long reportIntervalMs
+) {}
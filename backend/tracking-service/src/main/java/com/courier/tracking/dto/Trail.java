@@ -0,0 +1,22 @@
+package com.courier.tracking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Breadcrumb trail. With {@code encoding = "delta"} the points are returned as parallel arrays
+ * where the first element is absolute and every following element is the difference to the
+ * previous one (coordinates in 1e-7 degrees, timestamps in ms); otherwise {@code points} is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Trail(
+    UUID orderId,
+    int count,
+    String encoding,
+    List<TrailPoint> points,
+    int[] latitudeE7,
+    int[] longitudeE7,
+    long[] timestamps
+) {}
@@ -0,0 +1,7 @@
+package com.courier.tracking.dto;
+
+public record TrailPoint(
+    double latitude,
+    double longitude,
+    long timestamp
+) {}
@@ -0,0 +1,17 @@
+package com.courier.tracking.dto;
+
+import java.util.UUID;
+
+// Running totals of one order's trip; handed to the driver's new owner when cluster membership changes
+public record TripProgress(
+    UUID driverId,
+    long startedAt,
+    double startLatitude,
+    double startLongitude,
+    double latitude, // Last accepted position
+    double longitude,
+    long lastTime,
+    double distanceMeters,
+    double maxSpeedMps,
+    long idleMillis
+) {}
@@ -0,0 +1,15 @@
+package com.courier.tracking.dto;
+
+import java.util.UUID;
+
+public record TripSummary(
+    UUID orderId,
+    UUID driverId,
+    String status, // Terminal order status: DELIVERED or CANCELLED
+    double distanceMeters,
+    long durationSeconds,
+    double maxSpeedMps,
+    long idleSeconds,
+    long startedAt,
+    long endedAt
+) {}
@@ -0,0 +1,45 @@
+package com.courier.tracking.dto;
+
+import java.util.List;
+
+public record Viewport(
+    double minLat,
+    double minLon,
+    double maxLat,
+    double maxLon // Less than minLon when the viewport crosses the antimeridian
+) {
+    // Bounds are clamped to ±90/±180; NaN or inverted latitudes are rejected before the viewport is registered
+    public Viewport {
+        if (Double.isNaN(minLat) || Double.isNaN(minLon) || Double.isNaN(maxLat) || Double.isNaN(maxLon)) {
+            throw new IllegalArgumentException("Viewport bounds must be numbers");
+        }
+        if (minLat > maxLat) {
+            throw new IllegalArgumentException("Viewport minLat " + minLat + " is above maxLat " + maxLat);
+        }
+        minLat = Math.clamp(minLat, -90, 90);
+        maxLat = Math.clamp(maxLat, -90, 90);
+        minLon = Math.clamp(minLon, -180, 180);
+        maxLon = Math.clamp(maxLon, -180, 180);
+    }
+
+    public boolean crossesAntimeridian() {
+        return minLon > maxLon;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLat || latitude > maxLat) {
+            return false;
+        }
+        return crossesAntimeridian()
+                ? longitude >= minLon || longitude <= maxLon
+                : longitude >= minLon && longitude <= maxLon;
+    }
+
+    // Plain lat/lon boxes covering the viewport: one, or two split at the antimeridian
+    public List<Viewport> boxes() {
+        if (!crossesAntimeridian()) {
+            return List.of(this);
+        }
+        return List.of(new Viewport(minLat, minLon, maxLat, 180), new Viewport(minLat, -180, maxLat, maxLon));
+    }
+}
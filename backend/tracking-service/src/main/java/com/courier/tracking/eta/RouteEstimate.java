@@ -0,0 +1,3 @@
+package com.courier.tracking.eta;
+
+public record RouteEstimate(double distanceMeters, double durationSeconds) {}
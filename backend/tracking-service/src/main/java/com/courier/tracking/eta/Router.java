@@ -0,0 +1,10 @@
+package com.courier.tracking.eta;
+
+/**
+ * Travel distance and time between two points. Declare a bean of this type to plug in a real
+ * routing engine; {@link StraightLineRouter} is auto-configured otherwise.
+ */
+public interface Router {
+
+    RouteEstimate route(double fromLat, double fromLon, double toLat, double toLon);
+}
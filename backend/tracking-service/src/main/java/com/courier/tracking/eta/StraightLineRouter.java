@@ -0,0 +1,23 @@
+package com.courier.tracking.eta;
+
+import com.courier.tracking.geo.GeoUtils;
+
+/**
+ * Offline stand-in: great-circle distance stretched by a road factor, at a constant average speed.
+ */
+public class StraightLineRouter implements Router {
+
+    private final double roadFactor;
+    private final double metersPerSecond;
+
+    public StraightLineRouter(double roadFactor, double averageSpeedKmh) {
+        this.roadFactor = roadFactor;
+        this.metersPerSecond = averageSpeedKmh / 3.6;
+    }
+
+    @Override
+    public RouteEstimate route(double fromLat, double fromLon, double toLat, double toLon) {
+        double distance = GeoUtils.distanceMeters(fromLat, fromLon, toLat, toLon) * roadFactor;
+        return new RouteEstimate(distance, distance / metersPerSecond);
+    }
+}
@@ -0,0 +1,164 @@
+package com.courier.tracking.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread-safe uniform lat/lon grid. Each key lives in exactly one cell, so moving a key is two
+ * set operations and a bounding-box query only touches the cells it overlaps.
+ */
+public class GridIndex<K, V> {
+
+    public record Entry<K, V>(K key, double latitude, double longitude, V value) {}
+
+    private final double cellDegrees;
+    private final int minRow;
+    private final int maxRow;
+    private final int minCol;
+    private final int maxCol;
+    private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<K>> cells = new ConcurrentHashMap<>();
+
+    public GridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.minRow = index(-90);
+        this.maxRow = index(90);
+        this.minCol = index(-180);
+        this.maxCol = index(180);
+    }
+
+    public void put(K key, double latitude, double longitude, V value) {
+        long cell = cellOf(latitude, longitude);
+        // compute() serializes moves of the same key, so a key is never left in two cells
+        entries.compute(key, (k, previous) -> {
+            if (previous == null) {
+                addToCell(cell, k);
+            } else {
+                long previousCell = cellOf(previous.latitude(), previous.longitude());
+                if (previousCell != cell) {
+                    removeFromCell(previousCell, k);
+                    addToCell(cell, k);
+                }
+            }
+            return new Entry<>(k, latitude, longitude, value);
+        });
+    }
+
+    /**
+     * Inserts the key only if it is not indexed yet, atomically with respect to {@link #put}.
+     *
+     * @return true if the entry was inserted
+     */
+    public boolean putIfAbsent(K key, double latitude, double longitude, V value) {
+        long cell = cellOf(latitude, longitude);
+        AtomicReference<Entry<K, V>> inserted = new AtomicReference<>();
+        entries.computeIfAbsent(key, k -> {
+            addToCell(cell, k);
+            Entry<K, V> entry = new Entry<>(k, latitude, longitude, value);
+            inserted.set(entry);
+            return entry;
+        });
+        return inserted.get() != null;
+    }
+
+    public Entry<K, V> remove(K key) {
+        AtomicReference<Entry<K, V>> removed = new AtomicReference<>();
+        entries.computeIfPresent(key, (k, previous) -> {
+            removeFromCell(cellOf(previous.latitude(), previous.longitude()), k);
+            removed.set(previous);
+            return null;
+        });
+        return removed.get();
+    }
+
+    public Entry<K, V> get(K key) {
+        return entries.get(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Collection<Entry<K, V>> entries() {
+        return entries.values();
+    }
+
+    /**
+     * Entries inside the box. Row and column ranges are clamped to the ±90/±180 grid, so an
+     * out-of-range box costs at most a flat scan; inverted or NaN bounds match nothing.
+     */
+    public List<Entry<K, V>> within(double minLat, double minLon, double maxLat, double maxLon) {
+        List<Entry<K, V>> result = new ArrayList<>();
+        if (!(minLat <= maxLat && minLon <= maxLon)) {
+            return result;
+        }
+        int fromRow = Math.clamp(index(minLat), minRow, maxRow);
+        int toRow = Math.clamp(index(maxLat), minRow, maxRow);
+        int fromCol = Math.clamp(index(minLon), minCol, maxCol);
+        int toCol = Math.clamp(index(maxLon), minCol, maxCol);
+        long cellCount = ((long) toRow - fromRow + 1) * ((long) toCol - fromCol + 1);
+
+        if (cellCount > entries.size()) {
+            // Box covers more cells than there are entries; a flat scan is cheaper
+            for (Entry<K, V> entry : entries.values()) {
+                if (contains(entry, minLat, minLon, maxLat, maxLon)) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        }
+
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int col = fromCol; col <= toCol; col++) {
+                Set<K> keys = cells.get(key(row, col));
+                if (keys == null) {
+                    continue;
+                }
+                for (K key : keys) {
+                    Entry<K, V> entry = entries.get(key);
+                    if (entry != null && contains(entry, minLat, minLon, maxLat, maxLon)) {
+                        result.add(entry);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean contains(Entry<?, ?> entry, double minLat, double minLon, double maxLat, double maxLon) {
+        return entry.latitude() >= minLat && entry.latitude() <= maxLat
+                && entry.longitude() >= minLon && entry.longitude() <= maxLon;
+    }
+
+    private void addToCell(long cell, K key) {
+        cells.compute(cell, (c, keys) -> {
+            Set<K> target = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            target.add(key);
+            return target;
+        });
+    }
+
+    private void removeFromCell(long cell, K key) {
+        cells.computeIfPresent(cell, (c, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(index(latitude), index(longitude));
+    }
+
+    private int index(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+}
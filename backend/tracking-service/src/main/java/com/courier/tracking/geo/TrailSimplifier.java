@@ -0,0 +1,70 @@
+package com.courier.tracking.geo;
+
+import com.courier.tracking.dto.TrailPoint;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+public final class TrailSimplifier {
+
+    private TrailSimplifier() {
+    }
+
+    /**
+     * Douglas-Peucker simplification. Distances are measured in meters on a local
+     * equirectangular projection, which is accurate enough at delivery-route scale.
+     */
+    public static List<TrailPoint> douglasPeucker(List<TrailPoint> points, double toleranceMeters) {
+        if (points.size() < 3 || toleranceMeters <= 0) {
+            return points;
+        }
+        boolean[] keep = new boolean[points.size()];
+        keep[0] = true;
+        keep[points.size() - 1] = true;
+
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[]{0, points.size() - 1});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int first = range[0];
+            int last = range[1];
+            double maxDistance = -1;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = perpendicularDistance(points.get(i), points.get(first), points.get(last));
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest != -1 && maxDistance > toleranceMeters) {
+                keep[farthest] = true;
+                ranges.push(new int[]{first, farthest});
+                ranges.push(new int[]{farthest, last});
+            }
+        }
+
+        List<TrailPoint> result = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            if (keep[i]) {
+                result.add(points.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static double perpendicularDistance(TrailPoint point, TrailPoint start, TrailPoint end) {
+        double cosLat = Math.cos(Math.toRadians(start.latitude()));
+        double x = (point.longitude() - start.longitude()) * cosLat * GeoUtils.METERS_PER_DEGREE_LAT;
+        double y = (point.latitude() - start.latitude()) * GeoUtils.METERS_PER_DEGREE_LAT;
+        double dx = (end.longitude() - start.longitude()) * cosLat * GeoUtils.METERS_PER_DEGREE_LAT;
+        double dy = (end.latitude() - start.latitude()) * GeoUtils.METERS_PER_DEGREE_LAT;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return Math.hypot(x, y);
+        }
+        return Math.abs(x * dy - y * dx) / Math.sqrt(lengthSquared);
+    }
+}
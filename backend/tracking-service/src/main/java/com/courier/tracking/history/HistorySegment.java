@@ -0,0 +1,243 @@
+package com.courier.tracking.history;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.TrailPoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One time-bounded, memory-mapped log file of fixed-width location records.
+ *
+ * <pre>
+ * record (48 bytes): 16B driverId | 16B orderId (all zero = none) | i32 lat * 1e7 | i32 lon * 1e7 | i64 timestamp
+ * </pre>
+ *
+ * Only the store's writer thread appends; readers see every record below the volatile
+ * {@code size}. Sealing trims the file to its used length and drops the writable mapping.
+ * Each driver and order keeps the offsets of its records, so queries read only matching records
+ * instead of scanning the segment. Only the active segment holds them on the heap; sealing writes
+ * them to a {@link SegmentIndex} file and drops the in-memory copy.
+ */
+class HistorySegment {
+
+    static final int RECORD_BYTES = 48;
+
+    private static final double SCALE = 1e7;
+    private static final int DRIVER_OFFSET = 0;
+    private static final int ORDER_OFFSET = 16;
+
+    final Path path;
+    final long startMillis;
+    private final Map<UUID, RecordPostings> byDriver = new ConcurrentHashMap<>();
+    private final Map<UUID, RecordPostings> byOrder = new ConcurrentHashMap<>();
+    // Set before the in-memory postings are cleared, so readers check the maps first
+    private volatile SegmentIndex sealedIndex;
+
+    private MappedByteBuffer writeBuffer;
+    private volatile ByteBuffer readBuffer;
+    private volatile int size;
+    private volatile long lastMillis;
+    // Oldest client timestamp in the segment; with clock skew it can precede startMillis
+    private volatile long firstMillis;
+
+    private HistorySegment(Path path, long startMillis) {
+        this.path = path;
+        this.startMillis = startMillis;
+        this.lastMillis = startMillis;
+        this.firstMillis = startMillis;
+    }
+
+    static HistorySegment create(Path path, long startMillis, int capacityBytes) throws IOException {
+        HistorySegment segment = new HistorySegment(path, startMillis);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int capacity = capacityBytes - capacityBytes % RECORD_BYTES;
+            segment.writeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            segment.readBuffer = segment.writeBuffer.duplicate();
+        }
+        return segment;
+    }
+
+    /**
+     * Reopens a segment left by a previous run and seals it. A segment sealed cleanly is mapped
+     * with its persisted index; otherwise its records are scanned and the index is rebuilt.
+     */
+    static HistorySegment recover(Path path, long startMillis) throws IOException {
+        HistorySegment segment = new HistorySegment(path, startMillis);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            SegmentIndex index = channel.size() % RECORD_BYTES == 0 && channel.size() <= Integer.MAX_VALUE
+                    ? SegmentIndex.open(SegmentIndex.pathFor(path), (int) channel.size()) : null;
+            if (index != null) {
+                segment.size = (int) channel.size();
+                segment.firstMillis = index.firstMillis();
+                segment.lastMillis = index.lastMillis();
+                segment.readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+                segment.sealedIndex = index;
+                return segment;
+            }
+
+            long length = channel.size() - channel.size() % RECORD_BYTES;
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int used = 0;
+            while (used < length && !isEmptyRecord(buffer, used)) {
+                segment.index(uuidAt(buffer, used + DRIVER_OFFSET), uuidAt(buffer, used + ORDER_OFFSET),
+                        used, buffer.getLong(used + 40));
+                used += RECORD_BYTES;
+            }
+            segment.size = used;
+            channel.truncate(used);
+            segment.readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, used);
+        }
+        segment.persistIndex();
+        return segment;
+    }
+
+    boolean isFull() {
+        return writeBuffer == null || size + RECORD_BYTES > writeBuffer.capacity();
+    }
+
+    long lastMillis() {
+        return lastMillis;
+    }
+
+    int recordCount() {
+        return size / RECORD_BYTES;
+    }
+
+    void append(LocationUpdate update, long timestamp) {
+        int offset = size;
+        writeBuffer.putLong(offset, update.driverId().getMostSignificantBits());
+        writeBuffer.putLong(offset + 8, update.driverId().getLeastSignificantBits());
+        writeBuffer.putLong(offset + 16, update.orderId() != null ? update.orderId().getMostSignificantBits() : 0L);
+        writeBuffer.putLong(offset + 24, update.orderId() != null ? update.orderId().getLeastSignificantBits() : 0L);
+        writeBuffer.putInt(offset + 32, (int) Math.round(update.latitude() * SCALE));
+        writeBuffer.putInt(offset + 36, (int) Math.round(update.longitude() * SCALE));
+        writeBuffer.putLong(offset + 40, timestamp);
+
+        index(update.driverId(), update.orderId(), offset, timestamp);
+        size = offset + RECORD_BYTES; // Publishes the record to readers
+    }
+
+    private void index(UUID driverId, UUID orderId, int offset, long timestamp) {
+        byDriver.computeIfAbsent(driverId, id -> new RecordPostings()).add(offset);
+        if (orderId != null) {
+            byOrder.computeIfAbsent(orderId, id -> new RecordPostings()).add(offset);
+        }
+        lastMillis = Math.max(lastMillis, timestamp);
+        firstMillis = Math.min(firstMillis, timestamp);
+    }
+
+    private void persistIndex() throws IOException {
+        sealedIndex = SegmentIndex.write(SegmentIndex.pathFor(path), size, firstMillis, lastMillis, byDriver, byOrder);
+        byDriver.clear();
+        byOrder.clear();
+    }
+
+    long firstMillis() {
+        return firstMillis;
+    }
+
+    boolean hasDriver(UUID driverId) {
+        if (byDriver.containsKey(driverId)) {
+            return true;
+        }
+        SegmentIndex index = sealedIndex;
+        return index != null && index.driverOffsets(driverId).length > 0;
+    }
+
+    boolean hasOrder(UUID orderId) {
+        if (byOrder.containsKey(orderId)) {
+            return true;
+        }
+        SegmentIndex index = sealedIndex;
+        return index != null && index.orderOffsets(orderId).length > 0;
+    }
+
+    /**
+     * Flushes to disk, trims the unused tail of the preallocated file, remaps it read-only and
+     * moves the postings off the heap into the segment's index file.
+     */
+    void seal() throws IOException {
+        if (writeBuffer == null) {
+            return;
+        }
+        writeBuffer.force();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            writeBuffer = null;
+            channel.truncate(size);
+        }
+        persistIndex();
+    }
+
+    void force() {
+        if (writeBuffer != null) {
+            writeBuffer.force();
+        }
+    }
+
+    void collectByOrder(UUID orderId, List<TrailPoint> out) {
+        RecordPostings postings = byOrder.get(orderId);
+        SegmentIndex index = sealedIndex;
+        if (postings != null) {
+            int count = postings.count();
+            collect(postings.offsets(), count, Long.MIN_VALUE, Long.MAX_VALUE, out);
+        } else if (index != null) {
+            int[] offsets = index.orderOffsets(orderId);
+            collect(offsets, offsets.length, Long.MIN_VALUE, Long.MAX_VALUE, out);
+        }
+    }
+
+    void collectByDriver(UUID driverId, long fromMillis, long toMillis, List<TrailPoint> out) {
+        RecordPostings postings = byDriver.get(driverId);
+        SegmentIndex index = sealedIndex;
+        if (postings != null) {
+            int count = postings.count();
+            collect(postings.offsets(), count, fromMillis, toMillis, out);
+        } else if (index != null) {
+            int[] offsets = index.driverOffsets(driverId);
+            collect(offsets, offsets.length, fromMillis, toMillis, out);
+        }
+    }
+
+    private void collect(int[] offsets, int count, long fromMillis, long toMillis, List<TrailPoint> out) {
+        int limit = size;
+        ByteBuffer buffer = readBuffer;
+        for (int i = 0; i < count; i++) {
+            int offset = offsets[i];
+            if (offset >= limit) {
+                break; // Indexed but not yet published
+            }
+            long timestamp = buffer.getLong(offset + 40);
+            if (timestamp >= fromMillis && timestamp <= toMillis) {
+                out.add(new TrailPoint(buffer.getInt(offset + 32) / SCALE, buffer.getInt(offset + 36) / SCALE, timestamp));
+            }
+        }
+    }
+
+    void delete() throws IOException {
+        writeBuffer = null;
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(SegmentIndex.pathFor(path));
+    }
+
+    private static boolean isEmptyRecord(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset) == 0L && buffer.getLong(offset + 8) == 0L;
+    }
+
+    private static UUID uuidAt(ByteBuffer buffer, int offset) {
+        long most = buffer.getLong(offset);
+        long least = buffer.getLong(offset + 8);
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+}
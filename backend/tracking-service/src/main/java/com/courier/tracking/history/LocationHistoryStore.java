@@ -0,0 +1,197 @@
+package com.courier.tracking.history;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.TrailPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only history of accepted fixes in time-segmented, memory-mapped files.
+ * The ingest path only enqueues; a single writer thread appends, rolls segments over by
+ * age or size, and sealed segments past the retention window are deleted.
+ */
+@Component
+@Slf4j
+public class LocationHistoryStore {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long segmentMillis;
+    private final int segmentBytes;
+    private final long retentionMillis;
+    private final BlockingQueue<LocationUpdate> queue;
+    private final Counter droppedCounter;
+
+    private final NavigableMap<Long, HistorySegment> segments = new ConcurrentSkipListMap<>();
+    private volatile HistorySegment active;
+    private volatile boolean running;
+    private Thread writer;
+
+    public LocationHistoryStore(@Value("${tracking.history.dir:data/history}") String directory,
+                                @Value("${tracking.history.segment-minutes:60}") long segmentMinutes,
+                                @Value("${tracking.history.segment-megabytes:64}") int segmentMegabytes,
+                                @Value("${tracking.history.retention-hours:168}") long retentionHours,
+                                @Value("${tracking.history.queue-capacity:100000}") int queueCapacity,
+                                MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+        this.segmentMillis = TimeUnit.MINUTES.toMillis(segmentMinutes);
+        // A mapped segment is capped at 2 GB
+        this.segmentBytes = (int) Math.min(Integer.MAX_VALUE, segmentMegabytes * 1024L * 1024);
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.droppedCounter = meterRegistry.counter("tracking.history.dropped");
+        Gauge.builder("tracking.history.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        Gauge.builder("tracking.history.segments", segments, NavigableMap::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                long start = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(start, HistorySegment.recover(file, start));
+            }
+        }
+        log.info("Location history opened at {} with {} segments", directory.toAbsolutePath(), segments.size());
+
+        running = true;
+        writer = new Thread(this::writeLoop, "location-history-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a fix for appending. Never blocks; fixes are dropped (and counted) when the
+     * writer falls behind so the live ingest path is unaffected.
+     */
+    public void append(LocationUpdate update) {
+        LocationUpdate stamped = update.timestamp() != null ? update
+                : new LocationUpdate(update.driverId(), update.orderId(), update.latitude(), update.longitude(), System.currentTimeMillis());
+        if (!queue.offer(stamped)) {
+            droppedCounter.increment();
+        }
+    }
+
+    public List<TrailPoint> orderTrail(UUID orderId) {
+        List<TrailPoint> points = new ArrayList<>();
+        for (HistorySegment segment : segments.values()) {
+            if (segment.hasOrder(orderId)) {
+                segment.collectByOrder(orderId, points);
+            }
+        }
+        points.sort(Comparator.comparingLong(TrailPoint::timestamp));
+        return points;
+    }
+
+    public List<TrailPoint> driverTrail(UUID driverId, long fromMillis, long toMillis) {
+        List<TrailPoint> points = new ArrayList<>();
+        // Segments are keyed by server time but hold client timestamps, so match on the
+        // timestamps actually recorded rather than on the segment key
+        for (HistorySegment segment : segments.values()) {
+            if (segment.firstMillis() > toMillis || segment.lastMillis() < fromMillis) {
+                continue;
+            }
+            if (segment.hasDriver(driverId)) {
+                segment.collectByDriver(driverId, fromMillis, toMillis, points);
+            }
+        }
+        points.sort(Comparator.comparingLong(TrailPoint::timestamp));
+        return points;
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.history.retention-check-ms:600000}")
+    public void enforceRetention() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        for (HistorySegment segment : segments.values()) {
+            if (segment != active && segment.lastMillis() < cutoff) {
+                segments.remove(segment.startMillis);
+                try {
+                    segment.delete();
+                    log.info("Deleted expired history segment {}", segment.path.getFileName());
+                } catch (IOException e) {
+                    log.warn("Failed to delete history segment {}", segment.path, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void writeLoop() {
+        List<LocationUpdate> batch = new ArrayList<>(1024);
+        while (running || !queue.isEmpty()) {
+            try {
+                LocationUpdate first = queue.poll(200, TimeUnit.MILLISECONDS);
+                long now = System.currentTimeMillis();
+                if (active != null && (now - active.startMillis >= segmentMillis)) {
+                    roll(now);
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 1023);
+                for (LocationUpdate update : batch) {
+                    if (active == null || active.isFull()) {
+                        roll(now);
+                    }
+                    active.append(update, update.timestamp());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Failed to append {} fixes to location history", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    private void roll(long now) throws IOException {
+        if (active != null) {
+            active.seal();
+            log.info("Sealed history segment {} with {} records", active.path.getFileName(), active.recordCount());
+        }
+        long start = segments.isEmpty() ? now : Math.max(now, segments.lastKey() + 1);
+        HistorySegment segment = HistorySegment.create(directory.resolve(start + SEGMENT_SUFFIX), start, segmentBytes);
+        segments.put(start, segment);
+        active = segment;
+    }
+}
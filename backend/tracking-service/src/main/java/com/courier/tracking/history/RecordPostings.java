@@ -0,0 +1,34 @@
+package com.courier.tracking.history;
+
+import java.util.Arrays;
+
+/**
+ * Offsets of one key's records within the active segment, in append order. Appended by the single
+ * writer thread; readers see every offset below {@link #count()} without locking, because the
+ * array is published before the count and a grown array keeps every earlier offset.
+ */
+final class RecordPostings {
+
+    private volatile int[] offsets = new int[4];
+    private volatile int count;
+
+    void add(int offset) {
+        int[] current = offsets;
+        int n = count;
+        if (n == current.length) {
+            current = Arrays.copyOf(current, n * 2);
+        }
+        current[n] = offset;
+        offsets = current;
+        count = n + 1;
+    }
+
+    int count() {
+        return count;
+    }
+
+    // Read count() first: the array read afterwards always holds at least that many offsets
+    int[] offsets() {
+        return offsets;
+    }
+}
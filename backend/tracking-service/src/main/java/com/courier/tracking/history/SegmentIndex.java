@@ -0,0 +1,181 @@
+package com.courier.tracking.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Driver and order postings of a sealed segment, persisted next to it and memory-mapped, so
+ * retained segments cost no heap per record and recovery does not rescan them.
+ *
+ * <pre>
+ * header (40 bytes): i32 magic | i32 version | i32 segment bytes | i32 driver keys | i32 order keys
+ *                    | i32 offsets | i64 first timestamp | i64 last timestamp
+ * key (24 bytes):    16B key | i32 first posting | i32 posting count   (drivers, then orders; sorted by key)
+ * posting (4 bytes): i32 record offset                                  (per key, in append order)
+ * </pre>
+ */
+final class SegmentIndex {
+
+    static final String SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x48494458; // "HIDX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final int KEY_BYTES = 24;
+    private static final Comparator<UUID> KEY_ORDER = Comparator
+            .comparingLong(UUID::getMostSignificantBits)
+            .thenComparingLong(UUID::getLeastSignificantBits);
+
+    private final ByteBuffer buffer;
+    private final int driverKeys;
+    private final int orderKeys;
+    private final int postingsStart;
+
+    private SegmentIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.driverKeys = buffer.getInt(12);
+        this.orderKeys = buffer.getInt(16);
+        this.postingsStart = HEADER_BYTES + (driverKeys + orderKeys) * KEY_BYTES;
+    }
+
+    static Path pathFor(Path segmentPath) {
+        return segmentPath.resolveSibling(segmentPath.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Writes the index through a temporary file and an atomic rename, then maps it.
+     */
+    static SegmentIndex write(Path path, int segmentBytes, long firstMillis, long lastMillis,
+                              Map<UUID, RecordPostings> byDriver, Map<UUID, RecordPostings> byOrder) throws IOException {
+        List<Map.Entry<UUID, RecordPostings>> drivers = sorted(byDriver);
+        List<Map.Entry<UUID, RecordPostings>> orders = sorted(byOrder);
+        int postings = 0;
+        for (RecordPostings recordPostings : byDriver.values()) {
+            postings += recordPostings.count();
+        }
+        for (RecordPostings recordPostings : byOrder.values()) {
+            postings += recordPostings.count();
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + (drivers.size() + orders.size()) * KEY_BYTES + postings * 4);
+        out.putInt(MAGIC).putInt(VERSION).putInt(segmentBytes).putInt(drivers.size()).putInt(orders.size())
+                .putInt(postings).putLong(firstMillis).putLong(lastMillis);
+        int next = 0;
+        for (List<Map.Entry<UUID, RecordPostings>> keys : List.of(drivers, orders)) {
+            for (Map.Entry<UUID, RecordPostings> key : keys) {
+                out.putLong(key.getKey().getMostSignificantBits()).putLong(key.getKey().getLeastSignificantBits())
+                        .putInt(next).putInt(key.getValue().count());
+                next += key.getValue().count();
+            }
+        }
+        for (List<Map.Entry<UUID, RecordPostings>> keys : List.of(drivers, orders)) {
+            for (Map.Entry<UUID, RecordPostings> key : keys) {
+                int count = key.getValue().count();
+                out.asIntBuffer().put(0, key.getValue().offsets(), 0, count);
+                out.position(out.position() + count * 4);
+            }
+        }
+        out.flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(path, segmentBytes);
+    }
+
+    /**
+     * Maps an existing index, or returns null if it is missing, torn or belongs to a segment of
+     * another length.
+     */
+    static SegmentIndex open(Path path, int segmentBytes) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != segmentBytes) {
+                return null;
+            }
+            long expected = HEADER_BYTES + (long) (buffer.getInt(12) + buffer.getInt(16)) * KEY_BYTES
+                    + (long) buffer.getInt(20) * 4;
+            return length == expected ? new SegmentIndex(buffer) : null;
+        }
+    }
+
+    long firstMillis() {
+        return buffer.getLong(24);
+    }
+
+    long lastMillis() {
+        return buffer.getLong(32);
+    }
+
+    // Record offsets of the driver, in append order; empty if it has none in this segment
+    int[] driverOffsets(UUID driverId) {
+        return offsets(find(driverId, 0, driverKeys));
+    }
+
+    int[] orderOffsets(UUID orderId) {
+        return offsets(find(orderId, driverKeys, driverKeys + orderKeys));
+    }
+
+    private int find(UUID key, int from, int to) {
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int at = HEADER_BYTES + mid * KEY_BYTES;
+            int cmp = Long.compare(buffer.getLong(at), most);
+            if (cmp == 0) {
+                cmp = Long.compare(buffer.getLong(at + 8), least);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int[] offsets(int slot) {
+        if (slot < 0) {
+            return new int[0];
+        }
+        int at = HEADER_BYTES + slot * KEY_BYTES;
+        int first = buffer.getInt(at + 16);
+        int[] offsets = new int[buffer.getInt(at + 20)];
+        buffer.slice(postingsStart + first * 4, offsets.length * 4).asIntBuffer().get(offsets);
+        return offsets;
+    }
+
+    private static List<Map.Entry<UUID, RecordPostings>> sorted(Map<UUID, RecordPostings> postings) {
+        List<Map.Entry<UUID, RecordPostings>> keys = new ArrayList<>(postings.entrySet());
+        keys.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        return keys;
+    }
+}
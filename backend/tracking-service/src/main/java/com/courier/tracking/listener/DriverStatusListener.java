@@ -0,0 +1,25 @@
+package com.courier.tracking.listener;
+
+import com.courier.tracking.config.RabbitMQConfig;
+import com.courier.tracking.dto.DriverStatusEvent;
+import com.courier.tracking.service.StaleDriverEvictor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DriverStatusListener {
+
+    private final StaleDriverEvictor staleDriverEvictor;
+
+    @RabbitListener(queues = RabbitMQConfig.DRIVER_STATUS_QUEUE)
+    public void handleDriverStatusChanged(DriverStatusEvent event) {
+        if ("OFFLINE".equals(event.status()) && event.userId() != null) {
+            log.info("Driver {} went OFFLINE, evicting from tracking", event.userId());
+            staleDriverEvictor.evict(event.userId(), "OFFLINE");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.courier.tracking.listener;
+
+import com.courier.events.DriverAssigned;
+import com.courier.events.OrderStatusChanged;
+import com.courier.tracking.dto.FenceSpec;
+import com.courier.tracking.service.EtaService;
+import com.courier.tracking.service.GeofenceEngine;
+import com.courier.tracking.service.TripOdometer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@RabbitListener(queues = "#{orderStatusQueue.name}")
+public class OrderStatusListener {
+
+    private final GeofenceEngine geofenceEngine;
+    private final EtaService etaService;
+    private final TripOdometer tripOdometer;
+
+    @RabbitHandler
+    public void handleDriverAssigned(DriverAssigned event) {
+        geofenceEngine.onAssigned(event.orderId(), event.driverId(),
+                fence(event.pickupLatitude(), event.pickupLongitude()),
+                fence(event.deliveryLatitude(), event.deliveryLongitude()));
+    }
+
+    private static FenceSpec fence(Double latitude, Double longitude) {
+        return latitude != null && longitude != null ? new FenceSpec(latitude, longitude, null) : null;
+    }
+
+    @RabbitHandler
+    public void handleStatusChanged(OrderStatusChanged event) {
+        log.debug("Order {} is now {}", event.orderId(), event.status());
+        geofenceEngine.onOrderStatus(event.orderId(), event.driverId(), event.status());
+        if (event.isTerminal()) {
+            etaService.forget(event.orderId());
+            tripOdometer.complete(event.orderId(), event.status());
+        }
+    }
+}
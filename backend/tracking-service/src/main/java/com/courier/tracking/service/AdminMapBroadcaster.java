@@ -0,0 +1,167 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.MapFrame;
+import com.courier.tracking.dto.Viewport;
+import com.courier.tracking.geo.GridIndex;
+import com.courier.tracking.websocket.BinaryFanout;
+import com.courier.tracking.websocket.SessionHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the admin map as one delta frame per tick instead of one frame per GPS fix.
+ * The global frame is converted once and the broker hands the same message to every
+ * subscriber; sessions that registered a viewport get only the drivers inside it.
+ */
+@Component
+@Slf4j
+public class AdminMapBroadcaster {
+
+    public static final String ADMIN_MAP_TOPIC = "/topic/admin/map";
+    public static final String VIEWPORT_QUEUE = "/queue/admin/map";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DriverIndex driverIndex;
+    private final ViewportRegistry viewportRegistry;
+    private final BinaryFanout binaryFanout;
+    private final double cellDegrees;
+
+    private final Map<UUID, LocationUpdate> moved = new ConcurrentHashMap<>();
+    // Position each driver had in the previous frame, so viewports also learn about drivers leaving them
+    private final Map<UUID, LocationUpdate> lastBroadcast = new ConcurrentHashMap<>();
+    // Evicted drivers with the last position viewers saw, so only viewports that showed them are told
+    private final Map<UUID, LocationUpdate> removed = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public AdminMapBroadcaster(SimpMessagingTemplate messagingTemplate,
+                               DriverIndex driverIndex,
+                               ViewportRegistry viewportRegistry,
+                               BinaryFanout binaryFanout,
+                               @Value("${tracking.index.cell-degrees:0.01}") double cellDegrees) {
+        this.messagingTemplate = messagingTemplate;
+        this.driverIndex = driverIndex;
+        this.viewportRegistry = viewportRegistry;
+        this.binaryFanout = binaryFanout;
+        this.cellDegrees = cellDegrees;
+    }
+
+    public void record(LocationUpdate update) {
+        moved.put(update.driverId(), update);
+    }
+
+    public void remove(UUID driverId) {
+        LocationUpdate pending = moved.remove(driverId);
+        LocationUpdate last = lastBroadcast.remove(driverId);
+        if (last == null) {
+            last = pending != null ? pending : driverIndex.get(driverId);
+        }
+        // Position unknown (e.g. never indexed on this node): every viewport is told
+        removed.put(driverId, last != null ? last : new LocationUpdate(driverId, null, Double.NaN, Double.NaN, null));
+    }
+
+    @Scheduled(fixedRateString = "${tracking.admin-map.tick-ms:500}")
+    public void tick() {
+        if (moved.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        long frameSequence = sequence.incrementAndGet();
+        List<LocationUpdate> drivers = new ArrayList<>(moved.size());
+        for (Map.Entry<UUID, LocationUpdate> entry : moved.entrySet()) {
+            drivers.add(entry.getValue());
+            moved.remove(entry.getKey(), entry.getValue());
+        }
+        List<LocationUpdate> gone = new ArrayList<>(removed.size());
+        for (Map.Entry<UUID, LocationUpdate> entry : removed.entrySet()) {
+            gone.add(entry.getValue());
+            removed.remove(entry.getKey(), entry.getValue());
+        }
+        List<UUID> goneIds = gone.stream().map(LocationUpdate::driverId).toList();
+        messagingTemplate.convertAndSend(ADMIN_MAP_TOPIC, new MapFrame(frameSequence, false, drivers, goneIds));
+
+        Map<String, Viewport> viewports = viewportRegistry.viewports();
+        if (!viewports.isEmpty()) {
+            sendViewportFrames(frameSequence, drivers, gone, viewports);
+        }
+        try {
+            binaryFanout.publishAdminFrame(drivers, goneIds);
+        } catch (IllegalArgumentException e) {
+            log.error("Failed to encode binary admin frame {}", frameSequence, e);
+        }
+        for (LocationUpdate update : drivers) {
+            lastBroadcast.put(update.driverId(), update);
+        }
+    }
+
+    public MapFrame snapshot() {
+        List<LocationUpdate> drivers = driverIndex.within(-90, -180, 90, 180, Integer.MAX_VALUE);
+        return new MapFrame(sequence.get(), true, drivers, List.of());
+    }
+
+    public void sendViewportSnapshot(String sessionId, Viewport viewport) {
+        List<LocationUpdate> drivers = new ArrayList<>();
+        for (Viewport box : viewport.boxes()) {
+            drivers.addAll(driverIndex.within(box.minLat(), box.minLon(), box.maxLat(), box.maxLon(), Integer.MAX_VALUE));
+        }
+        sendToSession(sessionId, new MapFrame(sequence.get(), true, drivers, List.of()));
+    }
+
+    private void sendViewportFrames(long frameSequence, List<LocationUpdate> drivers, List<LocationUpdate> gone,
+                                    Map<String, Viewport> viewports) {
+        // Index this tick's movers by new and by previous position; each viewport then only
+        // touches the grid cells it overlaps instead of scanning every mover
+        GridIndex<UUID, LocationUpdate> arrivals = new GridIndex<>(cellDegrees);
+        GridIndex<UUID, LocationUpdate> departures = new GridIndex<>(cellDegrees);
+        for (LocationUpdate update : drivers) {
+            arrivals.put(update.driverId(), update.latitude(), update.longitude(), update);
+            LocationUpdate previous = lastBroadcast.get(update.driverId());
+            if (previous != null) {
+                departures.put(update.driverId(), previous.latitude(), previous.longitude(), update);
+            }
+        }
+        GridIndex<UUID, LocationUpdate> exits = new GridIndex<>(cellDegrees);
+        List<UUID> goneAnywhere = new ArrayList<>();
+        for (LocationUpdate last : gone) {
+            if (Double.isNaN(last.latitude())) {
+                goneAnywhere.add(last.driverId());
+            } else {
+                exits.put(last.driverId(), last.latitude(), last.longitude(), last);
+            }
+        }
+
+        for (Map.Entry<String, Viewport> entry : viewports.entrySet()) {
+            Map<UUID, LocationUpdate> visible = new LinkedHashMap<>();
+            List<UUID> left = new ArrayList<>(goneAnywhere);
+            for (Viewport box : entry.getValue().boxes()) {
+                for (GridIndex<UUID, LocationUpdate> index : List.of(arrivals, departures)) {
+                    for (GridIndex.Entry<UUID, LocationUpdate> hit
+                            : index.within(box.minLat(), box.minLon(), box.maxLat(), box.maxLon())) {
+                        visible.putIfAbsent(hit.key(), hit.value());
+                    }
+                }
+                for (GridIndex.Entry<UUID, LocationUpdate> hit
+                        : exits.within(box.minLat(), box.minLon(), box.maxLat(), box.maxLon())) {
+                    left.add(hit.key());
+                }
+            }
+            if (!visible.isEmpty() || !left.isEmpty()) {
+                sendToSession(entry.getKey(), new MapFrame(frameSequence, false, new ArrayList<>(visible.values()), left));
+            }
+        }
+    }
+
+    private void sendToSession(String sessionId, MapFrame frame) {
+        messagingTemplate.convertAndSendToUser(sessionId, VIEWPORT_QUEUE, frame, SessionHeaders.of(sessionId));
+    }
+}
@@ -0,0 +1,208 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.NearbyDriver;
+import com.courier.tracking.geo.GeoUtils;
+import com.courier.tracking.geo.GridIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.domain.geo.BoundingBox;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * In-memory spatial index of the latest driver positions. Maintained on the ingest path and
+ * rebuilt from the driver_locations GEO set at startup.
+ *
+ * <p>On a single node the index holds the whole fleet and answers queries alone. In a cluster it
+ * only holds owned drivers plus replicas of watched ones, so fleet queries read the GEO set that
+ * every owner flushes to; order ids are filled in where this node knows them.
+ */
+@Component
+@Slf4j
+public class DriverIndex {
+
+    private static final int REBUILD_CHUNK = 1000;
+    // Redis measures box widths on a slightly different sphere; results are filtered exactly anyway
+    private static final double BOX_MARGIN = 1.01;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ShardRouter shardRouter;
+    private final GridIndex<UUID, LocationUpdate> grid;
+
+    public DriverIndex(RedisTemplate<String, String> redisTemplate,
+                       ShardRouter shardRouter,
+                       @Value("${tracking.index.cell-degrees:0.01}") double cellDegrees) {
+        this.redisTemplate = redisTemplate;
+        this.shardRouter = shardRouter;
+        this.grid = new GridIndex<>(cellDegrees);
+    }
+
+    public void update(LocationUpdate update) {
+        grid.put(update.driverId(), update.latitude(), update.longitude(), update);
+    }
+
+    public void remove(UUID driverId) {
+        grid.remove(driverId);
+    }
+
+    public LocationUpdate get(UUID driverId) {
+        GridIndex.Entry<UUID, LocationUpdate> entry = grid.get(driverId);
+        return entry != null ? entry.value() : null;
+    }
+
+    public int size() {
+        return grid.size();
+    }
+
+    public List<NearbyDriver> nearby(double latitude, double longitude, double radiusMeters, int limit) {
+        if (shardRouter.isClustered()) {
+            return nearbyFromRedis(latitude, longitude, radiusMeters, limit);
+        }
+        double dLat = GeoUtils.metersToLatDegrees(radiusMeters);
+        double dLon = GeoUtils.metersToLonDegrees(radiusMeters, latitude);
+
+        List<NearbyDriver> result = new ArrayList<>();
+        for (GridIndex.Entry<UUID, LocationUpdate> entry
+                : grid.within(latitude - dLat, longitude - dLon, latitude + dLat, longitude + dLon)) {
+            double distance = GeoUtils.distanceMeters(latitude, longitude, entry.latitude(), entry.longitude());
+            if (distance <= radiusMeters) {
+                result.add(new NearbyDriver(entry.key(), entry.value().orderId(),
+                        entry.latitude(), entry.longitude(), distance));
+            }
+        }
+        result.sort(Comparator.comparingDouble(NearbyDriver::distanceMeters));
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    public List<LocationUpdate> within(double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        if (shardRouter.isClustered()) {
+            return withinFromRedis(minLat, minLon, maxLat, maxLon, limit);
+        }
+        List<LocationUpdate> result = new ArrayList<>();
+        for (GridIndex.Entry<UUID, LocationUpdate> entry : grid.within(minLat, minLon, maxLat, maxLon)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry.value());
+        }
+        return result;
+    }
+
+    private List<NearbyDriver> nearbyFromRedis(double latitude, double longitude, double radiusMeters, int limit) {
+        GeoResults<RedisGeoCommands.GeoLocation<String>> results = redisTemplate.opsForGeo().radius(TrackingService.GEO_KEY,
+                new Circle(new Point(longitude, latitude), new Distance(radiusMeters, RedisGeoCommands.DistanceUnit.METERS)),
+                RedisGeoCommands.GeoRadiusCommandArgs.newGeoRadiusArgs()
+                        .includeCoordinates().includeDistance().sortAscending().limit(limit));
+        List<NearbyDriver> result = new ArrayList<>();
+        if (results == null) {
+            return result;
+        }
+        for (GeoResult<RedisGeoCommands.GeoLocation<String>> geoResult : results) {
+            UUID driverId = UUID.fromString(geoResult.getContent().getName());
+            Point point = geoResult.getContent().getPoint();
+            result.add(new NearbyDriver(driverId, knownOrderId(driverId), point.getY(), point.getX(),
+                    geoResult.getDistance().getValue()));
+        }
+        return result;
+    }
+
+    private List<LocationUpdate> withinFromRedis(double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        if (maxLat - minLat >= 180 || maxLon - minLon >= 360) {
+            List<LocationUpdate> all = storedPositions(driverId -> true);
+            return all.size() > limit ? all.subList(0, limit) : all;
+        }
+        // Measure the width at the latitude closest to the equator so the box covers the whole range
+        double widestLatitude = minLat <= 0 && maxLat >= 0 ? 0 : Math.min(Math.abs(minLat), Math.abs(maxLat));
+        double width = GeoUtils.distanceMeters(widestLatitude, minLon, widestLatitude, maxLon) * BOX_MARGIN;
+        double height = GeoUtils.distanceMeters(minLat, minLon, maxLat, minLon) * BOX_MARGIN;
+        GeoResults<RedisGeoCommands.GeoLocation<String>> results = redisTemplate.opsForGeo().search(TrackingService.GEO_KEY,
+                GeoReference.fromCoordinate((minLon + maxLon) / 2, (minLat + maxLat) / 2),
+                new BoundingBox(width, height, RedisGeoCommands.DistanceUnit.METERS),
+                RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs().includeCoordinates());
+        List<LocationUpdate> result = new ArrayList<>();
+        if (results == null) {
+            return result;
+        }
+        for (GeoResult<RedisGeoCommands.GeoLocation<String>> geoResult : results) {
+            Point point = geoResult.getContent().getPoint();
+            if (point.getY() < minLat || point.getY() > maxLat || point.getX() < minLon || point.getX() > maxLon) {
+                continue;
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+            UUID driverId = UUID.fromString(geoResult.getContent().getName());
+            result.add(new LocationUpdate(driverId, knownOrderId(driverId), point.getY(), point.getX(), null));
+        }
+        return result;
+    }
+
+    private UUID knownOrderId(UUID driverId) {
+        LocationUpdate known = get(driverId);
+        return known != null ? known.orderId() : null;
+    }
+
+    /**
+     * Seeds the index from the driver_locations GEO set. Called by the {@link StaleDriverEvictor}
+     * at startup, which schedules the seeded drivers for expiry.
+     *
+     * @param include which stored drivers to seed (in clustered mode, the ones this node owns)
+     * @return the drivers that were seeded (drivers that reported meanwhile are left alone)
+     */
+    public List<UUID> rebuildFromRedis(Predicate<UUID> include) {
+        List<UUID> seeded = new ArrayList<>();
+        try {
+            for (LocationUpdate stored : storedPositions(include)) {
+                // Only seed drivers that have not reported since startup; a live fix always wins
+                if (grid.putIfAbsent(stored.driverId(), stored.latitude(), stored.longitude(), stored)) {
+                    seeded.add(stored.driverId());
+                }
+            }
+            log.info("Driver index rebuilt from Redis with {} drivers", grid.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild driver index from Redis", e);
+        }
+        return seeded;
+    }
+
+    // Every position in the GEO set, read in chunks; order ids are filled in where known
+    private List<LocationUpdate> storedPositions(Predicate<UUID> include) {
+        List<LocationUpdate> stored = new ArrayList<>();
+        Set<String> members = redisTemplate.opsForZSet().range(TrackingService.GEO_KEY, 0, -1);
+        if (members == null || members.isEmpty()) {
+            return stored;
+        }
+        List<String> all = new ArrayList<>(members);
+        for (int from = 0; from < all.size(); from += REBUILD_CHUNK) {
+            List<String> chunk = all.subList(from, Math.min(from + REBUILD_CHUNK, all.size()));
+            List<Point> points = redisTemplate.opsForGeo().position(TrackingService.GEO_KEY, chunk.toArray(new String[0]));
+            if (points == null) {
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                Point point = points.get(i);
+                UUID driverId = UUID.fromString(chunk.get(i));
+                if (point != null && include.test(driverId)) {
+                    stored.add(new LocationUpdate(driverId, knownOrderId(driverId), point.getY(), point.getX(), null));
+                }
+            }
+        }
+        return stored;
+    }
+}
@@ -0,0 +1,125 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.Eta;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.eta.RouteEstimate;
+import com.courier.tracking.eta.Router;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remaining distance and time from an order's driver to its next target (see
+ * {@link GeofenceEngine#nextTarget}). Travel times are routed between grid-cell centres and kept
+ * in an LRU cache with a TTL; an order's ETA is only recomputed when its driver changes cell.
+ * Inside the target's own cell the centres coincide, so the exact points are routed on every fix.
+ * Targets come from the fences registered at assignment, so any order with coordinates has one.
+ */
+@Component
+public class EtaService {
+
+    private record CellPair(long from, long to) {}
+
+    private record CachedRoute(RouteEstimate estimate, long expiresAt) {}
+
+    private record OrderState(long cell, GeofenceEngine.Target target, Eta eta) {}
+
+    private final Router router;
+    private final GeofenceEngine geofenceEngine;
+    private final double cellDegrees;
+    private final long ttlMillis;
+    private final Map<CellPair, CachedRoute> routes;
+    private final Map<UUID, OrderState> orders = new ConcurrentHashMap<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter recomputedCounter;
+
+    public EtaService(Router router,
+                      GeofenceEngine geofenceEngine,
+                      @Value("${tracking.eta.cell-degrees:0.005}") double cellDegrees,
+                      @Value("${tracking.eta.cache-ttl-seconds:300}") long ttlSeconds,
+                      @Value("${tracking.eta.cache-size:50000}") int cacheSize,
+                      MeterRegistry meterRegistry) {
+        this.router = router;
+        this.geofenceEngine = geofenceEngine;
+        this.cellDegrees = cellDegrees;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.routes = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CellPair, CachedRoute> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.hitCounter = meterRegistry.counter("tracking.eta.cache.hits");
+        this.missCounter = meterRegistry.counter("tracking.eta.cache.misses");
+        this.recomputedCounter = meterRegistry.counter("tracking.eta.recomputed");
+    }
+
+    /**
+     * @return the ETA for the fix's order, or null when the order has no target
+     */
+    public Eta etaFor(LocationUpdate update) {
+        GeofenceEngine.Target target = geofenceEngine.nextTarget(update.orderId());
+        if (target == null) {
+            orders.remove(update.orderId());
+            return null;
+        }
+        long cell = cellOf(update.latitude(), update.longitude());
+        long targetCell = cellOf(target.latitude(), target.longitude());
+        OrderState state = orders.get(update.orderId());
+        if (state != null && state.cell() == cell && cell != targetCell && state.target().equals(target)) {
+            return state.eta();
+        }
+
+        RouteEstimate estimate = cell == targetCell
+                ? router.route(update.latitude(), update.longitude(), target.latitude(), target.longitude())
+                : route(cell, targetCell);
+        Eta eta = new Eta(target.kind().name(), estimate.distanceMeters(), estimate.durationSeconds(),
+                System.currentTimeMillis());
+        orders.put(update.orderId(), new OrderState(cell, target, eta));
+        recomputedCounter.increment();
+        return eta;
+    }
+
+    public void forget(UUID orderId) {
+        orders.remove(orderId);
+    }
+
+    private RouteEstimate route(long fromCell, long toCell) {
+        CellPair key = new CellPair(fromCell, toCell);
+        long now = System.currentTimeMillis();
+        synchronized (routes) {
+            CachedRoute cached = routes.get(key);
+            if (cached != null && cached.expiresAt() > now) {
+                hitCounter.increment();
+                return cached.estimate();
+            }
+        }
+        missCounter.increment();
+        RouteEstimate estimate = router.route(centreLat(fromCell), centreLon(fromCell), centreLat(toCell), centreLon(toCell));
+        synchronized (routes) {
+            routes.put(key, new CachedRoute(estimate, now + ttlMillis));
+        }
+        return estimate;
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        long row = (long) Math.floor((latitude + 90) / cellDegrees);
+        long col = (long) Math.floor((longitude + 180) / cellDegrees);
+        return (row << 32) | col;
+    }
+
+    private double centreLat(long cell) {
+        return ((cell >>> 32) + 0.5) * cellDegrees - 90;
+    }
+
+    private double centreLon(long cell) {
+        return ((cell & 0xffffffffL) + 0.5) * cellDegrees - 180;
+    }
+}
@@ -0,0 +1,341 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.config.RabbitMQConfig;
+import com.courier.tracking.dto.FenceSpec;
+import com.courier.tracking.dto.GeofenceEvent;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.OrderGeofences;
+import com.courier.tracking.geo.GeoUtils;
+import com.courier.tracking.geo.GridIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pickup and delivery fences of active orders in a grid index. Each accepted fix only looks at
+ * the cells within the largest fence radius of it, so the check stays constant-time however
+ * many fences are active. Transitions are published as geofence.entered / geofence.exited.
+ *
+ * <p>Fences are registered from the order's coordinates when a driver is assigned, or
+ * explicitly through the geofences endpoint (which also covers orders without coordinates). Fences are
+ * kept in the {@value #REDIS_KEY} hash so a restart does not lose them, and expire after
+ * {@code ttl-hours} in case the end of an order is never seen.
+ */
+@Component
+@Slf4j
+public class GeofenceEngine {
+
+    public enum Kind { PICKUP, DELIVERY }
+
+    // Where an order's driver is heading next
+    public record Target(Kind kind, double latitude, double longitude) {}
+
+    private record FenceKey(UUID orderId, Kind kind) {}
+
+    private record Fence(UUID orderId, Kind kind, UUID driverId, double latitude, double longitude, double radiusMeters) {}
+
+    // Persisted form of an order's fences
+    private record StoredFences(UUID driverId, FenceSpec pickup, FenceSpec delivery, long expiresAt) {}
+
+    static final String REDIS_KEY = "geofences";
+
+    // A driver must be this far past the radius to exit, so GPS noise at the edge does not flap
+    private static final double EXIT_FACTOR = 1.2;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final double defaultRadiusMeters;
+    private final double maxRadiusMeters;
+    private final long ttlMillis;
+    private final GridIndex<FenceKey, Fence> fences;
+    private final Map<UUID, Long> expiresAt = new ConcurrentHashMap<>();
+    // Fences each driver is currently inside
+    private final Map<UUID, Set<FenceKey>> inside = new ConcurrentHashMap<>();
+    private final Counter enteredCounter;
+    private final Counter exitedCounter;
+
+    public GeofenceEngine(RabbitTemplate rabbitTemplate,
+                          RedisTemplate<String, String> redisTemplate,
+                          ObjectMapper objectMapper,
+                          ShardRouter shardRouter,
+                          @Value("${tracking.geofence.default-radius-meters:100}") double defaultRadiusMeters,
+                          @Value("${tracking.geofence.max-radius-meters:500}") double maxRadiusMeters,
+                          @Value("${tracking.geofence.ttl-hours:24}") long ttlHours,
+                          @Value("${tracking.index.cell-degrees:0.01}") double cellDegrees,
+                          MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+        this.defaultRadiusMeters = defaultRadiusMeters;
+        this.maxRadiusMeters = maxRadiusMeters;
+        this.ttlMillis = ttlHours * 3_600_000;
+        this.fences = new GridIndex<>(cellDegrees);
+        this.enteredCounter = meterRegistry.counter("tracking.geofence.entered");
+        this.exitedCounter = meterRegistry.counter("tracking.geofence.exited");
+        Gauge.builder("tracking.geofence.active", fences, GridIndex::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers (or replaces) an order's fences and shares them with the other cluster nodes.
+     */
+    public void register(UUID orderId, OrderGeofences geofences) {
+        apply(orderId, geofences);
+        persist(orderId);
+        shardRouter.replicateGeofences(orderId, geofences);
+    }
+
+    public void unregister(UUID orderId) {
+        apply(orderId, null);
+        persist(orderId);
+        shardRouter.replicateGeofences(orderId, null);
+    }
+
+    // Applies fences replicated from another node; null removes the order's fences
+    public void apply(UUID orderId, OrderGeofences geofences) {
+        put(orderId, Kind.PICKUP, geofences != null ? geofences.driverId() : null, geofences != null ? geofences.pickup() : null);
+        put(orderId, Kind.DELIVERY, geofences != null ? geofences.driverId() : null, geofences != null ? geofences.delivery() : null);
+        if (geofences != null) {
+            expiresAt.put(orderId, System.currentTimeMillis() + ttlMillis);
+        } else {
+            expiresAt.remove(orderId);
+        }
+    }
+
+    /**
+     * A driver took the order: fences its pickup and delivery points (null when the order has no
+     * coordinates; explicitly registered fences are kept) and binds the fences to the driver.
+     * Every node sees the event, so this is not replicated.
+     */
+    public void onAssigned(UUID orderId, UUID driverId, FenceSpec pickup, FenceSpec delivery) {
+        boolean added = putIfAbsent(orderId, Kind.PICKUP, driverId, pickup);
+        added |= putIfAbsent(orderId, Kind.DELIVERY, driverId, delivery);
+        if (added) {
+            expiresAt.put(orderId, System.currentTimeMillis() + ttlMillis);
+        }
+        onOrderStatus(orderId, driverId, "ASSIGNED");
+    }
+
+    private boolean putIfAbsent(UUID orderId, Kind kind, UUID driverId, FenceSpec spec) {
+        if (spec == null || fences.get(new FenceKey(orderId, kind)) != null) {
+            return false;
+        }
+        put(orderId, kind, driverId, spec);
+        return true;
+    }
+
+    /**
+     * Follows the order lifecycle: binds the assigned driver, drops the pickup fence once the
+     * parcel is picked up and both fences when the order ends. Every node sees every status
+     * event, so this is not replicated.
+     */
+    public void onOrderStatus(UUID orderId, UUID driverId, String status) {
+        if (!expiresAt.containsKey(orderId)) {
+            return; // No fences for this order
+        }
+        switch (status) {
+            case "PICKED_UP" -> fences.remove(new FenceKey(orderId, Kind.PICKUP));
+            case "DELIVERED", "CANCELLED" -> apply(orderId, null);
+            default -> { }
+        }
+        if (nextTarget(orderId) == null) {
+            expiresAt.remove(orderId);
+        } else if (driverId != null) {
+            assignDriver(orderId, driverId);
+        }
+        persist(orderId);
+    }
+
+    // Runs before fixes arrive in earnest; fences registered meanwhile win over stored ones
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromRedis() {
+        try {
+            long now = System.currentTimeMillis();
+            List<Object> expired = new ArrayList<>();
+            for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(REDIS_KEY).entrySet()) {
+                UUID orderId = UUID.fromString((String) entry.getKey());
+                StoredFences stored = objectMapper.readValue((String) entry.getValue(), StoredFences.class);
+                if (stored.expiresAt() <= now) {
+                    expired.add(entry.getKey());
+                } else if (!expiresAt.containsKey(orderId)) {
+                    apply(orderId, new OrderGeofences(stored.driverId(), stored.pickup(), stored.delivery()));
+                    expiresAt.put(orderId, stored.expiresAt());
+                }
+            }
+            if (!expired.isEmpty()) {
+                redisTemplate.opsForHash().delete(REDIS_KEY, expired.toArray());
+            }
+            log.info("Loaded fences of {} orders from Redis", expiresAt.size());
+        } catch (Exception e) {
+            log.error("Failed to load geofences from Redis", e);
+        }
+    }
+
+    // Orders whose end was never seen (e.g. missed while this node was down)
+    @Scheduled(fixedDelayString = "${tracking.geofence.sweep-ms:60000}")
+    public void dropExpired() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, Long> entry : expiresAt.entrySet()) {
+            if (entry.getValue() <= now) {
+                apply(entry.getKey(), null);
+                persist(entry.getKey());
+            }
+        }
+    }
+
+    private void assignDriver(UUID orderId, UUID driverId) {
+        for (Kind kind : Kind.values()) {
+            GridIndex.Entry<FenceKey, Fence> entry = fences.get(new FenceKey(orderId, kind));
+            if (entry != null && entry.value().driverId() == null) {
+                Fence fence = entry.value();
+                fences.put(entry.key(), fence.latitude(), fence.longitude(),
+                        new Fence(orderId, kind, driverId, fence.latitude(), fence.longitude(), fence.radiusMeters()));
+            }
+        }
+    }
+
+    /**
+     * @return the pickup point until the parcel is picked up, then the delivery point; null when
+     * the order has no fences
+     */
+    public Target nextTarget(UUID orderId) {
+        for (Kind kind : Kind.values()) {
+            GridIndex.Entry<FenceKey, Fence> entry = fences.get(new FenceKey(orderId, kind));
+            if (entry != null) {
+                return new Target(kind, entry.latitude(), entry.longitude());
+            }
+        }
+        return null;
+    }
+
+    public void check(LocationUpdate update) {
+        Set<FenceKey> wasInside = inside.get(update.driverId());
+        if (fences.size() == 0 && wasInside == null) {
+            return;
+        }
+        double latPad = GeoUtils.metersToLatDegrees(maxRadiusMeters);
+        double lonPad = GeoUtils.metersToLonDegrees(maxRadiusMeters, update.latitude());
+        List<GridIndex.Entry<FenceKey, Fence>> nearby = fences.within(
+                update.latitude() - latPad, update.longitude() - lonPad,
+                update.latitude() + latPad, update.longitude() + lonPad);
+        if (nearby.isEmpty() && wasInside == null) {
+            return;
+        }
+
+        List<GeofenceEvent> events = new ArrayList<>(2);
+        long timestamp = update.timestamp() != null ? update.timestamp() : System.currentTimeMillis();
+        inside.compute(update.driverId(), (driverId, current) -> {
+            Set<FenceKey> next = current != null ? new HashSet<>(current) : new HashSet<>();
+            for (GridIndex.Entry<FenceKey, Fence> entry : nearby) {
+                Fence fence = entry.value();
+                if (matches(fence, update) && !next.contains(entry.key())
+                        && distance(fence, update) <= fence.radiusMeters()) {
+                    next.add(entry.key());
+                    events.add(event(fence, update, "ENTERED", timestamp));
+                }
+            }
+            next.removeIf(key -> {
+                GridIndex.Entry<FenceKey, Fence> entry = fences.get(key);
+                if (entry == null) {
+                    return true; // Fence removed while inside, no exit event
+                }
+                if (distance(entry.value(), update) > entry.value().radiusMeters() * EXIT_FACTOR) {
+                    events.add(event(entry.value(), update, "EXITED", timestamp));
+                    return true;
+                }
+                return false;
+            });
+            return next.isEmpty() ? null : next;
+        });
+
+        for (GeofenceEvent event : events) {
+            publish(event);
+        }
+    }
+
+    public void forgetDriver(UUID driverId) {
+        inside.remove(driverId);
+    }
+
+    // Writes the order's current fences (or their removal) through to Redis
+    private void persist(UUID orderId) {
+        GridIndex.Entry<FenceKey, Fence> pickup = fences.get(new FenceKey(orderId, Kind.PICKUP));
+        GridIndex.Entry<FenceKey, Fence> delivery = fences.get(new FenceKey(orderId, Kind.DELIVERY));
+        Long expiry = expiresAt.get(orderId);
+        try {
+            if ((pickup == null && delivery == null) || expiry == null) {
+                redisTemplate.opsForHash().delete(REDIS_KEY, orderId.toString());
+                return;
+            }
+            UUID driverId = (pickup != null ? pickup : delivery).value().driverId();
+            StoredFences stored = new StoredFences(driverId, spec(pickup), spec(delivery), expiry);
+            redisTemplate.opsForHash().put(REDIS_KEY, orderId.toString(), objectMapper.writeValueAsString(stored));
+        } catch (Exception e) {
+            log.warn("Failed to persist geofences of order {}", orderId, e);
+        }
+    }
+
+    private static FenceSpec spec(GridIndex.Entry<FenceKey, Fence> entry) {
+        return entry == null ? null
+                : new FenceSpec(entry.value().latitude(), entry.value().longitude(), entry.value().radiusMeters());
+    }
+
+    private void put(UUID orderId, Kind kind, UUID driverId, FenceSpec spec) {
+        FenceKey key = new FenceKey(orderId, kind);
+        if (spec == null) {
+            fences.remove(key);
+            return;
+        }
+        double radius = Math.min(maxRadiusMeters, spec.radiusMeters() != null ? spec.radiusMeters() : defaultRadiusMeters);
+        fences.put(key, spec.latitude(), spec.longitude(),
+                new Fence(orderId, kind, driverId, spec.latitude(), spec.longitude(), radius));
+    }
+
+    private static boolean matches(Fence fence, LocationUpdate update) {
+        return fence.driverId() != null
+                ? fence.driverId().equals(update.driverId())
+                : fence.orderId().equals(update.orderId());
+    }
+
+    private static double distance(Fence fence, LocationUpdate update) {
+        return GeoUtils.distanceMeters(fence.latitude(), fence.longitude(), update.latitude(), update.longitude());
+    }
+
+    private static GeofenceEvent event(Fence fence, LocationUpdate update, String transition, long timestamp) {
+        return new GeofenceEvent(fence.orderId(), update.driverId(), fence.kind().name(), transition,
+                update.latitude(), update.longitude(), timestamp);
+    }
+
+    private void publish(GeofenceEvent event) {
+        boolean entered = "ENTERED".equals(event.transition());
+        (entered ? enteredCounter : exitedCounter).increment();
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.TRACKING_EXCHANGE,
+                    entered ? RabbitMQConfig.GEOFENCE_ENTERED_ROUTING_KEY : RabbitMQConfig.GEOFENCE_EXITED_ROUTING_KEY,
+                    event);
+        } catch (Exception e) {
+            log.warn("Failed to publish geofence event {}", event, e);
+        }
+    }
+}
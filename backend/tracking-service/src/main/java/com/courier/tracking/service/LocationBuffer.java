@@ -0,0 +1,122 @@
+package com.courier.tracking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latest-wins write-behind buffer for driver positions. Only the newest position per driver
+ * is kept, and the dirty set is written to Redis in one GEOADD per flush, so Redis writes
+ * scale with fleet size rather than with update rate.
+ *
+ * <p>Flushes and removals hold the same lock while they talk to Redis, so a GEOADD drained
+ * before an eviction can never land after the eviction's ZREM and resurrect the driver.
+ */
+@Component
+@Slf4j
+public class LocationBuffer {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<UUID, Point> dirty = new ConcurrentHashMap<>();
+    private final ReentrantLock redisWrite = new ReentrantLock();
+    private final Counter offeredCounter;
+    private final Counter writtenCounter;
+    private final Timer flushTimer;
+
+    public LocationBuffer(RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.offeredCounter = meterRegistry.counter("tracking.buffer.offered");
+        this.writtenCounter = meterRegistry.counter("tracking.buffer.written");
+        this.flushTimer = meterRegistry.timer("tracking.buffer.flush");
+        Gauge.builder("tracking.buffer.depth", dirty, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("tracking.buffer.coalescing.ratio", this, LocationBuffer::coalescingRatio)
+                .description("Positions offered per position written to Redis")
+                .register(meterRegistry);
+    }
+
+    public void offer(UUID driverId, double latitude, double longitude) {
+        dirty.put(driverId, new Point(longitude, latitude));
+        offeredCounter.increment();
+    }
+
+    public void discard(UUID driverId) {
+        dirty.remove(driverId);
+    }
+
+    /**
+     * Discards any pending positions and removes the drivers from the GEO set, ordered after
+     * any flush already in flight.
+     */
+    public void remove(Collection<UUID> driverIds, int chunkSize) {
+        List<String> members = new ArrayList<>(driverIds.size());
+        redisWrite.lock();
+        try {
+            for (UUID driverId : driverIds) {
+                dirty.remove(driverId);
+                members.add(driverId.toString());
+            }
+            for (int from = 0; from < members.size(); from += chunkSize) {
+                List<String> chunk = members.subList(from, Math.min(from + chunkSize, members.size()));
+                redisTemplate.opsForZSet().remove(TrackingService.GEO_KEY, chunk.toArray());
+            }
+        } finally {
+            redisWrite.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.buffer.flush-interval-ms:250}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        redisWrite.lock();
+        try {
+            flushTimer.record(this::flushDirty);
+        } finally {
+            redisWrite.unlock();
+        }
+    }
+
+    private void flushDirty() {
+        Map<String, Point> members = new HashMap<>(dirty.size() * 2);
+        for (Map.Entry<UUID, Point> entry : dirty.entrySet()) {
+            members.put(entry.getKey().toString(), entry.getValue());
+            // Only clear if no newer position arrived meanwhile; a newer one goes out next flush
+            dirty.remove(entry.getKey(), entry.getValue());
+        }
+        try {
+            redisTemplate.opsForGeo().add(TrackingService.GEO_KEY, members);
+            writtenCounter.increment(members.size());
+        } catch (Exception e) {
+            log.error("Failed to flush {} driver positions to Redis", members.size(), e);
+            members.forEach((member, point) -> dirty.putIfAbsent(UUID.fromString(member), point));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private double coalescingRatio() {
+        double written = writtenCounter.count();
+        return written == 0 ? 0 : offeredCounter.count() / written;
+    }
+}
@@ -0,0 +1,121 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.geo.GeoUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-driver filter in front of the Redis write and broadcasts. Fixes that moved less than
+ * {@code min-distance-meters} since the last accepted one are suppressed until the heartbeat
+ * interval elapses; small moves inside the jitter radius are smoothed toward the previous position.
+ */
+@Component
+public class LocationFilter {
+
+    private record AcceptedFix(UUID orderId, double latitude, double longitude, long time) {}
+
+    private final double minDistanceMeters;
+    private final double jitterRadiusMeters;
+    private final double smoothingFactor;
+    private final long heartbeatMillis;
+    private final Map<UUID, AcceptedFix> lastAccepted = new ConcurrentHashMap<>();
+    // Newest client timestamp seen per driver, used to drop out-of-order fixes
+    private final Map<UUID, Long> lastFixTimes = new ConcurrentHashMap<>();
+    private final Counter passedCounter;
+    private final Counter suppressedCounter;
+
+    public LocationFilter(@Value("${tracking.filter.min-distance-meters:10}") double minDistanceMeters,
+                          @Value("${tracking.filter.jitter-radius-meters:30}") double jitterRadiusMeters,
+                          @Value("${tracking.filter.smoothing-factor:0.5}") double smoothingFactor,
+                          @Value("${tracking.filter.heartbeat-seconds:30}") long heartbeatSeconds,
+                          MeterRegistry meterRegistry) {
+        this.minDistanceMeters = minDistanceMeters;
+        this.jitterRadiusMeters = jitterRadiusMeters;
+        this.smoothingFactor = smoothingFactor;
+        this.heartbeatMillis = heartbeatSeconds * 1000;
+        this.passedCounter = meterRegistry.counter("tracking.filter.passed");
+        this.suppressedCounter = meterRegistry.counter("tracking.filter.suppressed");
+        Gauge.builder("tracking.filter.suppression.ratio", this, LocationFilter::suppressionRatio)
+                .description("Share of fixes suppressed before the Redis write and broadcasts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the fix's client timestamp as the driver's newest.
+     *
+     * @return false if the fix is older than (or as old as) one already seen for the driver
+     */
+    public boolean advanceFixTime(LocationUpdate update) {
+        Long timestamp = update.timestamp();
+        if (timestamp == null) {
+            return true;
+        }
+        while (true) {
+            Long previous = lastFixTimes.putIfAbsent(update.driverId(), timestamp);
+            if (previous == null) {
+                return true;
+            }
+            if (previous >= timestamp) {
+                return false; // Out of order or superseded
+            }
+            if (lastFixTimes.replace(update.driverId(), previous, timestamp)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the (possibly smoothed) fix to publish, or {@code null} if it is suppressed
+     */
+    public LocationUpdate apply(LocationUpdate update) {
+        long now = update.timestamp() != null ? update.timestamp() : System.currentTimeMillis();
+        AtomicReference<LocationUpdate> result = new AtomicReference<>();
+
+        lastAccepted.compute(update.driverId(), (driverId, previous) -> {
+            if (previous == null || !Objects.equals(previous.orderId(), update.orderId())) {
+                result.set(update);
+                return new AcceptedFix(update.orderId(), update.latitude(), update.longitude(), now);
+            }
+            double distance = GeoUtils.distanceMeters(previous.latitude(), previous.longitude(),
+                    update.latitude(), update.longitude());
+            if (distance < minDistanceMeters && now - previous.time() < heartbeatMillis) {
+                return previous;
+            }
+            LocationUpdate accepted = update;
+            if (distance < jitterRadiusMeters) {
+                double latitude = previous.latitude() + smoothingFactor * (update.latitude() - previous.latitude());
+                double longitude = previous.longitude() + smoothingFactor * (update.longitude() - previous.longitude());
+                accepted = new LocationUpdate(driverId, update.orderId(), latitude, longitude, update.timestamp());
+            }
+            result.set(accepted);
+            return new AcceptedFix(update.orderId(), accepted.latitude(), accepted.longitude(), now);
+        });
+
+        if (result.get() == null) {
+            suppressedCounter.increment();
+        } else {
+            passedCounter.increment();
+        }
+        return result.get();
+    }
+
+    public void forget(UUID driverId) {
+        lastAccepted.remove(driverId);
+        lastFixTimes.remove(driverId);
+    }
+
+    private double suppressionRatio() {
+        double total = passedCounter.count() + suppressedCounter.count();
+        return total == 0 ? 0 : suppressedCounter.count() / total;
+    }
+}
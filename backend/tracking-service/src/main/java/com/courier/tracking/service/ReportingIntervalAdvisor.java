@@ -0,0 +1,164 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.ReportingAdvice;
+import com.courier.tracking.geo.GeoUtils;
+import com.courier.tracking.websocket.SessionHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recommends how often each driver app should report. Drivers on a watched order report
+ * fastest, moving drivers slower and stationary ones slowest; when ingest approaches
+ * {@code capacity-per-second} every interval is stretched proportionally, so load is shed
+ * gradually instead of the service falling over.
+ */
+@Component
+public class ReportingIntervalAdvisor {
+
+    public static final String INTERVAL_QUEUE = "/queue/reporting-interval";
+
+    private static final long SAMPLE_EXPIRY_MS = 10 * 60 * 1000;
+
+    private record Sample(double latitude, double longitude, long time, long seenAt, double speedMps) {}
+
+    private final SubscriptionRegistry subscriptionRegistry;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Counter receivedCounter;
+    private final long watchedMs;
+    private final long movingMs;
+    private final long stationaryMs;
+    private final long maxMs;
+    private final double stationarySpeedMps;
+    private final double capacityPerSecond;
+    private final double loadThreshold;
+    private final double maxMultiplier;
+
+    private final Map<UUID, Sample> samples = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> advised = new ConcurrentHashMap<>();
+    private double lastReceived;
+    private long lastSampleMillis = System.currentTimeMillis();
+    private volatile double ingestRate;
+    private volatile double multiplier = 1.0;
+
+    public ReportingIntervalAdvisor(SubscriptionRegistry subscriptionRegistry,
+                                    SimpMessagingTemplate messagingTemplate,
+                                    @Value("${tracking.reporting.watched-ms:2000}") long watchedMs,
+                                    @Value("${tracking.reporting.moving-ms:10000}") long movingMs,
+                                    @Value("${tracking.reporting.stationary-ms:30000}") long stationaryMs,
+                                    @Value("${tracking.reporting.max-ms:60000}") long maxMs,
+                                    @Value("${tracking.reporting.stationary-speed-mps:1.0}") double stationarySpeedMps,
+                                    @Value("${tracking.reporting.capacity-per-second:5000}") double capacityPerSecond,
+                                    @Value("${tracking.reporting.load-threshold:0.7}") double loadThreshold,
+                                    @Value("${tracking.reporting.max-multiplier:4}") double maxMultiplier,
+                                    MeterRegistry meterRegistry) {
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.messagingTemplate = messagingTemplate;
+        this.watchedMs = watchedMs;
+        this.movingMs = movingMs;
+        this.stationaryMs = stationaryMs;
+        this.maxMs = maxMs;
+        this.stationarySpeedMps = stationarySpeedMps;
+        this.capacityPerSecond = capacityPerSecond;
+        this.loadThreshold = loadThreshold;
+        this.maxMultiplier = maxMultiplier;
+        // Same counter TrackingService increments on every received fix
+        this.receivedCounter = meterRegistry.counter("tracking.updates.received");
+        Gauge.builder("tracking.reporting.ingest.rate", this, a -> a.ingestRate)
+                .register(meterRegistry);
+        Gauge.builder("tracking.reporting.multiplier", this, a -> a.multiplier)
+                .register(meterRegistry);
+    }
+
+    public ReportingAdvice advise(LocationUpdate update) {
+        long seenAt = System.currentTimeMillis();
+        long now = update.timestamp() != null ? update.timestamp() : seenAt;
+        Sample sample = samples.compute(update.driverId(), (driverId, previous) -> {
+            double speed = 0;
+            if (previous != null && now > previous.time()) {
+                double meters = GeoUtils.distanceMeters(previous.latitude(), previous.longitude(),
+                        update.latitude(), update.longitude());
+                speed = meters * 1000.0 / (now - previous.time());
+            }
+            return new Sample(update.latitude(), update.longitude(), now, seenAt, speed);
+        });
+
+        boolean watched = update.orderId() != null && subscriptionRegistry.isWatched(update.orderId());
+        boolean moving = sample.speedMps() >= stationarySpeedMps;
+        long base = moving ? (watched ? watchedMs : movingMs) : (watched ? movingMs : stationaryMs);
+        long interval = Math.min(maxMs, Math.round(base * multiplier));
+        advised.put(update.driverId(), interval);
+        return new ReportingAdvice(update.driverId(), interval);
+    }
+
+    /**
+     * Advises on every fix of a batch, which may hold several drivers.
+     *
+     * @return one advice per driver, from that driver's last fix in the batch
+     */
+    public List<ReportingAdvice> advise(List<LocationUpdate> updates) {
+        Map<UUID, ReportingAdvice> byDriver = new LinkedHashMap<>();
+        for (LocationUpdate update : updates) {
+            if (update.driverId() != null) {
+                byDriver.put(update.driverId(), advise(update));
+            }
+        }
+        return List.copyOf(byDriver.values());
+    }
+
+    public void adviseSession(String sessionId, LocationUpdate update) {
+        adviseSession(sessionId, List.of(update));
+    }
+
+    /**
+     * Advises on the fixes and pushes each driver's interval to the STOMP session when it changed
+     * since the previous push.
+     */
+    public void adviseSession(String sessionId, List<LocationUpdate> updates) {
+        Map<UUID, Long> previous = new HashMap<>();
+        for (LocationUpdate update : updates) {
+            if (update.driverId() != null) {
+                previous.put(update.driverId(), advised.get(update.driverId()));
+            }
+        }
+        for (ReportingAdvice advice : advise(updates)) {
+            if (!Objects.equals(previous.get(advice.driverId()), advice.reportIntervalMs())) {
+                messagingTemplate.convertAndSendToUser(sessionId, INTERVAL_QUEUE, advice, SessionHeaders.of(sessionId));
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${tracking.reporting.sample-ms:1000}")
+    public void sampleLoad() {
+        sampleLoad(System.currentTimeMillis());
+    }
+
+    // Separate so tests and the simulation can drive the clock
+    void sampleLoad(long now) {
+        double received = receivedCounter.count();
+        double elapsedSeconds = Math.max(1, now - lastSampleMillis) / 1000.0;
+        double rate = (received - lastReceived) / elapsedSeconds;
+        lastReceived = received;
+        lastSampleMillis = now;
+
+        ingestRate = 0.5 * ingestRate + 0.5 * rate;
+        double load = ingestRate / capacityPerSecond;
+        multiplier = load <= loadThreshold ? 1.0 : Math.min(maxMultiplier, load / loadThreshold);
+
+        samples.values().removeIf(sample -> now - sample.seenAt() > SAMPLE_EXPIRY_MS);
+        advised.keySet().retainAll(samples.keySet());
+    }
+}
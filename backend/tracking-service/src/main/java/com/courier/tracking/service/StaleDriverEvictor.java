@@ -0,0 +1,146 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ClusterMembershipChangedEvent;
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.config.RabbitMQConfig;
+import com.courier.tracking.dto.DriverStaleEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Removes drivers that stopped reporting (or went OFFLINE) from driver_locations and from
+ * every in-memory structure, and announces it with a driver.stale event.
+ */
+@Component
+@Slf4j
+public class StaleDriverEvictor {
+
+    private static final int REMOVE_CHUNK = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final LocationBuffer locationBuffer;
+    private final LocationFilter locationFilter;
+    private final DriverIndex driverIndex;
+    private final AdminMapBroadcaster adminMapBroadcaster;
+    private final ShardRouter shardRouter;
+    private final GeofenceEngine geofenceEngine;
+    private final TimingWheel<UUID> wheel;
+    private final Counter evictedCounter;
+
+    public StaleDriverEvictor(RabbitTemplate rabbitTemplate,
+                              LocationBuffer locationBuffer,
+                              LocationFilter locationFilter,
+                              DriverIndex driverIndex,
+                              AdminMapBroadcaster adminMapBroadcaster,
+                              ShardRouter shardRouter,
+                              GeofenceEngine geofenceEngine,
+                              @Value("${tracking.stale.ttl-seconds:120}") long ttlSeconds,
+                              @Value("${tracking.stale.tick-ms:1000}") long tickMillis,
+                              MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.locationBuffer = locationBuffer;
+        this.locationFilter = locationFilter;
+        this.driverIndex = driverIndex;
+        this.adminMapBroadcaster = adminMapBroadcaster;
+        this.shardRouter = shardRouter;
+        this.geofenceEngine = geofenceEngine;
+        this.wheel = new TimingWheel<>(tickMillis, ttlSeconds * 1000, System.currentTimeMillis());
+        this.evictedCounter = meterRegistry.counter("tracking.drivers.evicted");
+        Gauge.builder("tracking.drivers.live", wheel, TimingWheel::size)
+                .register(meterRegistry);
+    }
+
+    // Drivers restored from Redis expire like any other unless they report again
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        long now = System.currentTimeMillis();
+        for (UUID driverId : driverIndex.rebuildFromRedis(shardRouter::owns)) {
+            wheel.touch(driverId, now);
+        }
+    }
+
+    // Ownership moved: drivers this node took over but never heard from must still expire
+    @EventListener
+    public void onMembershipChanged(ClusterMembershipChangedEvent event) {
+        rebuildIndex();
+    }
+
+    public void touch(UUID driverId) {
+        wheel.touch(driverId, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.stale.tick-ms:1000}")
+    public void sweep() {
+        Map<UUID, Long> expired = wheel.advance(System.currentTimeMillis());
+        Map<UUID, Long> owned = new HashMap<>();
+        for (Map.Entry<UUID, Long> entry : expired.entrySet()) {
+            if (shardRouter.owns(entry.getKey())) {
+                owned.put(entry.getKey(), entry.getValue());
+            } else {
+                forget(entry.getKey()); // A replica; its owner announces the eviction
+            }
+        }
+        if (!owned.isEmpty()) {
+            evictAll(owned, "TIMEOUT");
+        }
+    }
+
+    public void evict(UUID driverId, String reason) {
+        Map<UUID, Long> drivers = new HashMap<>();
+        drivers.put(driverId, wheel.lastSeen(driverId));
+        wheel.remove(driverId);
+        evictAll(drivers, reason);
+    }
+
+    /**
+     * Drops a driver from this node's in-memory state only; used when the owning node
+     * evicted it.
+     */
+    public void forget(UUID driverId) {
+        wheel.remove(driverId);
+        locationBuffer.discard(driverId);
+        locationFilter.forget(driverId);
+        adminMapBroadcaster.remove(driverId); // Reads the last indexed position, so before the index
+        driverIndex.remove(driverId);
+        geofenceEngine.forgetDriver(driverId);
+    }
+
+    private void evictAll(Map<UUID, Long> drivers, String reason) {
+        for (UUID driverId : drivers.keySet()) {
+            locationFilter.forget(driverId);
+            adminMapBroadcaster.remove(driverId);
+            driverIndex.remove(driverId);
+            geofenceEngine.forgetDriver(driverId);
+        }
+        shardRouter.replicateEviction(drivers.keySet());
+
+        try {
+            locationBuffer.remove(drivers.keySet(), REMOVE_CHUNK);
+        } catch (Exception e) {
+            log.error("Failed to remove {} stale drivers from Redis", drivers.size(), e);
+        }
+
+        drivers.forEach((driverId, lastSeen) -> {
+            try {
+                rabbitTemplate.convertAndSend(RabbitMQConfig.TRACKING_EXCHANGE, RabbitMQConfig.DRIVER_STALE_ROUTING_KEY,
+                        new DriverStaleEvent(driverId, lastSeen, reason));
+            } catch (Exception e) {
+                log.warn("Failed to publish stale event for driver {}", driverId, e);
+            }
+        });
+        evictedCounter.increment(drivers.size());
+        log.info("Evicted {} drivers ({})", drivers.size(), reason);
+    }
+}
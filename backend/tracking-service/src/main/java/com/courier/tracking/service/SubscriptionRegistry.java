@@ -0,0 +1,130 @@
+package com.courier.tracking.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live count of STOMP subscribers per order topic, fed by SUBSCRIBE / UNSUBSCRIBE and
+ * disconnects, so fixes for orders nobody is watching are never serialized. Admin map
+ * subscriptions are counted too, so a cluster node knows whether it needs every fix.
+ */
+@Component
+public class SubscriptionRegistry {
+
+    public static final String ORDER_TOPIC_PREFIX = "/topic/orders/";
+
+    // sessionId -> subscriptionId -> destination
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> orderSubscribers = new ConcurrentHashMap<>();
+    // Wildcard subscriptions (e.g. /topic/orders/*) may match any order
+    private final Map<String, Integer> patternSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> adminSubscribers = new ConcurrentHashMap<>();
+
+    public SubscriptionRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("tracking.orders.watched", orderSubscribers, Map::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isWatched(UUID orderId) {
+        return orderSubscribers.containsKey(orderId) || !patternSubscribers.isEmpty();
+    }
+
+    public int watchedOrders() {
+        return orderSubscribers.size();
+    }
+
+    public Set<UUID> watchedOrderIds() {
+        return Set.copyOf(orderSubscribers.keySet());
+    }
+
+    // Admin map viewers or wildcard order subscribers: every fix may be shown here
+    public boolean watchesEveryDriver() {
+        return !adminSubscribers.isEmpty() || !patternSubscribers.isEmpty();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null
+                || destination == null || !(destination.startsWith(ORDER_TOPIC_PREFIX) || isAdminMap(destination))) {
+            return;
+        }
+        String previous = sessions.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), destination);
+        if (previous != null) {
+            decrement(previous);
+        }
+        increment(destination);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (subscriptions != null && accessor.getSubscriptionId() != null) {
+            String destination = subscriptions.remove(accessor.getSubscriptionId());
+            if (destination != null) {
+                decrement(destination);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    private void increment(String destination) {
+        if (isAdminMap(destination)) {
+            adminSubscribers.merge(destination, 1, Integer::sum);
+            return;
+        }
+        UUID orderId = orderId(destination);
+        if (orderId != null) {
+            orderSubscribers.merge(orderId, 1, Integer::sum);
+        } else {
+            patternSubscribers.merge(destination, 1, Integer::sum);
+        }
+    }
+
+    private void decrement(String destination) {
+        if (isAdminMap(destination)) {
+            adminSubscribers.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+            return;
+        }
+        UUID orderId = orderId(destination);
+        if (orderId != null) {
+            orderSubscribers.computeIfPresent(orderId, (id, count) -> count > 1 ? count - 1 : null);
+        } else {
+            patternSubscribers.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static boolean isAdminMap(String destination) {
+        return destination.equals(AdminMapBroadcaster.ADMIN_MAP_TOPIC)
+                || destination.endsWith(AdminMapBroadcaster.VIEWPORT_QUEUE);
+    }
+
+    private static UUID orderId(String destination) {
+        try {
+            return UUID.fromString(destination.substring(ORDER_TOPIC_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
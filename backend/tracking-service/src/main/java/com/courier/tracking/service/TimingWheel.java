@@ -0,0 +1,90 @@
+package com.courier.tracking.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashed timing wheel that expires keys not touched for {@code ttlMillis}. A touch only
+ * records the last-seen time; a key sits in at most one bucket and is rescheduled lazily
+ * when its bucket comes due, so both touching and sweeping are O(1) per key.
+ * {@link #advance(long)} must be called from a single thread.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final long ttlMillis;
+    private final List<Set<K>> buckets;
+    private final Map<K, Long> lastSeen = new ConcurrentHashMap<>();
+    private volatile long cursorTick;
+
+    public TimingWheel(long tickMillis, long ttlMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.ttlMillis = ttlMillis;
+        int bucketCount = (int) (ttlMillis / tickMillis) + 2;
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(ConcurrentHashMap.newKeySet());
+        }
+        this.cursorTick = nowMillis / tickMillis;
+    }
+
+    public void touch(K key, long nowMillis) {
+        if (lastSeen.put(key, nowMillis) == null) {
+            schedule(key, nowMillis + ttlMillis);
+        }
+    }
+
+    public void remove(K key) {
+        lastSeen.remove(key); // The bucket entry is discarded when its bucket comes due
+    }
+
+    public Long lastSeen(K key) {
+        return lastSeen.get(key);
+    }
+
+    public int size() {
+        return lastSeen.size();
+    }
+
+    /**
+     * Processes every bucket up to {@code nowMillis}.
+     *
+     * @return the keys whose TTL elapsed, with their last-seen time
+     */
+    public Map<K, Long> advance(long nowMillis) {
+        Map<K, Long> expired = new HashMap<>();
+        long targetTick = nowMillis / tickMillis;
+        // After a long stall, visiting each bucket once is enough
+        cursorTick = Math.max(cursorTick, targetTick - buckets.size() + 1);
+        while (cursorTick <= targetTick) {
+            Set<K> bucket = buckets.get((int) (cursorTick % buckets.size()));
+            for (Iterator<K> iterator = bucket.iterator(); iterator.hasNext(); ) {
+                K key = iterator.next();
+                iterator.remove();
+                Long seen = lastSeen.get(key);
+                if (seen == null) {
+                    continue;
+                }
+                long deadline = seen + ttlMillis;
+                if (deadline <= nowMillis && lastSeen.remove(key, seen)) {
+                    expired.put(key, seen);
+                } else {
+                    // Touched since it was scheduled (or just now): move to its current deadline
+                    schedule(key, Math.max(deadline, nowMillis + tickMillis));
+                }
+            }
+            cursorTick++;
+        }
+        return expired;
+    }
+
+    private void schedule(K key, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, cursorTick);
+        buckets.get((int) (tick % buckets.size())).add(key);
+    }
+}
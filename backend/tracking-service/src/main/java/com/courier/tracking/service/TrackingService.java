@@ -1,32 +1,235 @@
 package com.courier.tracking.service;
 
+import com.courier.tracking.cluster.ClusterInterest;
+import com.courier.tracking.cluster.ClusterMessage;
+import com.courier.tracking.cluster.ShardRouter;
 import com.courier.tracking.dto.LocationUpdate;
-import lombok.RequiredArgsConstructor;
-import org.springframework.data.geo.Point;
-import org.springframework.data.redis.core.RedisTemplate;
+import com.courier.tracking.dto.OrderPosition;
+import com.courier.tracking.history.LocationHistoryStore;
+import com.courier.tracking.websocket.BinaryFanout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
 @Service
-@RequiredArgsConstructor
 public class TrackingService {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    private final LocationFilter locationFilter;
+    private final LocationBuffer locationBuffer;
+    private final DriverIndex driverIndex;
+    private final AdminMapBroadcaster adminMapBroadcaster;
     private final SimpMessagingTemplate messagingTemplate;
+    private final BinaryFanout binaryFanout;
+    private final LocationHistoryStore historyStore;
+    private final StaleDriverEvictor staleDriverEvictor;
+    private final ShardRouter shardRouter;
+    private final SubscriptionRegistry subscriptionRegistry;
+    private final GeofenceEngine geofenceEngine;
+    private final EtaService etaService;
+    private final TripOdometer tripOdometer;
+    private final Counter receivedCounter;
+    private final Counter acceptedCounter;
+    private final Counter forwardedCounter;
+    private final Counter invalidCounter;
+
+    public static final String GEO_KEY = "driver_locations";
+
+    // Client timestamps are epoch millis; anything before 2001-09-09 is most likely epoch seconds
+    private static final long MIN_FIX_TIME_MS = 1_000_000_000_000L;
+    private static final long MAX_CLOCK_AHEAD_MS = 10 * 60 * 1000;
+
+    public TrackingService(LocationFilter locationFilter,
+                           LocationBuffer locationBuffer,
+                           DriverIndex driverIndex,
+                           AdminMapBroadcaster adminMapBroadcaster,
+                           SimpMessagingTemplate messagingTemplate,
+                           BinaryFanout binaryFanout,
+                           LocationHistoryStore historyStore,
+                           StaleDriverEvictor staleDriverEvictor,
+                           ShardRouter shardRouter,
+                           SubscriptionRegistry subscriptionRegistry,
+                           GeofenceEngine geofenceEngine,
+                           EtaService etaService,
+                           TripOdometer tripOdometer,
+                           MeterRegistry meterRegistry) {
+        this.locationFilter = locationFilter;
+        this.locationBuffer = locationBuffer;
+        this.driverIndex = driverIndex;
+        this.adminMapBroadcaster = adminMapBroadcaster;
+        this.messagingTemplate = messagingTemplate;
+        this.binaryFanout = binaryFanout;
+        this.historyStore = historyStore;
+        this.staleDriverEvictor = staleDriverEvictor;
+        this.shardRouter = shardRouter;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.geofenceEngine = geofenceEngine;
+        this.etaService = etaService;
+        this.tripOdometer = tripOdometer;
+        this.receivedCounter = meterRegistry.counter("tracking.updates.received");
+        this.acceptedCounter = meterRegistry.counter("tracking.updates.accepted");
+        this.forwardedCounter = meterRegistry.counter("tracking.updates.forwarded");
+        this.invalidCounter = meterRegistry.counter("tracking.updates.invalid");
+    }
 
-    private static final String GEO_KEY = "driver_locations";
+    @PostConstruct
+    public void joinCluster() {
+        shardRouter.setReceiver(this::onClusterMessage);
+        shardRouter.setInterest(this::localInterest);
+    }
 
     public void updateLocation(LocationUpdate update) {
-        // 1. Update Redis GEO
-        redisTemplate.opsForGeo().add(GEO_KEY, new Point(update.longitude(), update.latitude()), update.driverId().toString());
+        updateLocations(List.of(update));
+    }
+
+    /**
+     * Ingests a batch of fixes. Only the newest fix per driver survives, fixes older than
+     * the last accepted one for that driver are dropped, stationary fixes are suppressed by the
+     * {@link LocationFilter}, and the survivors are handed to the write-behind
+     * {@link LocationBuffer}, which writes them to Redis in one GEOADD per flush.
+     * In clustered mode fixes for drivers owned by other nodes are forwarded to their owner.
+     * Fixes with out-of-range coordinates or implausible timestamps are dropped up front.
+     *
+     * @return the number of fixes accepted by this node (forwarded fixes are not counted)
+     */
+    public int updateLocations(List<LocationUpdate> updates) {
+        receivedCounter.increment(updates.size());
+        updates = validOnly(updates);
+        if (!shardRouter.isClustered()) {
+            return ingest(updates);
+        }
+
+        List<LocationUpdate> owned = List.of();
+        for (Map.Entry<String, List<LocationUpdate>> entry : shardRouter.partition(updates).entrySet()) {
+            if (entry.getKey().equals(shardRouter.nodeId())) {
+                owned = entry.getValue();
+            } else {
+                shardRouter.forward(entry.getKey(), entry.getValue());
+                forwardedCounter.increment(entry.getValue().size());
+            }
+        }
+        return ingest(owned);
+    }
+
+    // Runs on the node owning every driver in the batch
+    private int ingest(List<LocationUpdate> updates) {
+        Map<UUID, LocationUpdate> latest = new HashMap<>();
+        for (LocationUpdate update : updates) {
+            if (update.driverId() != null) {
+                latest.merge(update.driverId(), update, (current, candidate) -> isNewer(candidate, current) ? candidate : current);
+            }
+        }
+
+        List<LocationUpdate> accepted = new ArrayList<>(latest.size());
+        for (LocationUpdate update : latest.values()) {
+            if (locationFilter.advanceFixTime(update)) {
+                // Suppressed fixes still prove the driver is alive
+                staleDriverEvictor.touch(update.driverId());
+                LocationUpdate filtered = locationFilter.apply(update);
+                if (filtered != null) {
+                    accepted.add(filtered);
+                }
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        for (LocationUpdate update : accepted) {
+            // 1. Update Redis GEO (coalesced, written behind)
+            locationBuffer.offer(update.driverId(), update.latitude(), update.longitude());
+            geofenceEngine.check(update);
+            tripOdometer.record(update);
+            // Only the owner records history; trail reads gather it from every node
+            historyStore.append(update);
+            publishLocally(update);
+        }
+        // Other nodes keep their index and subscribers current from the replica
+        shardRouter.replicate(accepted);
+
+        acceptedCounter.increment(accepted.size());
+        return accepted.size();
+    }
+
+    private void publishLocally(LocationUpdate update) {
+        driverIndex.update(update);
 
-        // 2. Broadcast to specific order topic (for Customer)
-        // Topic: /topic/orders/{orderId}
+        // 2. Broadcast to specific order topic (for Customer), with the ETA, only when someone is watching it.
+        // Topic: /topic/orders/{orderId}; serialized once, the broker shares the message with every subscriber
         if (update.orderId() != null) {
-            messagingTemplate.convertAndSend("/topic/orders/" + update.orderId(), update);
+            if (subscriptionRegistry.isWatched(update.orderId())) {
+                messagingTemplate.convertAndSend(SubscriptionRegistry.ORDER_TOPIC_PREFIX + update.orderId(),
+                        OrderPosition.of(update, etaService.etaFor(update)));
+            }
+            binaryFanout.publishOrderUpdate(update);
+        }
+
+        // 3. Queue for the next Admin Map (global) delta frame
+        adminMapBroadcaster.record(update);
+    }
+
+    // Replicas expire here like owned drivers, so they do not outlive an owner that died
+    private void publishReplica(LocationUpdate update) {
+        staleDriverEvictor.touch(update.driverId());
+        publishLocally(update);
+    }
+
+    private ClusterInterest localInterest() {
+        if (subscriptionRegistry.watchesEveryDriver() || binaryFanout.hasAdminViewers()) {
+            return new ClusterInterest(true, Set.of());
+        }
+        Set<UUID> orders = new HashSet<>(subscriptionRegistry.watchedOrderIds());
+        orders.addAll(binaryFanout.watchedOrders());
+        return new ClusterInterest(false, orders);
+    }
+
+    private void onClusterMessage(ClusterMessage message) {
+        switch (message.type()) {
+            case INGEST -> ingest(message.updates());
+            case REPLICA -> message.updates().forEach(this::publishReplica);
+            case EVICT -> message.driverIds().forEach(staleDriverEvictor::forget);
+            case GEOFENCE -> geofenceEngine.apply(message.orderId(), message.geofences());
+            case TRIP -> tripOdometer.merge(message.orderId(), message.trip());
+            case HEARTBEAT, LEAVE -> { } // Handled by the ShardRouter
+        }
+    }
+
+    private List<LocationUpdate> validOnly(List<LocationUpdate> updates) {
+        long latest = System.currentTimeMillis() + MAX_CLOCK_AHEAD_MS;
+        List<LocationUpdate> valid = new ArrayList<>(updates.size());
+        for (LocationUpdate update : updates) {
+            if (isValid(update, latest)) {
+                valid.add(update);
+            }
+        }
+        if (valid.size() < updates.size()) {
+            invalidCounter.increment(updates.size() - valid.size());
         }
+        return valid;
+    }
 
-        // 3. Broadcast to Admin Map (global)
-        messagingTemplate.convertAndSend("/topic/admin/map", update);
+    static boolean isValid(LocationUpdate update, long latestFixTime) {
+        // Negated comparisons also reject NaN
+        if (!(Math.abs(update.latitude()) <= 90) || !(Math.abs(update.longitude()) <= 180)) {
+            return false;
+        }
+        Long timestamp = update.timestamp();
+        return timestamp == null || (timestamp >= MIN_FIX_TIME_MS && timestamp <= latestFixTime);
+    }
+
+    private static boolean isNewer(LocationUpdate candidate, LocationUpdate current) {
+        if (candidate.timestamp() == null || current.timestamp() == null) {
+            return true; // Without timestamps, arrival order wins
+        }
+        return candidate.timestamp() >= current.timestamp();
     }
 }
@@ -0,0 +1,69 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ClusterTrail;
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.dto.Trail;
+import com.courier.tracking.dto.TrailPoint;
+import com.courier.tracking.geo.TrailSimplifier;
+import com.courier.tracking.history.LocationHistoryStore;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Order and driver trails. In a cluster each node only holds the fixes it ingested as owner, so
+ * reads are gathered from every node through the {@link ShardRouter}.
+ */
+@Service
+public class TrailService {
+
+    private static final double SCALE = 1e7;
+
+    private final LocationHistoryStore historyStore;
+    private final ShardRouter shardRouter;
+
+    public TrailService(LocationHistoryStore historyStore, ShardRouter shardRouter) {
+        this.historyStore = historyStore;
+        this.shardRouter = shardRouter;
+        shardRouter.setTrailSource(this::localTrail);
+    }
+
+    public List<TrailPoint> getDriverTrail(UUID driverId, long fromMillis, long toMillis) {
+        return shardRouter.collectTrail(ClusterTrail.ofDriver(driverId, fromMillis, toMillis));
+    }
+
+    public Trail getOrderTrail(UUID orderId, Double toleranceMeters, boolean deltaEncoded) {
+        List<TrailPoint> points = shardRouter.collectTrail(ClusterTrail.ofOrder(orderId));
+        if (toleranceMeters != null) {
+            points = TrailSimplifier.douglasPeucker(points, toleranceMeters);
+        }
+        if (!deltaEncoded) {
+            return new Trail(orderId, points.size(), "points", points, null, null, null);
+        }
+
+        int[] latitudes = new int[points.size()];
+        int[] longitudes = new int[points.size()];
+        long[] timestamps = new long[points.size()];
+        int previousLat = 0;
+        int previousLon = 0;
+        long previousTime = 0;
+        for (int i = 0; i < points.size(); i++) {
+            TrailPoint point = points.get(i);
+            int lat = (int) Math.round(point.latitude() * SCALE);
+            int lon = (int) Math.round(point.longitude() * SCALE);
+            latitudes[i] = lat - previousLat;
+            longitudes[i] = lon - previousLon;
+            timestamps[i] = point.timestamp() - previousTime;
+            previousLat = lat;
+            previousLon = lon;
+            previousTime = point.timestamp();
+        }
+        return new Trail(orderId, points.size(), "delta", null, latitudes, longitudes, timestamps);
+    }
+
+    private List<TrailPoint> localTrail(ClusterTrail query) {
+        return query.orderId() != null ? historyStore.orderTrail(query.orderId())
+                : historyStore.driverTrail(query.driverId(), query.fromMillis(), query.toMillis());
+    }
+}
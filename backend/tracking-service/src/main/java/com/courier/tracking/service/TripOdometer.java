@@ -0,0 +1,156 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ClusterMembershipChangedEvent;
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.config.RabbitMQConfig;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.TripProgress;
+import com.courier.tracking.dto.TripSummary;
+import com.courier.tracking.geo.GeoUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Running distance, duration, top speed and idle time per active order, advanced in O(1) from
+ * each accepted fix. The summary is published on order.exchange when the order ends, so payouts
+ * never need to rescan the location history.
+ *
+ * <p>Fixes are recorded on the node owning the driver. When ownership moves mid-trip, the old
+ * owner hands the trip to the new one, which joins it with whatever it recorded meanwhile, and
+ * only the owner publishes the summary. A trip whose hand-off is lost, or still in flight when
+ * the order ends, is dropped rather than published twice or in part.
+ */
+@Component
+@Slf4j
+public class TripOdometer {
+
+    // Shorter segments give meaningless speeds from GPS noise
+    private static final long MIN_SPEED_SEGMENT_MS = 1_000;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ShardRouter shardRouter;
+    private final double idleSpeedMps;
+    private final double maxPlausibleSpeedMps;
+    private final long abandonMillis;
+    private final Map<UUID, TripProgress> trips = new ConcurrentHashMap<>();
+
+    public TripOdometer(RabbitTemplate rabbitTemplate,
+                        ShardRouter shardRouter,
+                        @Value("${tracking.trip.idle-speed-mps:1.0}") double idleSpeedMps,
+                        @Value("${tracking.trip.max-plausible-speed-mps:70}") double maxPlausibleSpeedMps,
+                        @Value("${tracking.trip.abandon-hours:24}") long abandonHours,
+                        MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.shardRouter = shardRouter;
+        this.idleSpeedMps = idleSpeedMps;
+        this.maxPlausibleSpeedMps = maxPlausibleSpeedMps;
+        this.abandonMillis = abandonHours * 3_600_000;
+        Gauge.builder("tracking.trips.active", trips, Map::size)
+                .register(meterRegistry);
+    }
+
+    public void record(LocationUpdate update) {
+        if (update.orderId() == null) {
+            return;
+        }
+        long time = update.timestamp() != null ? update.timestamp() : System.currentTimeMillis();
+        trips.compute(update.orderId(), (orderId, trip) -> trip == null
+                ? new TripProgress(update.driverId(), time, update.latitude(), update.longitude(),
+                        update.latitude(), update.longitude(), time, 0, 0, 0)
+                : advance(trip, update.latitude(), update.longitude(), time));
+    }
+
+    /**
+     * Joins a trip handed off by the driver's previous owner with the part recorded here, bridging
+     * the gap between the two like any other segment.
+     */
+    public void merge(UUID orderId, TripProgress handedOff) {
+        trips.merge(orderId, handedOff, (local, incoming) -> local.startedAt() <= incoming.startedAt()
+                ? join(local, incoming) : join(incoming, local));
+    }
+
+    /**
+     * Publishes the order's trip summary, if this node tracked it and owns the driver, and
+     * forgets the trip.
+     */
+    public void complete(UUID orderId, String status) {
+        TripProgress trip = trips.remove(orderId);
+        if (trip == null) {
+            return;
+        }
+        if (!shardRouter.owns(trip.driverId())) {
+            log.warn("Dropping partial trip of order {}: driver {} is owned by another node", orderId, trip.driverId());
+            return;
+        }
+        TripSummary summary = new TripSummary(orderId, trip.driverId(), status, trip.distanceMeters(),
+                (trip.lastTime() - trip.startedAt()) / 1000, trip.maxSpeedMps(), trip.idleMillis() / 1000,
+                trip.startedAt(), trip.lastTime());
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.TRIP_COMPLETED_ROUTING_KEY, summary);
+            log.info("Trip of order {} completed: {} m in {} s", orderId, Math.round(summary.distanceMeters()), summary.durationSeconds());
+        } catch (Exception e) {
+            log.warn("Failed to publish trip summary for order {}", orderId, e);
+        }
+    }
+
+    // Ownership moved: trips of drivers this node gave up continue on their new owner
+    @EventListener
+    public void onMembershipChanged(ClusterMembershipChangedEvent event) {
+        for (UUID orderId : trips.keySet()) {
+            AtomicReference<TripProgress> moved = new AtomicReference<>();
+            trips.computeIfPresent(orderId, (id, trip) -> {
+                if (shardRouter.owns(trip.driverId())) {
+                    return trip;
+                }
+                moved.set(trip);
+                return null;
+            });
+            if (moved.get() != null) {
+                shardRouter.handOffTrip(orderId, moved.get());
+            }
+        }
+    }
+
+    // Orders that never reached a terminal state
+    @Scheduled(fixedDelayString = "${tracking.trip.sweep-ms:3600000}")
+    public void dropAbandoned() {
+        long cutoff = System.currentTimeMillis() - abandonMillis;
+        trips.values().removeIf(trip -> trip.lastTime() < cutoff);
+    }
+
+    private TripProgress advance(TripProgress trip, double latitude, double longitude, long time) {
+        long elapsed = time - trip.lastTime();
+        if (elapsed <= 0) {
+            return trip;
+        }
+        double meters = GeoUtils.distanceMeters(trip.latitude(), trip.longitude(), latitude, longitude);
+        double speed = meters * 1000.0 / elapsed;
+        if (speed > maxPlausibleSpeedMps) {
+            return trip; // GPS jump, keep the previous position
+        }
+        double maxSpeed = elapsed >= MIN_SPEED_SEGMENT_MS ? Math.max(trip.maxSpeedMps(), speed) : trip.maxSpeedMps();
+        long idle = speed < idleSpeedMps ? trip.idleMillis() + elapsed : trip.idleMillis();
+        return new TripProgress(trip.driverId(), trip.startedAt(), trip.startLatitude(), trip.startLongitude(),
+                latitude, longitude, time, trip.distanceMeters() + meters, maxSpeed, idle);
+    }
+
+    private TripProgress join(TripProgress earlier, TripProgress later) {
+        TripProgress bridged = advance(earlier, later.startLatitude(), later.startLongitude(), later.startedAt());
+        boolean laterEndsLast = later.lastTime() >= bridged.lastTime();
+        return new TripProgress(later.driverId(), earlier.startedAt(), earlier.startLatitude(), earlier.startLongitude(),
+                laterEndsLast ? later.latitude() : bridged.latitude(), laterEndsLast ? later.longitude() : bridged.longitude(),
+                Math.max(bridged.lastTime(), later.lastTime()), bridged.distanceMeters() + later.distanceMeters(),
+                Math.max(bridged.maxSpeedMps(), later.maxSpeedMps()), bridged.idleMillis() + later.idleMillis());
+    }
+}
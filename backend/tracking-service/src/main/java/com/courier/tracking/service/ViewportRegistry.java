@@ -0,0 +1,31 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.Viewport;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounding box each admin session is currently looking at, keyed by STOMP session id.
+ */
+@Component
+public class ViewportRegistry {
+
+    private final Map<String, Viewport> viewports = new ConcurrentHashMap<>();
+
+    public void register(String sessionId, Viewport viewport) {
+        viewports.put(sessionId, viewport);
+    }
+
+    public Map<String, Viewport> viewports() {
+        return viewports;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        viewports.remove(event.getSessionId());
+    }
+}
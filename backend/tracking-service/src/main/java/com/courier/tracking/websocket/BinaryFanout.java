@@ -0,0 +1,88 @@
+package com.courier.tracking.websocket;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.MapFrame;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Viewers connected over the binary protocol. Each outgoing frame is encoded once and the
+ * same bytes are written to every interested session.
+ */
+@Component
+@Slf4j
+public class BinaryFanout {
+
+    private final Set<WebSocketSession> adminViewers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<WebSocketSession>> orderViewers = new ConcurrentHashMap<>();
+
+    // Registered before the snapshot is sent, so no delta after the snapshot is missed
+    void watchAdminMap(WebSocketSession session, MapFrame snapshot) {
+        adminViewers.add(session);
+        send(Set.of(session), LocationFrameCodec.encodeAll(true, snapshot.drivers(), List.of()));
+    }
+
+    void watchOrder(UUID orderId, WebSocketSession session) {
+        orderViewers.compute(orderId, (id, sessions) -> {
+            Set<WebSocketSession> target = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            target.add(session);
+            return target;
+        });
+    }
+
+    void remove(WebSocketSession session) {
+        adminViewers.remove(session);
+        for (UUID orderId : orderViewers.keySet()) {
+            orderViewers.computeIfPresent(orderId, (id, sessions) -> {
+                sessions.remove(session);
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    public boolean hasAdminViewers() {
+        return !adminViewers.isEmpty();
+    }
+
+    public Set<UUID> watchedOrders() {
+        return Set.copyOf(orderViewers.keySet());
+    }
+
+    public void publishAdminFrame(List<LocationUpdate> drivers, List<UUID> removed) {
+        if (adminViewers.isEmpty() || (drivers.isEmpty() && removed.isEmpty())) {
+            return;
+        }
+        send(adminViewers, LocationFrameCodec.encodeAll(false, drivers, removed));
+    }
+
+    public void publishOrderUpdate(LocationUpdate update) {
+        Set<WebSocketSession> sessions = orderViewers.get(update.orderId());
+        if (sessions == null || sessions.isEmpty()) {
+            return;
+        }
+        send(sessions, List.of(LocationFrameCodec.encode(List.of(update))));
+    }
+
+    private void send(Set<WebSocketSession> sessions, List<byte[]> frames) {
+        for (WebSocketSession session : sessions) {
+            try {
+                // BinaryMessage wraps the shared array without copying
+                for (byte[] frame : frames) {
+                    session.sendMessage(new BinaryMessage(frame));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping binary viewer {}: {}", session.getId(), e.getMessage());
+                remove(session);
+            }
+        }
+    }
+}
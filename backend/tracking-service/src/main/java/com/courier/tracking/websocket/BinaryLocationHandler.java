@@ -0,0 +1,87 @@
+package com.courier.tracking.websocket;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.service.AdminMapBroadcaster;
+import com.courier.tracking.service.TrackingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raw WebSocket endpoint speaking {@link LocationFrameCodec} frames. Drivers send batched fixes;
+ * viewers pick what they receive with {@code ?topic=admin-map} or {@code ?orderId=...}.
+ * Clients must negotiate the {@value #SUB_PROTOCOL} subprotocol; permessage-deflate is
+ * negotiated by the container when the client offers it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BinaryLocationHandler extends BinaryWebSocketHandler implements SubProtocolCapable {
+
+    public static final String SUB_PROTOCOL = "courier.location.v1";
+
+    private static final int SEND_TIME_LIMIT_MS = 5_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+
+    private final TrackingService trackingService;
+    private final BinaryFanout binaryFanout;
+    private final AdminMapBroadcaster adminMapBroadcaster;
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(SUB_PROTOCOL);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (!SUB_PROTOCOL.equals(session.getAcceptedProtocol())) {
+            session.close(CloseStatus.PROTOCOL_ERROR.withReason("Subprotocol " + SUB_PROTOCOL + " required"));
+            return;
+        }
+        WebSocketSession concurrentSession = new ConcurrentWebSocketSessionDecorator(
+                session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        sessions.put(session.getId(), concurrentSession);
+
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        if ("admin-map".equals(params.getFirst("topic"))) {
+            binaryFanout.watchAdminMap(concurrentSession, adminMapBroadcaster.snapshot());
+        }
+        String orderId = params.getFirst("orderId");
+        if (orderId != null) {
+            binaryFanout.watchOrder(UUID.fromString(orderId), concurrentSession);
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        try {
+            List<LocationUpdate> updates = LocationFrameCodec.decode(message.getPayload());
+            trackingService.updateLocations(updates);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected binary frame from session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        WebSocketSession concurrentSession = sessions.remove(session.getId());
+        if (concurrentSession != null) {
+            binaryFanout.remove(concurrentSession);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.courier.tracking.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives a STOMP session its own bounded outbound queue. {@link #sendMessage} only enqueues;
+ * the socket is written from a drain task on the shared executor, so a slow client never holds
+ * up the clientOutboundChannel thread that is broadcasting to everyone else.
+ *
+ * <p>The queue is bounded by frame count and by queued bytes. A socket write that blocks longer
+ * than the send time limit closes the session; {@link #checkSendTimeLimit} is also polled by the
+ * {@link OutboundSessionRegistry}, so a stalled client is dropped even when no new frames arrive.
+ */
+@Slf4j
+public class BoundedOutboundSession extends WebSocketSessionDecorator {
+
+    private static final String POSITION_PREFIX = "/topic/orders/";
+
+    private final int capacity;
+    private final long sendBufferBytes;
+    private final OverflowPolicy policy;
+    private final long sendTimeLimitMillis;
+    private final Executor executor;
+    private final Counter droppedCounter;
+
+    // Keyed by subscription and destination for conflated position frames, by sequence number otherwise
+    private final LinkedHashMap<Object, Pending> pending = new LinkedHashMap<>();
+    private long sequence;
+    private long queuedBytes;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+    private volatile long sendStartMillis;
+    private volatile boolean closing;
+
+    // positionKey is null for frames that must never be dropped
+    private record Pending(String positionKey, WebSocketMessage<?> message, int bytes) {
+    }
+
+    public BoundedOutboundSession(WebSocketSession delegate, int capacity, long sendBufferBytes, OverflowPolicy policy,
+                                  long sendTimeLimitMillis, Executor executor, Counter droppedCounter) {
+        super(delegate);
+        this.capacity = capacity;
+        this.sendBufferBytes = sendBufferBytes;
+        this.policy = policy;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.executor = executor;
+        this.droppedCounter = droppedCounter;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        if (closing || checkSendTimeLimit()) {
+            return;
+        }
+        boolean accepted;
+        synchronized (pending) {
+            accepted = enqueue(new Pending(positionKey(message), message, message.getPayloadLength()));
+        }
+        if (!accepted) {
+            terminate("outbound queue full");
+            return;
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Closes the session when the current socket write has been blocked past the send time limit.
+     *
+     * @return true if the session is closed
+     */
+    public boolean checkSendTimeLimit() {
+        if (!closing && sendInProgressMillis() > sendTimeLimitMillis) {
+            terminate("send time limit exceeded");
+        }
+        return closing;
+    }
+
+    public int depth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long conflated() {
+        return conflated.get();
+    }
+
+    // How long the current socket write has been blocked, 0 when idle
+    public long sendInProgressMillis() {
+        long started = sendStartMillis;
+        return started == 0 ? 0 : System.currentTimeMillis() - started;
+    }
+
+    private boolean enqueue(Pending next) {
+        boolean conflatable = policy == OverflowPolicy.CONFLATE && next.positionKey() != null;
+        Pending replaced = conflatable ? pending.get(next.positionKey()) : null;
+        long bytesAfter = queuedBytes + next.bytes() - (replaced != null ? replaced.bytes() : 0);
+        if (replaced != null && bytesAfter <= sendBufferBytes) {
+            pending.put(next.positionKey(), next); // Replaces in place, keeping the queue position
+            queuedBytes = bytesAfter;
+            conflated.incrementAndGet();
+            return true;
+        }
+        // A single frame larger than the byte limit is still sent once the queue has drained
+        while (pending.size() >= capacity || (!pending.isEmpty() && queuedBytes + next.bytes() > sendBufferBytes)) {
+            if (policy == OverflowPolicy.DISCONNECT || !dropOldestPosition()) {
+                return false;
+            }
+        }
+        pending.put(conflatable ? next.positionKey() : sequence++, next);
+        queuedBytes += next.bytes();
+        return true;
+    }
+
+    private boolean dropOldestPosition() {
+        Iterator<Pending> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            Pending candidate = iterator.next();
+            if (candidate.positionKey() != null) {
+                iterator.remove();
+                queuedBytes -= candidate.bytes();
+                dropped.incrementAndGet();
+                droppedCounter.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closing) {
+                WebSocketMessage<?> next;
+                synchronized (pending) {
+                    Iterator<Pending> iterator = pending.values().iterator();
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    Pending head = iterator.next();
+                    iterator.remove();
+                    queuedBytes -= head.bytes();
+                    next = head.message();
+                }
+                sendStartMillis = System.currentTimeMillis();
+                getDelegate().sendMessage(next);
+                sendStartMillis = 0;
+            }
+        } catch (Exception e) {
+            log.debug("Send to session {} failed", getId(), e);
+            terminate("send failed");
+        } finally {
+            sendStartMillis = 0;
+            draining.set(false);
+        }
+        // A frame may have been queued after the last poll but before draining was cleared
+        if (!closing && depth() > 0) {
+            scheduleDrain();
+        }
+    }
+
+    private void terminate(String reason) {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        synchronized (pending) {
+            pending.clear();
+            queuedBytes = 0;
+        }
+        log.info("Closing slow session {}: {}", getId(), reason);
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE.withReason(reason));
+        } catch (Exception e) {
+            log.debug("Failed to close session {}", getId(), e);
+        }
+    }
+
+    // "subscription destination" of a STOMP MESSAGE frame carrying a position update, null for anything else.
+    // Two subscriptions to one topic each get their own frame, so both are part of the key.
+    private static String positionKey(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text)) {
+            return null;
+        }
+        String payload = text.getPayload();
+        if (!payload.startsWith("MESSAGE\n")) {
+            return null;
+        }
+        int headersEnd = payload.indexOf("\n\n");
+        String headers = headersEnd >= 0 ? payload.substring(0, headersEnd + 1) : payload;
+        String destination = header(headers, "destination");
+        if (destination == null || !destination.startsWith(POSITION_PREFIX)) {
+            return null;
+        }
+        String subscription = header(headers, "subscription");
+        return (subscription != null ? subscription : "") + ' ' + destination;
+    }
+
+    private static String header(String headers, String name) {
+        int start = headers.indexOf('\n' + name + ':');
+        if (start < 0) {
+            return null;
+        }
+        start += name.length() + 2;
+        int end = headers.indexOf('\n', start);
+        return end < 0 ? null : headers.substring(start, end);
+    }
+}
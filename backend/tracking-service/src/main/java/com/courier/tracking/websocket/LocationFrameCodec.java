@@ -0,0 +1,192 @@
+package com.courier.tracking.websocket;
+
+import com.courier.tracking.dto.LocationUpdate;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fixed-width binary encoding for batches of location fixes (big-endian).
+ *
+ * <pre>
+ * header  (16 bytes): u8 version | u8 flags | u16 fix count | u16 removed count | u16 reserved
+ *                     | i64 base timestamp (epoch ms)
+ * fix     (44 bytes): 16B driverId | 16B orderId (all zero = none)
+ *                     | i32 latitude * 1e7 | i32 longitude * 1e7 | i32 timestamp delta from base (ms)
+ * removed (16 bytes): driverId of a driver that went stale or offline
+ * </pre>
+ *
+ * A fix without a client timestamp carries {@link #NO_TIMESTAMP} as its delta. A frame with
+ * {@link #FLAG_SNAPSHOT} replaces everything the viewer shows; frames without it are deltas.
+ */
+public final class LocationFrameCodec {
+
+    public static final byte VERSION = 2;
+    public static final byte FLAG_SNAPSHOT = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int FIX_BYTES = 44;
+    public static final int REMOVED_BYTES = 16;
+    public static final int MAX_FIXES = 1024;
+    public static final int MAX_REMOVED = 1024;
+    // 61456 bytes: a full frame of both sections
+    public static final int MAX_FRAME_BYTES = HEADER_BYTES + MAX_FIXES * FIX_BYTES + MAX_REMOVED * REMOVED_BYTES;
+    public static final int NO_TIMESTAMP = Integer.MIN_VALUE;
+
+    private static final double SCALE = 1e7;
+
+    public record Frame(boolean snapshot, List<LocationUpdate> fixes, List<UUID> removed) {}
+
+    private LocationFrameCodec() {
+    }
+
+    public static byte[] encode(List<LocationUpdate> updates) {
+        return encode(false, updates, List.of());
+    }
+
+    /**
+     * Encodes one frame.
+     *
+     * @throws IllegalArgumentException when a section exceeds its maximum, a coordinate is out of
+     *                                  range, or the timestamps span more than an i32 of millis
+     */
+    public static byte[] encode(boolean snapshot, List<LocationUpdate> updates, List<UUID> removed) {
+        if (updates.size() > MAX_FIXES || removed.size() > MAX_REMOVED) {
+            throw new IllegalArgumentException("Too many entries in one frame: " + updates.size() + " fixes, "
+                    + removed.size() + " removed");
+        }
+        long base = Long.MAX_VALUE;
+        for (LocationUpdate update : updates) {
+            if (update.timestamp() != null) {
+                base = Math.min(base, update.timestamp());
+            }
+        }
+        if (base == Long.MAX_VALUE) {
+            base = 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + updates.size() * FIX_BYTES + removed.size() * REMOVED_BYTES)
+                .order(ByteOrder.BIG_ENDIAN);
+        buffer.put(VERSION);
+        buffer.put(snapshot ? FLAG_SNAPSHOT : 0);
+        buffer.putShort((short) updates.size());
+        buffer.putShort((short) removed.size());
+        buffer.putShort((short) 0);
+        buffer.putLong(base);
+        for (LocationUpdate update : updates) {
+            putUuid(buffer, update.driverId());
+            putUuid(buffer, update.orderId());
+            buffer.putInt(scaled(update.latitude(), 90));
+            buffer.putInt(scaled(update.longitude(), 180));
+            buffer.putInt(update.timestamp() == null ? NO_TIMESTAMP : delta(update.timestamp(), base));
+        }
+        for (UUID driverId : removed) {
+            putUuid(buffer, driverId);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Splits fixes and removals into as many frames as needed: a frame holds at most
+     * {@link #MAX_FIXES} fixes, and a new one is started whenever a fix's timestamp would not fit
+     * an i32 delta from the frame's base. Only the first frame carries the snapshot flag.
+     */
+    public static List<byte[]> encodeAll(boolean snapshot, List<LocationUpdate> updates, List<UUID> removed) {
+        List<byte[]> frames = new ArrayList<>();
+        List<LocationUpdate> current = new ArrayList<>();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (LocationUpdate update : updates) {
+            Long timestamp = update.timestamp();
+            long nextMin = timestamp != null ? Math.min(min, timestamp) : min;
+            long nextMax = timestamp != null ? Math.max(max, timestamp) : max;
+            boolean spanFits = timestamp == null || nextMax - nextMin < Integer.MAX_VALUE;
+            if (current.size() == MAX_FIXES || !spanFits) {
+                frames.add(encode(snapshot && frames.isEmpty(), current, List.of()));
+                current = new ArrayList<>();
+                nextMin = timestamp != null ? timestamp : Long.MAX_VALUE;
+                nextMax = timestamp != null ? timestamp : Long.MIN_VALUE;
+            }
+            current.add(update);
+            min = nextMin;
+            max = nextMax;
+        }
+        for (int from = 0; from < removed.size(); from += MAX_REMOVED) {
+            List<UUID> chunk = removed.subList(from, Math.min(from + MAX_REMOVED, removed.size()));
+            frames.add(encode(snapshot && frames.isEmpty(), current, chunk));
+            current = List.of();
+        }
+        if (!current.isEmpty() || frames.isEmpty()) {
+            frames.add(encode(snapshot && frames.isEmpty(), current, List.of()));
+        }
+        return frames;
+    }
+
+    public static List<LocationUpdate> decode(ByteBuffer payload) {
+        return decodeFrame(payload).fixes();
+    }
+
+    public static Frame decodeFrame(ByteBuffer payload) {
+        ByteBuffer buffer = payload.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES) {
+            throw new IllegalArgumentException("Frame shorter than header");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported frame version: " + version);
+        }
+        boolean snapshot = (buffer.get() & FLAG_SNAPSHOT) != 0;
+        int count = Short.toUnsignedInt(buffer.getShort());
+        int removedCount = Short.toUnsignedInt(buffer.getShort());
+        buffer.getShort();
+        long base = buffer.getLong();
+        if (count > MAX_FIXES || removedCount > MAX_REMOVED
+                || buffer.remaining() != count * FIX_BYTES + removedCount * REMOVED_BYTES) {
+            throw new IllegalArgumentException("Frame length does not match " + count + " fixes and "
+                    + removedCount + " removed");
+        }
+
+        List<LocationUpdate> updates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID driverId = getUuid(buffer);
+            UUID orderId = getUuid(buffer);
+            double latitude = buffer.getInt() / SCALE;
+            double longitude = buffer.getInt() / SCALE;
+            int delta = buffer.getInt();
+            updates.add(new LocationUpdate(driverId, orderId, latitude, longitude, delta == NO_TIMESTAMP ? null : base + delta));
+        }
+        List<UUID> removed = new ArrayList<>(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            removed.add(getUuid(buffer));
+        }
+        return new Frame(snapshot, updates, removed);
+    }
+
+    private static int scaled(double degrees, double limit) {
+        if (!(Math.abs(degrees) <= limit)) {
+            throw new IllegalArgumentException("Coordinate out of range: " + degrees);
+        }
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    private static int delta(long timestamp, long base) {
+        long delta = timestamp - base;
+        if (delta >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Timestamp " + timestamp + " too far from frame base " + base);
+        }
+        return (int) delta;
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid != null ? uuid.getMostSignificantBits() : 0L);
+        buffer.putLong(uuid != null ? uuid.getLeastSignificantBits() : 0L);
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+}
@@ -0,0 +1,91 @@
+package com.courier.tracking.websocket;
+
+import com.courier.tracking.dto.OutboundSessionStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Wraps every STOMP session in a {@link BoundedOutboundSession} and keeps per-session
+ * outbound stats. Drains run on virtual threads, one per busy session, and a watchdog closes
+ * sessions whose socket write has stalled past the send time limit.
+ */
+@Component
+public class OutboundSessionRegistry implements WebSocketHandlerDecoratorFactory {
+
+    private final int capacity;
+    private final long sendBufferBytes;
+    private final OverflowPolicy policy;
+    private final long sendTimeLimitMillis;
+    private final Counter droppedCounter;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, BoundedOutboundSession> sessions = new ConcurrentHashMap<>();
+
+    public OutboundSessionRegistry(@Value("${tracking.websocket.outbound.queue-capacity:256}") int capacity,
+                                   @Value("${tracking.websocket.outbound.send-buffer-kb:512}") int sendBufferKb,
+                                   @Value("${tracking.websocket.outbound.overflow-policy:CONFLATE}") OverflowPolicy policy,
+                                   @Value("${tracking.websocket.outbound.send-time-limit-ms:10000}") long sendTimeLimitMillis,
+                                   MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.sendBufferBytes = sendBufferKb * 1024L;
+        this.policy = policy;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.droppedCounter = meterRegistry.counter("tracking.ws.outbound.dropped");
+        Gauge.builder("tracking.ws.outbound.depth", sessions,
+                        s -> s.values().stream().mapToInt(BoundedOutboundSession::depth).sum())
+                .register(meterRegistry);
+        Gauge.builder("tracking.ws.outbound.conflated", sessions,
+                        s -> s.values().stream().mapToLong(BoundedOutboundSession::conflated).sum())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                BoundedOutboundSession bounded = new BoundedOutboundSession(
+                        session, capacity, sendBufferBytes, policy, sendTimeLimitMillis, executor, droppedCounter);
+                sessions.put(session.getId(), bounded);
+                super.afterConnectionEstablished(bounded);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.websocket.outbound.watchdog-ms:1000}")
+    public void closeStalledSessions() {
+        sessions.values().forEach(BoundedOutboundSession::checkSendTimeLimit);
+    }
+
+    public List<OutboundSessionStats> stats() {
+        return sessions.values().stream()
+                .map(s -> new OutboundSessionStats(s.getId(), s.depth(), s.dropped(), s.conflated(), s.sendInProgressMillis()))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
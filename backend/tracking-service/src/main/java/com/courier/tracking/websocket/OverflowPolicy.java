@@ -0,0 +1,12 @@
+package com.courier.tracking.websocket;
+
+/**
+ * What a session's outbound queue does when it is full (by frame count or queued bytes). Only position frames
+ * ({@code /topic/orders/...}) are ever dropped or conflated; when a full queue holds none,
+ * the session is closed so the client reconnects and resyncs from a snapshot.
+ */
+public enum OverflowPolicy {
+    DROP_OLDEST, // Drop the oldest queued position frame
+    CONFLATE,    // Keep only the newest position frame per subscription
+    DISCONNECT   // Close the session
+}
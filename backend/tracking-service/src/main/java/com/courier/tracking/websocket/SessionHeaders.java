@@ -0,0 +1,22 @@
+package com.courier.tracking.websocket;
+
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+
+/**
+ * Headers for {@code convertAndSendToUser} addressed to a raw STOMP session id rather than an
+ * authenticated user, so the user destination resolver routes the message to that session.
+ */
+public final class SessionHeaders {
+
+    private SessionHeaders() {
+    }
+
+    public static MessageHeaders of(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+}
@@ -0,0 +1,51 @@
+package com.courier.tracking.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterMembershipTest {
+
+    private final ClusterMembership membership = new ClusterMembership("b", 5000);
+
+    @Test
+    void firstHeartbeatJoinsAndLaterOnesRefresh() {
+        assertThat(membership.heartbeat("a", null, 1000)).isTrue();
+        assertThat(membership.heartbeat("a", null, 2000)).isFalse();
+        assertThat(membership.heartbeat("b", null, 2000)).isFalse();
+
+        assertThat(membership.members()).containsExactly("a", "b");
+    }
+
+    @Test
+    void silentPeerExpires() {
+        membership.heartbeat("a", null, 1000);
+        membership.heartbeat("c", null, 4000);
+
+        assertThat(membership.expire(6000)).isFalse();
+        assertThat(membership.expire(6001)).isTrue();
+        assertThat(membership.members()).containsExactly("b", "c");
+    }
+
+    @Test
+    void leaveRemovesPeerOnce() {
+        membership.heartbeat("a", null, 1000);
+
+        assertThat(membership.leave("a")).isTrue();
+        assertThat(membership.leave("a")).isFalse();
+        assertThat(membership.members()).containsExactly("b");
+    }
+
+    @Test
+    void keepsLatestInterestPerPeer() {
+        UUID orderId = UUID.randomUUID();
+        membership.heartbeat("a", null, 1000);
+        membership.heartbeat("a", new ClusterInterest(false, Set.of(orderId)), 2000);
+
+        assertThat(membership.peerInterests()).containsOnlyKeys("a");
+        assertThat(membership.peerInterests().get("a").orders()).containsExactly(orderId);
+    }
+}
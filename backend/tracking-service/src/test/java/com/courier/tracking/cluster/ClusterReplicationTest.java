@@ -0,0 +1,223 @@
+package com.courier.tracking.cluster;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.OrderPosition;
+import com.courier.tracking.dto.TrailPoint;
+import com.courier.tracking.history.LocationHistoryStore;
+import com.courier.tracking.service.AdminMapBroadcaster;
+import com.courier.tracking.service.DriverIndex;
+import com.courier.tracking.service.EtaService;
+import com.courier.tracking.service.GeofenceEngine;
+import com.courier.tracking.service.LocationBuffer;
+import com.courier.tracking.service.LocationFilter;
+import com.courier.tracking.service.StaleDriverEvictor;
+import com.courier.tracking.service.SubscriptionRegistry;
+import com.courier.tracking.service.TrackingService;
+import com.courier.tracking.service.TrailService;
+import com.courier.tracking.service.TripOdometer;
+import com.courier.tracking.websocket.BinaryFanout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Two tracking nodes wired over the in-JVM transport
+class ClusterReplicationTest {
+
+    private final Node nodeA = new Node("replication-a");
+    private final Node nodeB = new Node("replication-b");
+
+    @AfterEach
+    void closeTransports() {
+        nodeA.transport.close();
+        nodeB.transport.close();
+    }
+
+    @Test
+    void fixIngestedOnOwnerReachesSubscriberOnOtherNode() {
+        UUID orderId = UUID.randomUUID();
+        nodeB.subscribe(SubscriptionRegistry.ORDER_TOPIC_PREFIX + orderId);
+        heartbeats();
+        UUID driverId = driverOwnedBy(nodeA);
+
+        nodeA.trackingService.updateLocation(new LocationUpdate(driverId, orderId, 52.0, 13.0, null));
+
+        verify(nodeB.messagingTemplate).convertAndSend(eq(SubscriptionRegistry.ORDER_TOPIC_PREFIX + orderId), any(OrderPosition.class));
+        assertThat(nodeB.driverIndex.get(driverId)).isNotNull();
+    }
+
+    @Test
+    void fixIsNotReplicatedToNodeWithoutViewers() {
+        heartbeats();
+        UUID driverId = driverOwnedBy(nodeA);
+
+        nodeA.trackingService.updateLocation(new LocationUpdate(driverId, UUID.randomUUID(), 52.0, 13.0, null));
+
+        assertThat(nodeB.driverIndex.get(driverId)).isNull();
+        verify(nodeB.messagingTemplate, never()).convertAndSend(any(String.class), any(Object.class));
+    }
+
+    @Test
+    void fixIngestedOnOtherNodeIsForwardedToOwner() {
+        heartbeats();
+        UUID driverId = driverOwnedBy(nodeB);
+
+        nodeA.trackingService.updateLocation(new LocationUpdate(driverId, null, 52.0, 13.0, null));
+
+        verify(nodeB.locationBuffer).offer(driverId, 52.0, 13.0);
+        verify(nodeA.locationBuffer, never()).offer(eq(driverId), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void fixForDeadOwnerIsIngestedLocallyAndOwnerDropped() {
+        heartbeats();
+        UUID driverId = driverOwnedBy(nodeB);
+        nodeB.transport.close();
+
+        nodeA.trackingService.updateLocation(new LocationUpdate(driverId, null, 52.0, 13.0, null));
+
+        verify(nodeA.locationBuffer).offer(driverId, 52.0, 13.0);
+        assertThat(nodeA.shardRouter.members()).containsExactly(nodeA.shardRouter.nodeId());
+        assertThat(nodeA.shardRouter.owns(driverId)).isTrue();
+    }
+
+    @Test
+    void replicaIsNotRecordedInHistory() {
+        UUID orderId = UUID.randomUUID();
+        nodeB.subscribe(SubscriptionRegistry.ORDER_TOPIC_PREFIX + orderId);
+        heartbeats();
+        UUID driverId = driverOwnedBy(nodeA);
+
+        nodeA.trackingService.updateLocation(new LocationUpdate(driverId, orderId, 52.0, 13.0, null));
+
+        assertThat(nodeB.driverIndex.get(driverId)).isNotNull();
+        verify(nodeA.historyStore).append(any());
+        verify(nodeB.historyStore, never()).append(any());
+    }
+
+    @Test
+    void orderTrailIsMergedFromEveryNode() {
+        heartbeats();
+        UUID orderId = UUID.randomUUID();
+        // The driver changed owner mid-trip: each node recorded part of the trail
+        when(nodeA.historyStore.orderTrail(orderId)).thenReturn(List.of(point(1_000), point(3_000)));
+        when(nodeB.historyStore.orderTrail(orderId)).thenReturn(List.of(point(2_000), point(4_000)));
+
+        assertThat(nodeA.trailService.getOrderTrail(orderId, null, false).points())
+                .extracting(TrailPoint::timestamp).containsExactly(1_000L, 2_000L, 3_000L, 4_000L);
+    }
+
+    @Test
+    void driverTrailIsMergedFromEveryNode() {
+        heartbeats();
+        UUID driverId = UUID.randomUUID();
+        when(nodeA.historyStore.driverTrail(driverId, 0, 5_000)).thenReturn(List.of(point(1_000)));
+        when(nodeB.historyStore.driverTrail(driverId, 0, 5_000)).thenReturn(List.of(point(2_000)));
+
+        assertThat(nodeB.trailService.getDriverTrail(driverId, 0, 5_000))
+                .extracting(TrailPoint::timestamp).containsExactly(1_000L, 2_000L);
+    }
+
+    @Test
+    void trailReadDoesNotWaitPastTheTimeoutForASilentNode() {
+        heartbeats();
+        UUID orderId = UUID.randomUUID();
+        when(nodeA.historyStore.orderTrail(orderId)).thenReturn(List.of(point(1_000)));
+        // Still a member until its heartbeats time out, but no longer answering
+        nodeB.transport.close();
+
+        long start = System.currentTimeMillis();
+        List<TrailPoint> points = nodeA.trailService.getOrderTrail(orderId, null, false).points();
+
+        assertThat(points).extracting(TrailPoint::timestamp).containsExactly(1_000L);
+        assertThat(System.currentTimeMillis() - start).isBetween(200L, 2_000L);
+    }
+
+    private static TrailPoint point(long timestamp) {
+        return new TrailPoint(52.0, 13.0, timestamp);
+    }
+
+    private void heartbeats() {
+        nodeA.shardRouter.heartbeat();
+        nodeB.shardRouter.heartbeat();
+        assertThat(nodeA.shardRouter.members()).containsExactly("replication-a", "replication-b");
+        assertThat(nodeB.shardRouter.members()).containsExactly("replication-a", "replication-b");
+    }
+
+    private static UUID driverOwnedBy(Node node) {
+        UUID driverId;
+        do {
+            driverId = UUID.randomUUID();
+        } while (!node.shardRouter.owns(driverId));
+        return driverId;
+    }
+
+    private static class Node {
+
+        final LocalClusterTransport transport;
+        final ShardRouter shardRouter;
+        final SubscriptionRegistry subscriptionRegistry;
+        final DriverIndex driverIndex;
+        final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        final LocationBuffer locationBuffer = mock(LocationBuffer.class);
+        final LocationHistoryStore historyStore = mock(LocationHistoryStore.class);
+        final TrackingService trackingService;
+        final TrailService trailService;
+
+        @SuppressWarnings("unchecked")
+        Node(String nodeId) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            transport = new LocalClusterTransport(nodeId);
+            ObjectProvider<ClusterTransport> transportProvider = mock(ObjectProvider.class);
+            when(transportProvider.getIfAvailable()).thenReturn(transport);
+            shardRouter = new ShardRouter(nodeId, 64, 60_000, 200, transportProvider, event -> { });
+            subscriptionRegistry = new SubscriptionRegistry(meterRegistry);
+            driverIndex = new DriverIndex(mock(RedisTemplate.class), shardRouter, 0.01);
+            trackingService = new TrackingService(
+                    new LocationFilter(10, 30, 0.5, 30, meterRegistry),
+                    locationBuffer,
+                    driverIndex,
+                    mock(AdminMapBroadcaster.class),
+                    messagingTemplate,
+                    mock(BinaryFanout.class),
+                    historyStore,
+                    mock(StaleDriverEvictor.class),
+                    shardRouter,
+                    subscriptionRegistry,
+                    mock(GeofenceEngine.class),
+                    mock(EtaService.class),
+                    mock(TripOdometer.class),
+                    meterRegistry);
+            trackingService.joinCluster();
+            trailService = new TrailService(historyStore, shardRouter);
+        }
+
+        void subscribe(String destination) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+            accessor.setSessionId("session-" + destination);
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination(destination);
+            Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+            subscriptionRegistry.onSubscribe(new SessionSubscribeEvent(this, message));
+        }
+    }
+}
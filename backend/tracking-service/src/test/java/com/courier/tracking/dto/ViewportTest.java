@@ -0,0 +1,43 @@
+package com.courier.tracking.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ViewportTest {
+
+    @Test
+    void plainViewportIsOneBox() {
+        Viewport viewport = new Viewport(50, 10, 52, 14);
+
+        assertThat(viewport.crossesAntimeridian()).isFalse();
+        assertThat(viewport.boxes()).containsExactly(viewport);
+        assertThat(viewport.contains(51, 12)).isTrue();
+        assertThat(viewport.contains(51, 15)).isFalse();
+    }
+
+    @Test
+    void antimeridianViewportSplitsInTwo() {
+        Viewport viewport = new Viewport(-20, 170, -10, -170);
+
+        assertThat(viewport.crossesAntimeridian()).isTrue();
+        assertThat(viewport.boxes()).containsExactly(
+                new Viewport(-20, 170, -10, 180), new Viewport(-20, -180, -10, -170));
+        assertThat(viewport.contains(-15, 175)).isTrue();
+        assertThat(viewport.contains(-15, -175)).isTrue();
+        assertThat(viewport.contains(-15, 0)).isFalse();
+    }
+
+    @Test
+    void boundsAreClampedToTheGlobe() {
+        assertThat(new Viewport(-1e12, -200, 1e12, 200)).isEqualTo(new Viewport(-90, -180, 90, 180));
+    }
+
+    @Test
+    void nanOrInvertedLatitudesAreRejected() {
+        assertThatThrownBy(() -> new Viewport(Double.NaN, 10, 52, 14)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Viewport(50, 10, 52, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Viewport(52, 10, 50, 14)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.courier.tracking.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GridIndexTest {
+
+    private final GridIndex<String, String> grid = new GridIndex<>(0.01);
+
+    @Test
+    void withinReturnsOnlyEntriesInsideTheBox() {
+        grid.put("a", 52.000, 13.000, "A");
+        grid.put("b", 52.050, 13.050, "B");
+        grid.put("c", 53.000, 14.000, "C");
+
+        List<GridIndex.Entry<String, String>> result = grid.within(51.99, 12.99, 52.06, 13.06);
+
+        assertThat(result).extracting(GridIndex.Entry::key).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void putMovesKeyBetweenCells() {
+        grid.put("a", 52.000, 13.000, "A");
+        grid.put("a", 48.000, 11.000, "A2");
+
+        assertThat(grid.size()).isEqualTo(1);
+        assertThat(grid.within(51.99, 12.99, 52.01, 13.01)).isEmpty();
+        assertThat(grid.within(47.99, 10.99, 48.01, 11.01))
+                .extracting(GridIndex.Entry::value).containsExactly("A2");
+    }
+
+    @Test
+    void removeClearsEntryAndCell() {
+        grid.put("a", 52.000, 13.000, "A");
+
+        assertThat(grid.remove("a")).isNotNull();
+        assertThat(grid.get("a")).isNull();
+        assertThat(grid.within(51.99, 12.99, 52.01, 13.01)).isEmpty();
+        assertThat(grid.remove("a")).isNull();
+    }
+
+    @Test
+    void putIfAbsentKeepsExistingEntry() {
+        grid.put("a", 52.000, 13.000, "live");
+
+        assertThat(grid.putIfAbsent("a", 48.000, 11.000, "stale")).isFalse();
+        assertThat(grid.get("a").value()).isEqualTo("live");
+        assertThat(grid.within(47.99, 10.99, 48.01, 11.01)).isEmpty();
+
+        assertThat(grid.putIfAbsent("b", 48.000, 11.000, "seeded")).isTrue();
+        assertThat(grid.within(47.99, 10.99, 48.01, 11.01))
+                .extracting(GridIndex.Entry::key).containsExactly("b");
+    }
+
+    @Test
+    void largeBoxFallsBackToFlatScan() {
+        grid.put("a", 10.0, 10.0, "A");
+        grid.put("b", -10.0, -10.0, "B");
+
+        assertThat(grid.within(-90, -180, 90, 180)).hasSize(2);
+    }
+
+    @Test
+    void outOfRangeBoxIsClampedToTheGrid() {
+        grid.put("a", 89.995, 179.995, "A");
+        grid.put("b", 0.0, 0.0, "B");
+
+        assertThat(grid.within(89.99, 179.99, 1e12, 1e12))
+                .extracting(GridIndex.Entry::key).containsExactly("a");
+        assertThat(grid.within(-1e12, -1e12, 1e12, 1e12)).hasSize(2);
+    }
+
+    @Test
+    void invertedOrNaNBoxMatchesNothing() {
+        grid.put("a", 0.0, 0.0, "A");
+
+        assertThat(grid.within(1, -1, -1, 1)).isEmpty();
+        assertThat(grid.within(Double.NaN, -1, 1, 1)).isEmpty();
+    }
+}
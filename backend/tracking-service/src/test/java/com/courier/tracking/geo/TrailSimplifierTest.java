@@ -0,0 +1,42 @@
+package com.courier.tracking.geo;
+
+import com.courier.tracking.dto.TrailPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrailSimplifierTest {
+
+    @Test
+    void collinearPointsCollapseToEndpoints() {
+        List<TrailPoint> line = new ArrayList<>();
+        for (int i = 0; i <= 10; i++) {
+            line.add(new TrailPoint(52.0 + i * 0.001, 13.0, i));
+        }
+
+        assertThat(TrailSimplifier.douglasPeucker(line, 1)).containsExactly(line.get(0), line.get(10));
+    }
+
+    @Test
+    void cornerBeyondToleranceIsKept() {
+        TrailPoint start = new TrailPoint(52.0, 13.0, 0);
+        TrailPoint corner = new TrailPoint(52.01, 13.0, 1);   // ~1.1 km north
+        TrailPoint end = new TrailPoint(52.01, 13.02, 2);     // then ~1.4 km east
+        List<TrailPoint> trail = List.of(start, corner, end);
+
+        assertThat(TrailSimplifier.douglasPeucker(trail, 50)).containsExactly(start, corner, end);
+        assertThat(TrailSimplifier.douglasPeucker(trail, 5000)).containsExactly(start, end);
+    }
+
+    @Test
+    void shortTrailsAndNonPositiveToleranceAreReturnedAsIs() {
+        List<TrailPoint> two = List.of(new TrailPoint(1, 1, 0), new TrailPoint(2, 2, 1));
+        List<TrailPoint> three = List.of(new TrailPoint(1, 1, 0), new TrailPoint(1.5, 1.6, 1), new TrailPoint(2, 2, 2));
+
+        assertThat(TrailSimplifier.douglasPeucker(two, 10)).isSameAs(two);
+        assertThat(TrailSimplifier.douglasPeucker(three, 0)).isSameAs(three);
+    }
+}
@@ -0,0 +1,129 @@
+package com.courier.tracking.history;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.TrailPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistorySegmentTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("history-segment");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void collectsOnlyTheRequestedDriverAndOrder() throws IOException {
+        UUID driver = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        UUID order = UUID.randomUUID();
+        HistorySegment segment = HistorySegment.create(directory.resolve("1000.seg"), 1000, 64 * 1024);
+        segment.append(new LocationUpdate(driver, order, 52.0, 13.0, 1000L), 1000);
+        segment.append(new LocationUpdate(other, null, 48.0, 11.0, 1001L), 1001);
+        segment.append(new LocationUpdate(driver, null, 52.1, 13.1, 1002L), 1002);
+
+        List<TrailPoint> byDriver = new ArrayList<>();
+        segment.collectByDriver(driver, 1001, 2000, byDriver);
+        List<TrailPoint> byOrder = new ArrayList<>();
+        segment.collectByOrder(order, byOrder);
+
+        assertThat(byDriver).containsExactly(new TrailPoint(52.1, 13.1, 1002));
+        assertThat(byOrder).containsExactly(new TrailPoint(52.0, 13.0, 1000));
+        assertThat(segment.hasDriver(other)).isTrue();
+        assertThat(segment.hasOrder(UUID.randomUUID())).isFalse();
+    }
+
+    @Test
+    void recoverRebuildsIndexesAndTimeRange() throws IOException {
+        UUID driver = UUID.randomUUID();
+        Path path = directory.resolve("5000.seg");
+        HistorySegment segment = HistorySegment.create(path, 5000, 64 * 1024);
+        for (int i = 0; i < 100; i++) {
+            segment.append(new LocationUpdate(driver, null, 10, 10, null), 4000 + i);
+        }
+        segment.force();
+
+        HistorySegment recovered = HistorySegment.recover(path, 5000);
+        List<TrailPoint> points = new ArrayList<>();
+        recovered.collectByDriver(driver, Long.MIN_VALUE, Long.MAX_VALUE, points);
+
+        assertThat(recovered.recordCount()).isEqualTo(100);
+        assertThat(points).hasSize(100);
+        assertThat(recovered.firstMillis()).isEqualTo(4000);
+        assertThat(Files.size(path)).isEqualTo(100L * HistorySegment.RECORD_BYTES);
+    }
+
+    @Test
+    void sealedSegmentIsQueriedThroughItsIndexFile() throws IOException {
+        UUID driver = UUID.randomUUID();
+        UUID order = UUID.randomUUID();
+        Path path = directory.resolve("2000.seg");
+        HistorySegment segment = HistorySegment.create(path, 2000, 64 * 1024);
+        for (int i = 0; i < 50; i++) {
+            segment.append(new LocationUpdate(UUID.randomUUID(), null, 48.0, 11.0, null), 2000 + i);
+            segment.append(new LocationUpdate(driver, i < 10 ? order : null, 52.0, 13.0, null), 2000 + i);
+        }
+        segment.seal();
+
+        List<TrailPoint> byDriver = new ArrayList<>();
+        segment.collectByDriver(driver, 2040, 2100, byDriver);
+        List<TrailPoint> byOrder = new ArrayList<>();
+        segment.collectByOrder(order, byOrder);
+
+        assertThat(Files.exists(SegmentIndex.pathFor(path))).isTrue();
+        assertThat(byDriver).extracting(TrailPoint::timestamp).containsExactly(2040L, 2041L, 2042L, 2043L,
+                2044L, 2045L, 2046L, 2047L, 2048L, 2049L);
+        assertThat(byOrder).hasSize(10);
+        assertThat(segment.hasDriver(driver)).isTrue();
+        assertThat(segment.hasDriver(UUID.randomUUID())).isFalse();
+        assertThat(segment.hasOrder(order)).isTrue();
+
+        segment.delete();
+        assertThat(Files.exists(SegmentIndex.pathFor(path))).isFalse();
+    }
+
+    @Test
+    void recoverOpensPersistedIndexAndRebuildsTornOne() throws IOException {
+        UUID driver = UUID.randomUUID();
+        Path path = directory.resolve("3000.seg");
+        HistorySegment segment = HistorySegment.create(path, 3000, 64 * 1024);
+        for (int i = 0; i < 20; i++) {
+            segment.append(new LocationUpdate(driver, null, 10, 10, null), 2900 + i);
+        }
+        segment.seal();
+
+        HistorySegment reopened = HistorySegment.recover(path, 3000);
+        List<TrailPoint> points = new ArrayList<>();
+        reopened.collectByDriver(driver, Long.MIN_VALUE, Long.MAX_VALUE, points);
+        assertThat(points).hasSize(20);
+        assertThat(reopened.firstMillis()).isEqualTo(2900);
+        assertThat(reopened.lastMillis()).isEqualTo(3000);
+
+        Path index = SegmentIndex.pathFor(path);
+        Files.write(index, Arrays.copyOf(Files.readAllBytes(index), 50));
+        HistorySegment rebuilt = HistorySegment.recover(path, 3000);
+        points.clear();
+        rebuilt.collectByDriver(driver, Long.MIN_VALUE, Long.MAX_VALUE, points);
+        assertThat(points).hasSize(20);
+        assertThat(SegmentIndex.open(index, 20 * HistorySegment.RECORD_BYTES)).isNotNull();
+    }
+}
@@ -0,0 +1,66 @@
+package com.courier.tracking.history;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.TrailPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationHistoryStoreTest {
+
+    private Path directory;
+    private LocationHistoryStore store;
+
+    @BeforeEach
+    void start() throws IOException {
+        directory = Files.createTempDirectory("history-store");
+        store = new LocationHistoryStore(directory.toString(), 60, 4096, 168, 1000, new SimpleMeterRegistry());
+        store.start();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        store.stop();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    void segmentSizeAbove2GbDoesNotOverflow() {
+        // 4096 MB used to overflow int to 0; the segment is capped at the largest mappable size
+        UUID driver = UUID.randomUUID();
+        store.append(new LocationUpdate(driver, null, 1, 1, System.currentTimeMillis()));
+
+        assertThat(awaitTrail(driver, 0, Long.MAX_VALUE, 1)).hasSize(1);
+    }
+
+    @Test
+    void driverTrailFindsFixesWhoseClientClockLagsTheServer() {
+        UUID driver = UUID.randomUUID();
+        long skewed = System.currentTimeMillis() - 2 * 60 * 60 * 1000; // Client clock two hours behind
+        store.append(new LocationUpdate(driver, null, 52.0, 13.0, skewed));
+
+        List<TrailPoint> trail = awaitTrail(driver, skewed - 1000, skewed + 1000, 1);
+
+        assertThat(trail).extracting(TrailPoint::timestamp).containsExactly(skewed);
+    }
+
+    private List<TrailPoint> awaitTrail(UUID driver, long from, long to, int expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<TrailPoint> trail = store.driverTrail(driver, from, to);
+        while (trail.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+            trail = store.driverTrail(driver, from, to);
+        }
+        return trail;
+    }
+}
@@ -0,0 +1,80 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.MapFrame;
+import com.courier.tracking.dto.Viewport;
+import com.courier.tracking.websocket.BinaryFanout;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AdminMapBroadcasterTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final DriverIndex driverIndex = new DriverIndex(mock(RedisTemplate.class), mock(ShardRouter.class), 0.01);
+    private final ViewportRegistry viewportRegistry = new ViewportRegistry();
+    private final AdminMapBroadcaster broadcaster = new AdminMapBroadcaster(
+            messagingTemplate, driverIndex, viewportRegistry, mock(BinaryFanout.class), 0.01);
+
+    @Test
+    void removedDriverIsOnlyReportedToViewportsThatShowedIt() {
+        UUID driverId = UUID.randomUUID();
+        LocationUpdate fix = new LocationUpdate(driverId, null, 52.0, 13.0, null);
+        driverIndex.update(fix);
+        broadcaster.record(fix);
+        broadcaster.tick();
+
+        viewportRegistry.register("berlin", new Viewport(51.9, 12.9, 52.1, 13.1));
+        viewportRegistry.register("munich", new Viewport(48.0, 11.0, 48.3, 11.8));
+        broadcaster.remove(driverId);
+        driverIndex.remove(driverId);
+        broadcaster.tick();
+
+        ArgumentCaptor<MapFrame> frame = ArgumentCaptor.forClass(MapFrame.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("berlin"), eq(AdminMapBroadcaster.VIEWPORT_QUEUE),
+                frame.capture(), any(MessageHeaders.class));
+        assertThat(frame.getValue().removed()).containsExactly(driverId);
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("munich"), any(), any(), any(MessageHeaders.class));
+    }
+
+    @Test
+    void viewportAcrossAntimeridianSeesDriversOnBothSides() {
+        UUID east = UUID.randomUUID();
+        UUID west = UUID.randomUUID();
+        viewportRegistry.register("pacific", new Viewport(-20, 170, -10, -170));
+        broadcaster.record(new LocationUpdate(east, null, -15, 175, null));
+        broadcaster.record(new LocationUpdate(west, null, -15, -175, null));
+        broadcaster.tick();
+
+        ArgumentCaptor<MapFrame> frame = ArgumentCaptor.forClass(MapFrame.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("pacific"), eq(AdminMapBroadcaster.VIEWPORT_QUEUE),
+                frame.capture(), any(MessageHeaders.class));
+        assertThat(frame.getValue().drivers()).extracting(LocationUpdate::driverId)
+                .containsExactlyInAnyOrder(east, west);
+    }
+
+    @Test
+    void globalFrameStillListsEveryRemovedDriver() {
+        UUID driverId = UUID.randomUUID();
+        broadcaster.remove(driverId);
+        broadcaster.tick();
+
+        ArgumentCaptor<MapFrame> frame = ArgumentCaptor.forClass(MapFrame.class);
+        verify(messagingTemplate).convertAndSend(eq(AdminMapBroadcaster.ADMIN_MAP_TOPIC), frame.capture());
+        assertThat(frame.getValue().removed()).isEqualTo(List.of(driverId));
+    }
+}
@@ -0,0 +1,102 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.NearbyDriver;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.GeoOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.domain.geo.BoundingBox;
+import org.springframework.data.redis.domain.geo.GeoReference;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DriverIndexTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final DriverIndex index = new DriverIndex(redisTemplate, shardRouter, 0.01);
+
+    @Test
+    void nearbyIsSortedByDistanceAndLimited() {
+        UUID near = UUID.randomUUID();
+        UUID mid = UUID.randomUUID();
+        UUID far = UUID.randomUUID();
+        index.update(new LocationUpdate(far, null, 52.020, 13.0, null));
+        index.update(new LocationUpdate(near, null, 52.001, 13.0, null));
+        index.update(new LocationUpdate(mid, null, 52.010, 13.0, null));
+
+        List<NearbyDriver> result = index.nearby(52.0, 13.0, 5000, 2);
+
+        assertThat(result).extracting(NearbyDriver::driverId).containsExactly(near, mid);
+    }
+
+    @Test
+    void nearbyExcludesDriversOutsideRadius() {
+        index.update(new LocationUpdate(UUID.randomUUID(), null, 52.1, 13.0, null));
+
+        assertThat(index.nearby(52.0, 13.0, 1000, 10)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildSeedsOnlyDriversWithoutLiveFix() {
+        UUID live = UUID.randomUUID();
+        UUID stored = UUID.randomUUID();
+        ZSetOperations<String, String> zset = mock(ZSetOperations.class);
+        GeoOperations<String, String> geo = mock(GeoOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zset);
+        when(redisTemplate.opsForGeo()).thenReturn(geo);
+        when(zset.range(TrackingService.GEO_KEY, 0, -1))
+                .thenReturn(new LinkedHashSet<>(List.of(live.toString(), stored.toString())));
+        when(geo.position(eq(TrackingService.GEO_KEY), any(String[].class)))
+                .thenReturn(List.of(new Point(11.0, 48.0), new Point(13.0, 52.0)));
+
+        index.update(new LocationUpdate(live, null, 50.0, 10.0, null));
+        List<UUID> seeded = index.rebuildFromRedis(driverId -> true);
+
+        assertThat(seeded).containsExactly(stored);
+        assertThat(index.get(live).latitude()).isEqualTo(50.0);
+        assertThat(index.get(stored).latitude()).isEqualTo(52.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clusteredBoxQueryReadsRedisAndFiltersExactly() {
+        UUID inside = UUID.randomUUID();
+        UUID corner = UUID.randomUUID();
+        UUID orderId = UUID.randomUUID();
+        GeoOperations<String, String> geo = mock(GeoOperations.class);
+        when(shardRouter.isClustered()).thenReturn(true);
+        when(redisTemplate.opsForGeo()).thenReturn(geo);
+        when(geo.search(eq(TrackingService.GEO_KEY), any(GeoReference.class), any(BoundingBox.class),
+                any(RedisGeoCommands.GeoSearchCommandArgs.class)))
+                .thenReturn(new GeoResults<>(List.of(
+                        new GeoResult<>(new RedisGeoCommands.GeoLocation<>(inside.toString(), new Point(13.05, 52.05)), new Distance(0)),
+                        new GeoResult<>(new RedisGeoCommands.GeoLocation<>(corner.toString(), new Point(13.2, 52.05)), new Distance(0)))));
+        index.update(new LocationUpdate(inside, orderId, 52.0, 13.0, null));
+
+        List<LocationUpdate> result = index.within(52.0, 13.0, 52.1, 13.1, 10);
+
+        assertThat(result).singleElement().satisfies(update -> {
+            assertThat(update.driverId()).isEqualTo(inside);
+            assertThat(update.orderId()).isEqualTo(orderId);
+            assertThat(update.latitude()).isEqualTo(52.05);
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.Eta;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.eta.Router;
+import com.courier.tracking.eta.StraightLineRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EtaServiceTest {
+
+    private final Router router = spy(new StraightLineRouter(1.0, 36));
+    private final GeofenceEngine geofenceEngine = mock(GeofenceEngine.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EtaService etaService = new EtaService(router, geofenceEngine, 0.005, 300, 100, meterRegistry);
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID driverId = UUID.randomUUID();
+
+    @Test
+    void etaInsideTargetCellIsExactAndTracksMovement() {
+        target(GeofenceEngine.Kind.PICKUP, 52.0021, 13.0021);
+
+        Eta far = etaService.etaFor(fix(52.0001, 13.0001));
+        Eta near = etaService.etaFor(fix(52.0011, 13.0011));
+
+        assertThat(far.distanceMeters()).isGreaterThan(near.distanceMeters());
+        assertThat(near.distanceMeters()).isPositive();
+        assertThat(near.durationSeconds()).isPositive();
+    }
+
+    @Test
+    void etaIsReusedWithinCellAndRouteIsCachedAcrossCells() {
+        target(GeofenceEngine.Kind.DELIVERY, 52.1, 13.1);
+
+        etaService.etaFor(fix(52.0001, 13.0001));
+        etaService.etaFor(fix(52.0002, 13.0002));
+        etaService.etaFor(fix(52.0061, 13.0001));
+        etaService.etaFor(fix(52.0001, 13.0001));
+
+        verify(router, times(2)).route(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        assertThat(meterRegistry.counter("tracking.eta.cache.hits").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("tracking.eta.recomputed").count()).isEqualTo(3);
+    }
+
+    @Test
+    void newTargetRecomputesInSameCell() {
+        target(GeofenceEngine.Kind.PICKUP, 52.05, 13.05);
+        Eta pickup = etaService.etaFor(fix(52.0001, 13.0001));
+
+        target(GeofenceEngine.Kind.DELIVERY, 52.1, 13.1);
+        Eta delivery = etaService.etaFor(fix(52.0001, 13.0001));
+
+        assertThat(pickup.target()).isEqualTo("PICKUP");
+        assertThat(delivery.target()).isEqualTo("DELIVERY");
+        assertThat(delivery.distanceMeters()).isGreaterThan(pickup.distanceMeters());
+    }
+
+    @Test
+    void noTargetMeansNoEta() {
+        assertThat(etaService.etaFor(fix(52.0, 13.0))).isNull();
+    }
+
+    private void target(GeofenceEngine.Kind kind, double latitude, double longitude) {
+        when(geofenceEngine.nextTarget(orderId)).thenReturn(new GeofenceEngine.Target(kind, latitude, longitude));
+    }
+
+    private LocationUpdate fix(double latitude, double longitude) {
+        return new LocationUpdate(driverId, orderId, latitude, longitude, null);
+    }
+}
@@ -0,0 +1,130 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.dto.LocationUpdate;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latency of {@link DriverIndex#nearby} and {@link DriverIndex#within} answered by the in-memory
+ * grid (single node) versus Redis GEORADIUS/GEOSEARCH BYBOX on the driver_locations set (cluster
+ * mode), for 10k and 100k drivers spread over a city. Both paths run the same queries through the
+ * same {@link DriverIndex}. Needs a Redis ({@code localhost:6379} by default, or
+ * {@code -Dbenchmark.redis.host/port/database}); the set is written to database 15 unless told
+ * otherwise and deleted afterwards. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class GeoSearchBenchmark {
+
+    private static final int[] DRIVERS = {10_000, 100_000};
+    private static final double MIN_LAT = 52.35;
+    private static final double MAX_LAT = 52.65;
+    private static final double MIN_LON = 13.10;
+    private static final double MAX_LON = 13.70;
+    private static final double RADIUS_METERS = 2_000;
+    // Roughly a phone screen of the admin map at street zoom
+    private static final double VIEW_LAT = 0.03;
+    private static final double VIEW_LON = 0.05;
+    private static final int LIMIT = 500;
+    private static final int WARMUP_QUERIES = 500;
+    private static final int QUERIES = 2_000;
+    private static final int WRITE_CHUNK = 1_000;
+
+    @Test
+    void gridVersusRedisGeoSearch() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getProperty("benchmark.redis.host", "localhost"),
+                Integer.getInteger("benchmark.redis.port", 6379));
+        configuration.setDatabase(Integer.getInteger("benchmark.redis.database", 15));
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        try {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.ping();
+            } catch (DataAccessException e) {
+                Assumptions.abort("No Redis available: " + e.getMessage());
+            }
+            RedisTemplate<String, String> redisTemplate = new RedisTemplate<>();
+            redisTemplate.setConnectionFactory(connectionFactory);
+            redisTemplate.setKeySerializer(new StringRedisSerializer());
+            redisTemplate.setValueSerializer(new StringRedisSerializer());
+            redisTemplate.afterPropertiesSet();
+            try {
+                for (int drivers : DRIVERS) {
+                    run(redisTemplate, drivers);
+                }
+            } finally {
+                redisTemplate.delete(TrackingService.GEO_KEY);
+            }
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private static void run(RedisTemplate<String, String> redisTemplate, int drivers) {
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        DriverIndex index = new DriverIndex(redisTemplate, shardRouter, 0.01);
+        redisTemplate.delete(TrackingService.GEO_KEY);
+
+        Random random = new Random(42);
+        Map<String, Point> chunk = new HashMap<>();
+        for (int i = 0; i < drivers; i++) {
+            LocationUpdate update = new LocationUpdate(UUID.randomUUID(), null,
+                    between(random, MIN_LAT, MAX_LAT), between(random, MIN_LON, MAX_LON), null);
+            index.update(update);
+            chunk.put(update.driverId().toString(), new Point(update.longitude(), update.latitude()));
+            if (chunk.size() == WRITE_CHUNK || i == drivers - 1) {
+                redisTemplate.opsForGeo().add(TrackingService.GEO_KEY, chunk);
+                chunk.clear();
+            }
+        }
+
+        double[][] centers = new double[WARMUP_QUERIES + QUERIES][];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = new double[]{between(random, MIN_LAT, MAX_LAT), between(random, MIN_LON, MAX_LON)};
+        }
+        ToIntFunction<double[]> nearby = center -> index.nearby(center[0], center[1], RADIUS_METERS, LIMIT).size();
+        ToIntFunction<double[]> within = center -> index.within(center[0] - VIEW_LAT / 2, center[1] - VIEW_LON / 2,
+                center[0] + VIEW_LAT / 2, center[1] + VIEW_LON / 2, LIMIT).size();
+
+        for (boolean clustered : new boolean[]{false, true}) {
+            when(shardRouter.isClustered()).thenReturn(clustered);
+            System.out.printf("%,d drivers, %s: nearby %s | within %s%n", drivers,
+                    clustered ? "Redis GEO" : "in-memory grid", measure(nearby, centers), measure(within, centers));
+        }
+    }
+
+    private static String measure(ToIntFunction<double[]> query, double[][] centers) {
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            query.applyAsInt(centers[i]);
+        }
+        long found = 0;
+        long start = System.nanoTime();
+        for (int i = WARMUP_QUERIES; i < centers.length; i++) {
+            found += query.applyAsInt(centers[i]);
+        }
+        long micros = (System.nanoTime() - start) / 1_000 / QUERIES;
+        return String.format("%d us/query, %d drivers/query", micros, found / QUERIES);
+    }
+
+    private static double between(Random random, double from, double to) {
+        return from + random.nextDouble() * (to - from);
+    }
+}
@@ -0,0 +1,137 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.config.RabbitMQConfig;
+import com.courier.tracking.dto.FenceSpec;
+import com.courier.tracking.dto.GeofenceEvent;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.OrderGeofences;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class GeofenceEngineTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID driverId = UUID.randomUUID();
+
+    GeofenceEngineTest() {
+        when(redisTemplate.opsForHash()).thenReturn(hash);
+    }
+
+    @Test
+    void assignmentFencesPickupAndArrivalIsPublished() {
+        GeofenceEngine engine = engine(24);
+
+        engine.onAssigned(orderId, driverId, new FenceSpec(52.0, 13.0, null), null);
+        engine.check(new LocationUpdate(driverId, orderId, 52.0001, 13.0, null));
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.TRACKING_EXCHANGE),
+                eq(RabbitMQConfig.GEOFENCE_ENTERED_ROUTING_KEY), event.capture());
+        assertThat(((GeofenceEvent) event.getValue()).fence()).isEqualTo("PICKUP");
+        verify(hash).put(eq(GeofenceEngine.REDIS_KEY), eq(orderId.toString()), anyString());
+    }
+
+    @Test
+    void assignmentWithoutCoordinatesRegistersNothing() {
+        GeofenceEngine engine = engine(24);
+
+        engine.onAssigned(orderId, driverId, null, null);
+
+        assertThat(engine.nextTarget(orderId)).isNull();
+        verifyNoInteractions(hash);
+    }
+
+    @Test
+    void explicitlyRegisteredFenceIsKeptOnAssignment() {
+        GeofenceEngine engine = engine(24);
+        engine.register(orderId, new OrderGeofences(null, new FenceSpec(52.5, 13.5, 50.0), null));
+
+        engine.onAssigned(orderId, driverId, new FenceSpec(52.0, 13.0, null), null);
+
+        assertThat(engine.nextTarget(orderId).latitude()).isEqualTo(52.5);
+    }
+
+    @Test
+    void pickupMovesTargetToDeliveryAndDeliveryClearsFences() {
+        GeofenceEngine engine = engine(24);
+        engine.onAssigned(orderId, driverId, new FenceSpec(52.0, 13.0, null), new FenceSpec(52.1, 13.1, null));
+
+        assertThat(engine.nextTarget(orderId).kind()).isEqualTo(GeofenceEngine.Kind.PICKUP);
+        engine.onOrderStatus(orderId, driverId, "PICKED_UP");
+        assertThat(engine.nextTarget(orderId).kind()).isEqualTo(GeofenceEngine.Kind.DELIVERY);
+        engine.onOrderStatus(orderId, driverId, "DELIVERED");
+        assertThat(engine.nextTarget(orderId)).isNull();
+        verify(hash).delete(GeofenceEngine.REDIS_KEY, orderId.toString());
+    }
+
+    @Test
+    void statusOfUnfencedOrderDoesNotTouchRedis() {
+        engine(24).onOrderStatus(orderId, driverId, "DELIVERED");
+
+        verifyNoInteractions(hash);
+    }
+
+    @Test
+    void storedFencesSurviveRestartAndExpiredOnesAreDropped() throws Exception {
+        UUID expiredOrder = UUID.randomUUID();
+        long future = System.currentTimeMillis() + 60_000;
+        when(hash.entries(GeofenceEngine.REDIS_KEY)).thenReturn(Map.of(
+                orderId.toString(), stored(driverId, future),
+                expiredOrder.toString(), stored(driverId, System.currentTimeMillis() - 1)));
+        GeofenceEngine engine = engine(24);
+
+        engine.loadFromRedis();
+
+        assertThat(engine.nextTarget(orderId)).isEqualTo(new GeofenceEngine.Target(GeofenceEngine.Kind.PICKUP, 52.0, 13.0));
+        assertThat(engine.nextTarget(expiredOrder)).isNull();
+        verify(hash).delete(GeofenceEngine.REDIS_KEY, expiredOrder.toString());
+    }
+
+    @Test
+    void fencesExpireAfterTtl() {
+        GeofenceEngine engine = engine(0);
+        engine.onAssigned(orderId, driverId, new FenceSpec(52.0, 13.0, null), null);
+
+        engine.dropExpired();
+
+        assertThat(engine.nextTarget(orderId)).isNull();
+        verify(hash).delete(GeofenceEngine.REDIS_KEY, orderId.toString());
+        engine.check(new LocationUpdate(driverId, orderId, 52.0, 13.0, null));
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
+    private GeofenceEngine engine(long ttlHours) {
+        return new GeofenceEngine(rabbitTemplate, redisTemplate, objectMapper, mock(ShardRouter.class),
+                100, 500, ttlHours, 0.01, new SimpleMeterRegistry());
+    }
+
+    private String stored(UUID driverId, long expiresAt) {
+        return "{\"driverId\":\"" + driverId + "\",\"pickup\":{\"latitude\":52.0,\"longitude\":13.0,\"radiusMeters\":100.0},"
+                + "\"delivery\":null,\"expiresAt\":" + expiresAt + "}";
+    }
+}
@@ -0,0 +1,93 @@
+package com.courier.tracking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.GeoOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LocationBufferTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final GeoOperations<String, String> geo = mock(GeoOperations.class);
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> zset = mock(ZSetOperations.class);
+    private final LocationBuffer buffer = new LocationBuffer(redisTemplate, new SimpleMeterRegistry());
+
+    LocationBufferTest() {
+        when(redisTemplate.opsForGeo()).thenReturn(geo);
+        when(redisTemplate.opsForZSet()).thenReturn(zset);
+    }
+
+    @Test
+    void flushWritesLatestPositionOncePerDriver() {
+        UUID driver = UUID.randomUUID();
+        buffer.offer(driver, 52.0, 13.0);
+        buffer.offer(driver, 52.1, 13.1);
+
+        buffer.flush();
+        buffer.flush();
+
+        verify(geo).add(eq(TrackingService.GEO_KEY), anyMap());
+    }
+
+    @Test
+    void removalDuringFlushIsAppliedAfterTheInFlightGeoadd() throws Exception {
+        UUID driver = UUID.randomUUID();
+        CountDownLatch geoaddStarted = new CountDownLatch(1);
+        CountDownLatch releaseGeoadd = new CountDownLatch(1);
+        when(geo.add(eq(TrackingService.GEO_KEY), anyMap())).thenAnswer(invocation -> {
+            geoaddStarted.countDown();
+            releaseGeoadd.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+        buffer.offer(driver, 52.0, 13.0);
+
+        Thread flusher = new Thread(buffer::flush);
+        flusher.start();
+        assertThat(geoaddStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread evictor = new Thread(() -> buffer.remove(List.of(driver), 500));
+        evictor.start();
+        evictor.join(200);
+        assertThat(evictor.isAlive()).isTrue(); // Waits for the in-flight flush
+        verify(zset, never()).remove(any(), any(Object[].class));
+
+        releaseGeoadd.countDown();
+        flusher.join(5000);
+        evictor.join(5000);
+
+        InOrder order = inOrder(geo, zset);
+        order.verify(geo).add(eq(TrackingService.GEO_KEY), anyMap());
+        order.verify(zset).remove(TrackingService.GEO_KEY, (Object[]) new String[]{driver.toString()});
+    }
+
+    @Test
+    void removeDropsPendingPosition() {
+        UUID driver = UUID.randomUUID();
+        buffer.offer(driver, 52.0, 13.0);
+
+        buffer.remove(List.of(driver), 500);
+        buffer.flush();
+
+        verify(geo, never()).add(any(), any(Map.class));
+    }
+}
@@ -0,0 +1,52 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.LocationUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationFilterTest {
+
+    private final LocationFilter filter = new LocationFilter(10, 30, 0.5, 30, new SimpleMeterRegistry());
+    private final UUID driver = UUID.randomUUID();
+
+    @Test
+    void dropsOutOfOrderFixes() {
+        assertThat(filter.advanceFixTime(fix(52.0, 13.0, 2000L))).isTrue();
+        assertThat(filter.advanceFixTime(fix(52.0, 13.0, 1000L))).isFalse();
+        assertThat(filter.advanceFixTime(fix(52.0, 13.0, 2000L))).isFalse();
+        assertThat(filter.advanceFixTime(fix(52.0, 13.0, null))).isTrue();
+    }
+
+    @Test
+    void forgetResetsFixTimeSoARestartedClientIsAccepted() {
+        filter.advanceFixTime(fix(52.0, 13.0, 5000L));
+
+        filter.forget(driver);
+
+        assertThat(filter.advanceFixTime(fix(52.0, 13.0, 1000L))).isTrue();
+    }
+
+    @Test
+    void suppressesSmallMovesUntilHeartbeat() {
+        assertThat(filter.apply(fix(52.0, 13.0, 0L))).isNotNull();
+        assertThat(filter.apply(fix(52.00001, 13.0, 1000L))).isNull();
+        assertThat(filter.apply(fix(52.00001, 13.0, 31_000L))).isNotNull();
+    }
+
+    @Test
+    void smoothsMovesInsideJitterRadius() {
+        filter.apply(fix(52.0, 13.0, 0L));
+
+        LocationUpdate smoothed = filter.apply(fix(52.0002, 13.0, 1000L)); // ~22 m
+
+        assertThat(smoothed.latitude()).isBetween(52.00009, 52.00011);
+    }
+
+    private LocationUpdate fix(double latitude, double longitude, Long timestamp) {
+        return new LocationUpdate(driver, null, latitude, longitude, timestamp);
+    }
+}
@@ -0,0 +1,119 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.ReportingAdvice;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportingIntervalAdvisorTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SubscriptionRegistry subscriptionRegistry = mock(SubscriptionRegistry.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final ReportingIntervalAdvisor advisor = new ReportingIntervalAdvisor(subscriptionRegistry, messagingTemplate,
+            2000, 10_000, 30_000, 60_000, 1.0, 100, 0.7, 4, meterRegistry);
+    private final UUID driverId = UUID.randomUUID();
+    private final UUID orderId = UUID.randomUUID();
+
+    @Test
+    void stationaryDriverReportsSlowest() {
+        advisor.advise(fix(52.0, 13.0, T0));
+
+        assertThat(advisor.advise(fix(52.0, 13.0, T0 + 10_000)).reportIntervalMs()).isEqualTo(30_000);
+    }
+
+    @Test
+    void movingDriverReportsFasterAndWatchedFastest() {
+        advisor.advise(fix(52.0, 13.0, T0));
+        assertThat(advisor.advise(fix(52.001, 13.0, T0 + 10_000)).reportIntervalMs()).isEqualTo(10_000);
+
+        when(subscriptionRegistry.isWatched(orderId)).thenReturn(true);
+        assertThat(advisor.advise(fix(52.002, 13.0, T0 + 20_000)).reportIntervalMs()).isEqualTo(2000);
+    }
+
+    @Test
+    void watchedStationaryDriverReportsAtMovingRate() {
+        when(subscriptionRegistry.isWatched(orderId)).thenReturn(true);
+
+        assertThat(advisor.advise(fix(52.0, 13.0, T0)).reportIntervalMs()).isEqualTo(10_000);
+    }
+
+    @Test
+    void intervalsStretchWithLoadUpToMaximum() {
+        advisor.sampleLoad(T0);
+        meterRegistry.counter("tracking.updates.received").increment(140);
+        advisor.sampleLoad(T0 + 1000);
+
+        // Smoothed rate 70/s is exactly the threshold: no stretching yet
+        assertThat(advisor.advise(fix(52.0, 13.0, T0)).reportIntervalMs()).isEqualTo(30_000);
+
+        meterRegistry.counter("tracking.updates.received").increment(1_000_000);
+        advisor.sampleLoad(T0 + 2000);
+
+        when(subscriptionRegistry.isWatched(orderId)).thenReturn(true);
+        assertThat(advisor.advise(fix(52.001, 13.0, T0 + 10_000)).reportIntervalMs()).isEqualTo(8000);
+        when(subscriptionRegistry.isWatched(orderId)).thenReturn(false);
+        assertThat(advisor.advise(fix(52.001, 13.0, T0 + 20_000)).reportIntervalMs()).isEqualTo(60_000);
+    }
+
+    @Test
+    void sessionIsOnlyNotifiedWhenIntervalChanges() {
+        advisor.adviseSession("s1", fix(52.0, 13.0, T0));
+        advisor.adviseSession("s1", fix(52.0, 13.0, T0 + 10_000));
+        advisor.adviseSession("s1", fix(52.001, 13.0, T0 + 20_000));
+
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("s1"), eq(ReportingIntervalAdvisor.INTERVAL_QUEUE),
+                eq(new ReportingAdvice(driverId, 30_000)), any(MessageHeaders.class));
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("s1"), eq(ReportingIntervalAdvisor.INTERVAL_QUEUE),
+                eq(new ReportingAdvice(driverId, 10_000)), any(MessageHeaders.class));
+    }
+
+    @Test
+    void batchAdvisesEveryDriverOnItsLastFix() {
+        UUID otherDriver = UUID.randomUUID();
+
+        List<ReportingAdvice> advice = advisor.advise(List.of(
+                fix(52.0, 13.0, T0),
+                new LocationUpdate(otherDriver, null, 48.0, 11.0, T0),
+                fix(52.001, 13.0, T0 + 10_000)));
+
+        assertThat(advice).containsExactly(new ReportingAdvice(driverId, 10_000), new ReportingAdvice(otherDriver, 30_000));
+    }
+
+    @Test
+    void sessionBatchPushesEachDriverWhoseIntervalChanged() {
+        UUID otherDriver = UUID.randomUUID();
+        advisor.adviseSession("s1", List.of(fix(52.0, 13.0, T0), new LocationUpdate(otherDriver, null, 48.0, 11.0, T0)));
+
+        advisor.adviseSession("s1", List.of(fix(52.001, 13.0, T0 + 10_000),
+                new LocationUpdate(otherDriver, null, 48.0, 11.0, T0 + 10_000)));
+
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("s1"), eq(ReportingIntervalAdvisor.INTERVAL_QUEUE),
+                eq(new ReportingAdvice(otherDriver, 30_000)), any(MessageHeaders.class));
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("s1"), eq(ReportingIntervalAdvisor.INTERVAL_QUEUE),
+                eq(new ReportingAdvice(driverId, 10_000)), any(MessageHeaders.class));
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("s1"), eq(ReportingIntervalAdvisor.INTERVAL_QUEUE),
+                eq(new ReportingAdvice(otherDriver, 10_000)), any(MessageHeaders.class));
+    }
+
+    private LocationUpdate fix(double latitude, double longitude, long timestamp) {
+        return new LocationUpdate(driverId, orderId, latitude, longitude, timestamp);
+    }
+}
@@ -0,0 +1,99 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.LocationUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Steady-state ingest rate against fleet size, with every driver on the mobile app's old fixed
+ * 5 s interval versus following the advisor. Runs in simulated time with the default
+ * tracking.reporting settings. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ReportingRateBenchmark {
+
+    private static final long FIXED_INTERVAL_MS = 5000;
+    private static final long WARMUP_MS = 120_000;
+    private static final long MEASURE_MS = 120_000;
+    private static final double CAPACITY_PER_SECOND = 5000;
+    private static final int[] FLEET_SIZES = {1_000, 5_000, 10_000, 25_000, 50_000, 100_000};
+
+    @Test
+    void ingestRateByFleetSize() {
+        System.out.printf("capacity %.0f fixes/s (stretching from %.0f)%n", CAPACITY_PER_SECOND, CAPACITY_PER_SECOND * 0.7);
+        for (int drivers : FLEET_SIZES) {
+            System.out.printf("%7d drivers: fixed %7.0f fixes/s | advised %7.0f fixes/s%n",
+                    drivers, (double) drivers * 1000 / FIXED_INTERVAL_MS, simulate(drivers));
+        }
+    }
+
+    // 20% of drivers are on a watched order, 50% moving, 30% standing still
+    private static double simulate(int fleetSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Counter received = meterRegistry.counter("tracking.updates.received");
+        SubscriptionRegistry subscriptionRegistry = new SubscriptionRegistry(meterRegistry);
+        ReportingIntervalAdvisor advisor = new ReportingIntervalAdvisor(subscriptionRegistry, mock(SimpMessagingTemplate.class),
+                2000, 10_000, 30_000, 60_000, 1.0, CAPACITY_PER_SECOND, 0.7, 4, meterRegistry);
+
+        Random random = new Random(42);
+        UUID[] driverIds = new UUID[fleetSize];
+        UUID[] orderIds = new UUID[fleetSize];
+        double[] speedDegreesPerMs = new double[fleetSize];
+        long start = System.currentTimeMillis();
+        // Next report time and driver index, earliest first
+        PriorityQueue<long[]> schedule = new PriorityQueue<>(fleetSize, Comparator.comparingLong(entry -> entry[0]));
+        for (int i = 0; i < fleetSize; i++) {
+            driverIds[i] = UUID.randomUUID();
+            orderIds[i] = UUID.randomUUID();
+            double kind = random.nextDouble();
+            if (kind < 0.2) {
+                watch(subscriptionRegistry, i, orderIds[i]);
+            }
+            speedDegreesPerMs[i] = kind < 0.7 ? 0.0001 / 1000 : 0; // ~11 m/s or stationary
+            schedule.add(new long[] {start + random.nextLong(FIXED_INTERVAL_MS), i});
+        }
+
+        long measuredFixes = 0;
+        long end = start + WARMUP_MS + MEASURE_MS;
+        for (long second = start + 1000; second <= end; second += 1000) {
+            while (schedule.peek()[0] < second) {
+                long[] due = schedule.poll();
+                long now = due[0];
+                int i = (int) due[1];
+                double latitude = 52.0 + speedDegreesPerMs[i] * (now - start);
+                received.increment();
+                long interval = advisor.advise(new LocationUpdate(driverIds[i], orderIds[i], latitude, 13.0, now))
+                        .reportIntervalMs();
+                due[0] = now + interval;
+                schedule.add(due);
+                if (now >= start + WARMUP_MS) {
+                    measuredFixes++;
+                }
+            }
+            advisor.sampleLoad(second);
+        }
+        return measuredFixes * 1000.0 / MEASURE_MS;
+    }
+
+    private static void watch(SubscriptionRegistry registry, int session, UUID orderId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("session-" + session);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(SubscriptionRegistry.ORDER_TOPIC_PREFIX + orderId);
+        registry.onSubscribe(new SessionSubscribeEvent(registry, MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders())));
+    }
+}
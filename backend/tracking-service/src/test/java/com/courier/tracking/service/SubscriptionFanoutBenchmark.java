@@ -0,0 +1,87 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.OrderPosition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * CPU per published position with and without the subscription check, when only a few orders
+ * are watched. Both paths go through a real simple broker. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SubscriptionFanoutBenchmark {
+
+    private static final int ORDERS = 10_000;
+    private static final int WATCHED = 500;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void gatedVersusAlwaysPublish() {
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(),
+                new ExecutorSubscribableChannel(), brokerChannel, List.of("/topic"));
+        broker.start();
+        SimpMessagingTemplate template = new SimpMessagingTemplate(brokerChannel);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        SubscriptionRegistry registry = new SubscriptionRegistry(new SimpleMeterRegistry());
+
+        List<LocationUpdate> updates = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            LocationUpdate update = new LocationUpdate(UUID.randomUUID(), UUID.randomUUID(), 52.5, 13.4, System.currentTimeMillis());
+            updates.add(update);
+            if (i < WATCHED) {
+                String destination = SubscriptionRegistry.ORDER_TOPIC_PREFIX + update.orderId();
+                StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+                accessor.setSessionId("session-" + i);
+                accessor.setSubscriptionId("sub-0");
+                accessor.setDestination(destination);
+                registry.onSubscribe(new SessionSubscribeEvent(this,
+                        MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders())));
+                broker.handleMessage(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+            }
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            publishAll(template, updates, null);
+            publishAll(template, updates, registry);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            publishAll(template, updates, null);
+        }
+        long alwaysNanos = (System.nanoTime() - start) / ((long) ROUNDS * ORDERS);
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            publishAll(template, updates, registry);
+        }
+        long gatedNanos = (System.nanoTime() - start) / ((long) ROUNDS * ORDERS);
+
+        System.out.printf("%d orders, %d watched: always publish %d ns/update | subscription-gated %d ns/update%n",
+                ORDERS, WATCHED, alwaysNanos, gatedNanos);
+        broker.stop();
+    }
+
+    // Mirrors TrackingService.publishLocally; a null registry publishes every update
+    private static void publishAll(SimpMessagingTemplate template, List<LocationUpdate> updates, SubscriptionRegistry registry) {
+        for (LocationUpdate update : updates) {
+            if (registry == null || registry.isWatched(update.orderId())) {
+                template.convertAndSend(SubscriptionRegistry.ORDER_TOPIC_PREFIX + update.orderId(), OrderPosition.of(update, null));
+            }
+        }
+    }
+}
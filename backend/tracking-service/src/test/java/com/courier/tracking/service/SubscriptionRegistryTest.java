@@ -0,0 +1,118 @@
+package com.courier.tracking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubscriptionRegistryTest {
+
+    private final SubscriptionRegistry registry = new SubscriptionRegistry(new SimpleMeterRegistry());
+    private final UUID orderId = UUID.randomUUID();
+
+    @Test
+    void orderIsWatchedUntilLastSubscriberLeaves() {
+        registry.onSubscribe(subscribe("s1", "sub-0", topic(orderId)));
+        registry.onSubscribe(subscribe("s2", "sub-0", topic(orderId)));
+
+        registry.onUnsubscribe(unsubscribe("s1", "sub-0"));
+        assertThat(registry.isWatched(orderId)).isTrue();
+
+        registry.onUnsubscribe(unsubscribe("s2", "sub-0"));
+        assertThat(registry.isWatched(orderId)).isFalse();
+        assertThat(registry.watchedOrders()).isZero();
+    }
+
+    @Test
+    void disconnectReleasesEverySubscriptionOfTheSession() {
+        UUID other = UUID.randomUUID();
+        registry.onSubscribe(subscribe("s1", "sub-0", topic(orderId)));
+        registry.onSubscribe(subscribe("s1", "sub-1", topic(other)));
+
+        registry.onDisconnect(new SessionDisconnectEvent(this, stomp(StompCommand.DISCONNECT, "s1", null, null),
+                "s1", CloseStatus.NORMAL));
+
+        assertThat(registry.watchedOrderIds()).isEmpty();
+    }
+
+    @Test
+    void reusedSubscriptionIdMovesTheSubscription() {
+        UUID other = UUID.randomUUID();
+        registry.onSubscribe(subscribe("s1", "sub-0", topic(orderId)));
+        registry.onSubscribe(subscribe("s1", "sub-0", topic(other)));
+
+        assertThat(registry.watchedOrderIds()).containsExactly(other);
+    }
+
+    @Test
+    void unknownUnsubscribeIsIgnored() {
+        registry.onSubscribe(subscribe("s1", "sub-0", topic(orderId)));
+
+        registry.onUnsubscribe(unsubscribe("s1", "sub-9"));
+        registry.onUnsubscribe(unsubscribe("s2", "sub-0"));
+
+        assertThat(registry.isWatched(orderId)).isTrue();
+    }
+
+    @Test
+    void wildcardSubscriptionWatchesEveryOrder() {
+        registry.onSubscribe(subscribe("s1", "sub-0", SubscriptionRegistry.ORDER_TOPIC_PREFIX + "*"));
+
+        assertThat(registry.isWatched(UUID.randomUUID())).isTrue();
+        assertThat(registry.watchesEveryDriver()).isTrue();
+        assertThat(registry.watchedOrders()).isZero();
+    }
+
+    @Test
+    void adminMapViewerWatchesEveryDriverButNoOrder() {
+        registry.onSubscribe(subscribe("s1", "sub-0", AdminMapBroadcaster.ADMIN_MAP_TOPIC));
+
+        assertThat(registry.watchesEveryDriver()).isTrue();
+        assertThat(registry.isWatched(orderId)).isFalse();
+
+        registry.onUnsubscribe(unsubscribe("s1", "sub-0"));
+        assertThat(registry.watchesEveryDriver()).isFalse();
+    }
+
+    @Test
+    void otherDestinationsAreNotCounted() {
+        registry.onSubscribe(subscribe("s1", "sub-0", "/user/queue/reporting-interval"));
+
+        assertThat(registry.watchesEveryDriver()).isFalse();
+        assertThat(registry.watchedOrderIds()).isEmpty();
+    }
+
+    private SessionSubscribeEvent subscribe(String sessionId, String subscriptionId, String destination) {
+        return new SessionSubscribeEvent(this, stomp(StompCommand.SUBSCRIBE, sessionId, subscriptionId, destination));
+    }
+
+    private SessionUnsubscribeEvent unsubscribe(String sessionId, String subscriptionId) {
+        return new SessionUnsubscribeEvent(this, stomp(StompCommand.UNSUBSCRIBE, sessionId, subscriptionId, null));
+    }
+
+    private static Message<byte[]> stomp(StompCommand command, String sessionId, String subscriptionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        if (subscriptionId != null) {
+            accessor.setSubscriptionId(subscriptionId);
+        }
+        if (destination != null) {
+            accessor.setDestination(destination);
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static String topic(UUID orderId) {
+        return SubscriptionRegistry.ORDER_TOPIC_PREFIX + orderId;
+    }
+}
@@ -0,0 +1,58 @@
+package com.courier.tracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(100, 1000, START);
+
+    @Test
+    void expiresKeyAfterTtl() {
+        wheel.touch("a", START);
+
+        assertThat(wheel.advance(START + 900)).isEmpty();
+        assertThat(wheel.advance(START + 1000)).containsEntry("a", START);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void touchExtendsDeadline() {
+        wheel.touch("a", START);
+        wheel.touch("a", START + 800);
+
+        assertThat(wheel.advance(START + 1200)).isEmpty();
+        assertThat(wheel.advance(START + 1800)).containsOnlyKeys("a");
+    }
+
+    @Test
+    void removedKeyNeverExpires() {
+        wheel.touch("a", START);
+        wheel.remove("a");
+
+        assertThat(wheel.advance(START + 5000)).isEmpty();
+        assertThat(wheel.lastSeen("a")).isNull();
+    }
+
+    @Test
+    void catchesUpAfterLongStall() {
+        wheel.touch("a", START);
+        wheel.touch("b", START + 500);
+
+        assertThat(wheel.advance(START + 60_000)).containsOnlyKeys("a", "b");
+    }
+
+    @Test
+    void keyTouchedAgainAfterRemovalExpiresOnce() {
+        wheel.touch("a", START);
+        wheel.remove("a");
+        wheel.touch("a", START + 300);
+
+        assertThat(wheel.advance(START + 1000)).isEmpty();
+        assertThat(wheel.advance(START + 1300)).containsEntry("a", START + 300);
+        assertThat(wheel.advance(START + 3000)).isEmpty();
+    }
+}
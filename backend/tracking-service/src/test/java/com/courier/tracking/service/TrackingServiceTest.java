@@ -0,0 +1,36 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.dto.LocationUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackingServiceTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void acceptsPlausibleFixes() {
+        assertThat(TrackingService.isValid(fix(52.5, 13.4, NOW), NOW)).isTrue();
+        assertThat(TrackingService.isValid(fix(-90, 180, null), NOW)).isTrue();
+    }
+
+    @Test
+    void rejectsOutOfRangeCoordinates() {
+        assertThat(TrackingService.isValid(fix(91, 13.4, NOW), NOW)).isFalse();
+        assertThat(TrackingService.isValid(fix(52.5, -181, NOW), NOW)).isFalse();
+        assertThat(TrackingService.isValid(fix(Double.NaN, 13.4, NOW), NOW)).isFalse();
+    }
+
+    @Test
+    void rejectsSecondsBasedAndFutureTimestamps() {
+        assertThat(TrackingService.isValid(fix(52.5, 13.4, NOW / 1000), NOW)).isFalse();
+        assertThat(TrackingService.isValid(fix(52.5, 13.4, NOW + 1), NOW)).isFalse();
+    }
+
+    private static LocationUpdate fix(double latitude, double longitude, Long timestamp) {
+        return new LocationUpdate(UUID.randomUUID(), null, latitude, longitude, timestamp);
+    }
+}
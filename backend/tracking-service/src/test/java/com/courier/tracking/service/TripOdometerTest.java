@@ -0,0 +1,180 @@
+package com.courier.tracking.service;
+
+import com.courier.tracking.cluster.ClusterMembershipChangedEvent;
+import com.courier.tracking.cluster.ShardRouter;
+import com.courier.tracking.config.RabbitMQConfig;
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.TripProgress;
+import com.courier.tracking.dto.TripSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TripOdometerTest {
+
+    // 0.001 degrees of latitude
+    private static final double STEP_METERS = 111.195;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final TripOdometer odometer = new TripOdometer(rabbitTemplate, shardRouter, 1.0, 70, 24, new SimpleMeterRegistry());
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID driverId = UUID.randomUUID();
+
+    TripOdometerTest() {
+        when(shardRouter.owns(any())).thenReturn(true);
+    }
+
+    @Test
+    void accumulatesDistanceAndDuration() {
+        fix(52.000, T0);
+        fix(52.001, T0 + 10_000);
+        fix(52.002, T0 + 20_000);
+
+        TripSummary summary = complete();
+
+        assertThat(summary.distanceMeters()).isCloseTo(2 * STEP_METERS, within(0.5));
+        assertThat(summary.durationSeconds()).isEqualTo(20);
+        assertThat(summary.startedAt()).isEqualTo(T0);
+        assertThat(summary.endedAt()).isEqualTo(T0 + 20_000);
+        assertThat(summary.driverId()).isEqualTo(driverId);
+        assertThat(summary.status()).isEqualTo("DELIVERED");
+    }
+
+    @Test
+    void gpsJumpIsIgnoredAndNextFixMeasuresFromLastGoodPosition() {
+        fix(52.000, T0);
+        fix(53.000, T0 + 1_000); // 111 km in a second
+        fix(52.001, T0 + 10_000);
+
+        TripSummary summary = complete();
+
+        assertThat(summary.distanceMeters()).isCloseTo(STEP_METERS, within(0.5));
+        assertThat(summary.maxSpeedMps()).isCloseTo(STEP_METERS / 10, within(0.1));
+    }
+
+    @Test
+    void slowSegmentsCountAsIdle() {
+        fix(52.000, T0);
+        fix(52.000, T0 + 30_000);
+        fix(52.001, T0 + 40_000);
+
+        assertThat(complete().idleSeconds()).isEqualTo(30);
+    }
+
+    @Test
+    void maxSpeedIgnoresSegmentsShorterThanASecond() {
+        fix(52.000, T0);
+        fix(52.0003, T0 + 500); // 33 m in half a second: plausible, but too short to trust as speed
+        fix(52.0013, T0 + 20_500);
+
+        TripSummary summary = complete();
+
+        assertThat(summary.maxSpeedMps()).isCloseTo(STEP_METERS / 20, within(0.1));
+        assertThat(summary.distanceMeters()).isCloseTo(1.3 * STEP_METERS, within(0.5));
+    }
+
+    @Test
+    void completePublishesOnce() {
+        fix(52.000, T0);
+
+        odometer.complete(orderId, "DELIVERED");
+        odometer.complete(orderId, "DELIVERED");
+
+        verify(rabbitTemplate, times(1)).convertAndSend(eq(RabbitMQConfig.ORDER_EXCHANGE),
+                eq(RabbitMQConfig.TRIP_COMPLETED_ROUTING_KEY), any(Object.class));
+    }
+
+    @Test
+    void fixesWithoutOrderStartNoTrip() {
+        odometer.record(new LocationUpdate(driverId, null, 52.0, 13.0, T0));
+
+        odometer.complete(orderId, "DELIVERED");
+
+        verify(rabbitTemplate, never()).convertAndSend(any(String.class), any(String.class), any(Object.class));
+    }
+
+    @Test
+    void dropAbandonedForgetsOnlyStaleTrips() {
+        UUID staleOrder = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        odometer.record(new LocationUpdate(driverId, staleOrder, 52.0, 13.0, now - 25 * 3_600_000L));
+        fix(52.000, now);
+
+        odometer.dropAbandoned();
+        odometer.complete(staleOrder, "CANCELLED");
+        odometer.complete(orderId, "DELIVERED");
+
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.ORDER_EXCHANGE),
+                eq(RabbitMQConfig.TRIP_COMPLETED_ROUTING_KEY), published.capture());
+        assertThat(((TripSummary) published.getValue()).orderId()).isEqualTo(orderId);
+    }
+
+    @Test
+    void tripOfDriverThatMovedIsHandedOffAndNotPublishedHere() {
+        fix(52.000, T0);
+        fix(52.001, T0 + 10_000);
+        when(shardRouter.owns(driverId)).thenReturn(false);
+
+        odometer.onMembershipChanged(new ClusterMembershipChangedEvent(List.of("a", "b")));
+        odometer.complete(orderId, "DELIVERED");
+
+        ArgumentCaptor<TripProgress> handedOff = ArgumentCaptor.forClass(TripProgress.class);
+        verify(shardRouter).handOffTrip(eq(orderId), handedOff.capture());
+        assertThat(handedOff.getValue().distanceMeters()).isCloseTo(STEP_METERS, within(0.5));
+        verify(rabbitTemplate, never()).convertAndSend(any(String.class), any(String.class), any(Object.class));
+    }
+
+    @Test
+    void handedOffTripIsJoinedWithTheLocalPart() {
+        // The new owner heard from the driver before the old owner's hand-off arrived
+        fix(52.002, T0 + 20_000);
+        fix(52.003, T0 + 30_000);
+        odometer.merge(orderId, new TripProgress(driverId, T0, 52.000, 13.0, 52.001, 13.0, T0 + 10_000,
+                STEP_METERS, STEP_METERS / 10, 5_000));
+
+        TripSummary summary = complete();
+
+        assertThat(summary.distanceMeters()).isCloseTo(3 * STEP_METERS, within(0.5));
+        assertThat(summary.startedAt()).isEqualTo(T0);
+        assertThat(summary.endedAt()).isEqualTo(T0 + 30_000);
+        assertThat(summary.idleSeconds()).isEqualTo(5);
+    }
+
+    @Test
+    void handedOffTripContinuesWithTheNextFix() {
+        odometer.merge(orderId, new TripProgress(driverId, T0, 52.000, 13.0, 52.001, 13.0, T0 + 10_000,
+                STEP_METERS, STEP_METERS / 10, 0));
+        fix(52.002, T0 + 20_000);
+
+        assertThat(complete().distanceMeters()).isCloseTo(2 * STEP_METERS, within(0.5));
+    }
+
+    private void fix(double latitude, long timestamp) {
+        odometer.record(new LocationUpdate(driverId, orderId, latitude, 13.0, timestamp));
+    }
+
+    private TripSummary complete() {
+        odometer.complete(orderId, "DELIVERED");
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.ORDER_EXCHANGE),
+                eq(RabbitMQConfig.TRIP_COMPLETED_ROUTING_KEY), published.capture());
+        return (TripSummary) published.getValue();
+    }
+}
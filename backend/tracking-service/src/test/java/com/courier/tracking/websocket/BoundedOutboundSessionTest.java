@@ -0,0 +1,137 @@
+package com.courier.tracking.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class BoundedOutboundSessionTest {
+
+    private final WebSocketSession delegate = mock(WebSocketSession.class);
+    // Collects drain tasks without running them, so frames stay queued
+    private final List<Runnable> drains = new ArrayList<>();
+
+    @Test
+    void conflatesPerSubscriptionAndDestination() throws Exception {
+        BoundedOutboundSession session = session(8, 1 << 20, OverflowPolicy.CONFLATE, 10_000);
+
+        session.sendMessage(position("sub-1", "a", "1"));
+        session.sendMessage(position("sub-2", "a", "1"));
+        session.sendMessage(position("sub-1", "a", "2"));
+
+        assertThat(session.depth()).isEqualTo(2);
+        assertThat(session.conflated()).isEqualTo(1);
+        assertThat(drainAll()).containsExactly(position("sub-1", "a", "2"), position("sub-2", "a", "1"));
+    }
+
+    @Test
+    void dropOldestKeepsNonPositionFrames() throws Exception {
+        BoundedOutboundSession session = session(2, 1 << 20, OverflowPolicy.DROP_OLDEST, 10_000);
+        TextMessage admin = adminFrame();
+
+        session.sendMessage(admin);
+        session.sendMessage(position("sub-1", "a", "1"));
+        session.sendMessage(position("sub-1", "b", "2"));
+
+        assertThat(session.dropped()).isEqualTo(1);
+        assertThat(drainAll()).containsExactly(admin, position("sub-1", "b", "2"));
+        verify(delegate, never()).close(any());
+    }
+
+    @Test
+    void fullQueueWithoutPositionFramesClosesSession() throws Exception {
+        BoundedOutboundSession session = session(2, 1 << 20, OverflowPolicy.CONFLATE, 10_000);
+
+        session.sendMessage(adminFrame());
+        session.sendMessage(adminFrame());
+        session.sendMessage(adminFrame());
+
+        verify(delegate).close(any(CloseStatus.class));
+        assertThat(session.depth()).isZero();
+    }
+
+    @Test
+    void byteLimitDropsOldestPositionFrames() throws Exception {
+        TextMessage first = position("sub-1", "a", "1");
+        BoundedOutboundSession session = session(100, first.getPayloadLength() * 2L, OverflowPolicy.DROP_OLDEST, 10_000);
+
+        session.sendMessage(first);
+        session.sendMessage(position("sub-1", "b", "2"));
+        session.sendMessage(position("sub-1", "c", "3"));
+
+        assertThat(session.depth()).isEqualTo(2);
+        assertThat(session.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void frameLargerThanByteLimitIsSentWhenQueueIsEmpty() throws Exception {
+        BoundedOutboundSession session = session(100, 16, OverflowPolicy.DISCONNECT, 10_000);
+
+        session.sendMessage(adminFrame());
+
+        assertThat(session.depth()).isEqualTo(1);
+        verify(delegate, never()).close(any());
+    }
+
+    @Test
+    void stalledWriteIsClosedWithoutNewTraffic() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(delegate).sendMessage(any());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            BoundedOutboundSession session = new BoundedOutboundSession(delegate, 8, 1 << 20, OverflowPolicy.CONFLATE,
+                    50, executor, new SimpleMeterRegistry().counter("dropped"));
+            session.sendMessage(adminFrame());
+            verify(delegate, timeout(1000)).sendMessage(any());
+
+            Thread.sleep(100);
+
+            assertThat(session.checkSendTimeLimit()).isTrue();
+            verify(delegate).close(any(CloseStatus.class));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private BoundedOutboundSession session(int capacity, long sendBufferBytes, OverflowPolicy policy, long sendTimeLimitMillis) {
+        return new BoundedOutboundSession(delegate, capacity, sendBufferBytes, policy, sendTimeLimitMillis,
+                drains::add, new SimpleMeterRegistry().counter("dropped"));
+    }
+
+    private List<WebSocketMessage<?>> drainAll() throws Exception {
+        drains.forEach(Runnable::run);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(delegate, atLeastOnce()).sendMessage(sent.capture());
+        return sent.getAllValues();
+    }
+
+    private static TextMessage position(String subscription, String order, String body) {
+        return new TextMessage("MESSAGE\ndestination:/topic/orders/" + order + "\nsubscription:" + subscription
+                + "\n\n" + body + "\0");
+    }
+
+    private static TextMessage adminFrame() {
+        return new TextMessage("MESSAGE\ndestination:/topic/admin/map\nsubscription:sub-9\n\n{}\0");
+    }
+}
@@ -0,0 +1,60 @@
+package com.courier.tracking.websocket;
+
+import com.courier.tracking.dto.LocationUpdate;
+import com.courier.tracking.dto.MapFrame;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bytes and encode time per admin frame, binary codec against the JSON the STOMP broker sends.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class LocationFrameCodecBenchmark {
+
+    private static final int FIXES = 1000;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    @Test
+    void binaryVersusJson() throws Exception {
+        List<LocationUpdate> drivers = new ArrayList<>(FIXES);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < FIXES; i++) {
+            drivers.add(new LocationUpdate(UUID.randomUUID(), random.nextBoolean() ? UUID.randomUUID() : null,
+                    random.nextDouble(-60, 60), random.nextDouble(-180, 180), now - random.nextInt(10_000)));
+        }
+        MapFrame frame = new MapFrame(1, false, drivers, List.of());
+        ObjectMapper mapper = new ObjectMapper();
+
+        int binaryBytes = LocationFrameCodec.encodeAll(false, drivers, List.of()).stream().mapToInt(b -> b.length).sum();
+        int jsonBytes = mapper.writeValueAsBytes(frame).length;
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += LocationFrameCodec.encodeAll(false, drivers, List.of()).size();
+            sink += mapper.writeValueAsBytes(frame).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += LocationFrameCodec.encodeAll(false, drivers, List.of()).size();
+        }
+        long binaryNanos = (System.nanoTime() - start) / ITERATIONS;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(frame).length;
+        }
+        long jsonNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        System.out.printf("%d fixes: binary %d B (%.1f B/fix) %d us/frame | json %d B (%.1f B/fix) %d us/frame [%d]%n",
+                FIXES, binaryBytes, (double) binaryBytes / FIXES, binaryNanos / 1000,
+                jsonBytes, (double) jsonBytes / FIXES, jsonNanos / 1000, sink);
+    }
+}
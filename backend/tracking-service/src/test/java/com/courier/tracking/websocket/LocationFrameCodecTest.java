@@ -0,0 +1,123 @@
+package com.courier.tracking.websocket;
+
+import com.courier.tracking.dto.LocationUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LocationFrameCodecTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void roundTripsFixesAndRemovals() {
+        UUID driver = UUID.randomUUID();
+        UUID order = UUID.randomUUID();
+        UUID gone = UUID.randomUUID();
+        List<LocationUpdate> fixes = List.of(
+                new LocationUpdate(driver, order, 52.5200066, 13.404954, NOW + 1500),
+                new LocationUpdate(UUID.randomUUID(), null, -33.8688197, 151.2092955, null));
+
+        byte[] bytes = LocationFrameCodec.encode(true, fixes, List.of(gone));
+        LocationFrameCodec.Frame frame = LocationFrameCodec.decodeFrame(ByteBuffer.wrap(bytes));
+
+        assertThat(bytes).hasSize(LocationFrameCodec.HEADER_BYTES + 2 * LocationFrameCodec.FIX_BYTES
+                + LocationFrameCodec.REMOVED_BYTES);
+        assertThat(frame.snapshot()).isTrue();
+        assertThat(frame.removed()).containsExactly(gone);
+        LocationUpdate first = frame.fixes().get(0);
+        assertThat(first.driverId()).isEqualTo(driver);
+        assertThat(first.orderId()).isEqualTo(order);
+        assertThat(first.latitude()).isCloseTo(52.5200066, within(1e-7));
+        assertThat(first.longitude()).isCloseTo(13.404954, within(1e-7));
+        assertThat(first.timestamp()).isEqualTo(NOW + 1500);
+        assertThat(frame.fixes().get(1).orderId()).isNull();
+        assertThat(frame.fixes().get(1).timestamp()).isNull();
+    }
+
+    @Test
+    void rejectsOutOfRangeCoordinatesInsteadOfWrapping() {
+        LocationUpdate bad = new LocationUpdate(UUID.randomUUID(), null, 52.0, 250.0, NOW);
+
+        assertThatThrownBy(() -> LocationFrameCodec.encode(List.of(bad)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void singleFrameRejectsTimestampSpanBeyondInt() {
+        List<LocationUpdate> fixes = List.of(
+                new LocationUpdate(UUID.randomUUID(), null, 1, 1, NOW),
+                new LocationUpdate(UUID.randomUUID(), null, 1, 1, NOW + 30L * 24 * 3600 * 1000));
+
+        assertThatThrownBy(() -> LocationFrameCodec.encode(fixes)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void encodeAllStartsNewFrameWhenTimestampSpanDoesNotFit() {
+        long farFuture = NOW + 30L * 24 * 3600 * 1000;
+        List<LocationUpdate> fixes = List.of(
+                new LocationUpdate(UUID.randomUUID(), null, 1, 1, NOW),
+                new LocationUpdate(UUID.randomUUID(), null, 2, 2, farFuture));
+
+        List<byte[]> frames = LocationFrameCodec.encodeAll(true, fixes, List.of());
+
+        assertThat(frames).hasSize(2);
+        LocationFrameCodec.Frame first = LocationFrameCodec.decodeFrame(ByteBuffer.wrap(frames.get(0)));
+        LocationFrameCodec.Frame second = LocationFrameCodec.decodeFrame(ByteBuffer.wrap(frames.get(1)));
+        assertThat(first.snapshot()).isTrue();
+        assertThat(second.snapshot()).isFalse();
+        assertThat(first.fixes().get(0).timestamp()).isEqualTo(NOW);
+        assertThat(second.fixes().get(0).timestamp()).isEqualTo(farFuture);
+    }
+
+    @Test
+    void encodeAllSplitsAtMaxFixesAndCarriesRemovals() {
+        List<LocationUpdate> fixes = new ArrayList<>();
+        for (int i = 0; i < LocationFrameCodec.MAX_FIXES + 10; i++) {
+            fixes.add(new LocationUpdate(UUID.randomUUID(), null, 10, 10, NOW + i));
+        }
+        UUID gone = UUID.randomUUID();
+
+        List<byte[]> frames = LocationFrameCodec.encodeAll(false, fixes, List.of(gone));
+
+        assertThat(frames).hasSize(2);
+        LocationFrameCodec.Frame last = LocationFrameCodec.decodeFrame(ByteBuffer.wrap(frames.get(1)));
+        assertThat(last.fixes()).hasSize(10);
+        assertThat(last.removed()).containsExactly(gone);
+    }
+
+    @Test
+    void fullestFrameFillsMaxFrameBytes() {
+        List<LocationUpdate> fixes = new ArrayList<>();
+        List<UUID> removed = new ArrayList<>();
+        for (int i = 0; i < LocationFrameCodec.MAX_FIXES; i++) {
+            fixes.add(new LocationUpdate(UUID.randomUUID(), UUID.randomUUID(), 10, 10, NOW + i));
+            removed.add(UUID.randomUUID());
+        }
+
+        assertThat(LocationFrameCodec.encode(false, fixes, removed)).hasSize(LocationFrameCodec.MAX_FRAME_BYTES);
+    }
+
+    @Test
+    void emptySnapshotIsStillSent() {
+        List<byte[]> frames = LocationFrameCodec.encodeAll(true, List.of(), List.of());
+
+        assertThat(frames).hasSize(1);
+        assertThat(LocationFrameCodec.decodeFrame(ByteBuffer.wrap(frames.get(0))).snapshot()).isTrue();
+    }
+
+    @Test
+    void rejectsTruncatedFrame() {
+        byte[] bytes = LocationFrameCodec.encode(List.of(new LocationUpdate(UUID.randomUUID(), null, 1, 1, NOW)));
+        ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, bytes.length - 1);
+
+        assertThatThrownBy(() -> LocationFrameCodec.decode(truncated)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
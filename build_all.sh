@@ -14,6 +14,11 @@ services=(
 
 echo "Starting build for all services..."
 
+echo "------------------------------------------------"
+echo "Installing shared courier-events module..."
+echo "------------------------------------------------"
+(cd backend/courier-events && mvn clean install -DskipTests)
+
 for service in "${services[@]}"
 do
     echo "------------------------------------------------"
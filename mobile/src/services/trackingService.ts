@@ -10,6 +10,7 @@ class TrackingService {
   client: Client | null = null;
   driverId: string | null = null;
   watchId: number | null = null;
+  reportIntervalMs = 5000; // Replaced by the server's recommendation
 
   async connect(driverId: string) {
     this.driverId = driverId;
@@ -30,6 +31,12 @@ class TrackingService {
 
     this.client.onConnect = () => {
       console.log('Mobile connected to Tracking WS');
+      this.client?.subscribe('/user/queue/reporting-interval', (message) => {
+        const advice = JSON.parse(message.body);
+        if (advice.reportIntervalMs > 0) {
+          this.reportIntervalMs = advice.reportIntervalMs;
+        }
+      });
       this.startLocationTracking();
     };
 
@@ -49,7 +56,7 @@ class TrackingService {
     let lat = 40.7128;
     let lng = -74.0060;
 
-    this.watchId = setInterval(() => {
+    const report = () => {
         if (this.client && this.client.connected && this.driverId) {
             lat += 0.0001;
             lng += 0.0001;
@@ -58,7 +65,8 @@ class TrackingService {
                 driverId: this.driverId,
                 latitude: lat,
                 longitude: lng,
-                orderId: activeOrderId // Use the provided activeOrderId
+                orderId: activeOrderId, // Use the provided activeOrderId
+                timestamp: Date.now() // Lets the server drop out-of-order fixes
             };
 
             this.client.publish({
@@ -70,12 +78,15 @@ class TrackingService {
             });
 
         }
-    }, 5000) as unknown as number;
+        // Rescheduled each time so a new server-recommended interval takes effect
+        this.watchId = setTimeout(report, this.reportIntervalMs) as unknown as number;
+    };
+    this.watchId = setTimeout(report, this.reportIntervalMs) as unknown as number;
   }
 
   stop() {
     if (this.watchId !== null) {
-      clearInterval(this.watchId);
+      clearTimeout(this.watchId);
       this.watchId = null;
     }
     if (this.client) {
@@ -1,4 +1,4 @@
-import { MapContainer, TileLayer, Marker, Popup } from 'react-leaflet';
+import { MapContainer, TileLayer, Marker, Popup, useMapEvents } from 'react-leaflet';
 import 'leaflet/dist/leaflet.css';
 import { useEffect, useState } from 'react';
 import { trackingService } from '../services/trackingService';
@@ -19,6 +19,29 @@ let DefaultIcon = L.icon({
 
 L.Marker.prototype.options.icon = DefaultIcon;
 
+// Reports the visible bounds so the server only streams drivers that are on screen
+const ViewportWatcher = () => {
+    const map = useMapEvents({
+        moveend: () => reportViewport(),
+    });
+
+    const reportViewport = () => {
+        const bounds = map.getBounds();
+        trackingService.setViewport({
+            minLat: bounds.getSouth(),
+            minLon: bounds.getWest(),
+            maxLat: bounds.getNorth(),
+            maxLon: bounds.getEast(),
+        });
+    };
+
+    useEffect(() => {
+        reportViewport();
+    }, []);
+
+    return null;
+};
+
 interface MapComponentProps {
     orderId?: string; // Optional orderId for customer-specific tracking
 }
@@ -42,8 +65,12 @@ const MapComponent = ({ orderId }: MapComponentProps) => {
 
         const handleUpdate = (update: any) => {
             // If tracking a specific order, ensure only that order's driver is shown
-            if (orderId && update.orderId && update.orderId === orderId) {
+            if (update.reset) { // Snapshot frame: the drivers that follow replace the current markers
+                setTrackedLocations([]);
+            } else if (orderId && update.orderId && update.orderId === orderId) {
                 setTrackedLocations([update]); // Only show this one driver
+            } else if (!orderId && update.removed) { // Driver went stale or offline
+                setTrackedLocations(prev => prev.filter(loc => loc.driverId !== update.driverId));
             } else if (!orderId) { // Admin map shows all drivers
                 setTrackedLocations(prev => {
                     const existing = prev.find(loc => loc.driverId === update.driverId);
@@ -59,9 +86,9 @@ const MapComponent = ({ orderId }: MapComponentProps) => {
             unsubscribe = trackingService.subscribeToOrderTracking(orderId, handleUpdate);
             console.log(`Subscribing to order tracking for orderId: ${orderId}`);
         } else {
-            // Assume admin map if no orderId is provided
-            unsubscribe = trackingService.subscribeToAdminMap(handleUpdate);
-            console.log('Subscribing to admin map for all drivers.');
+            // Assume admin map if no orderId is provided; only drivers inside the viewport are streamed
+            unsubscribe = trackingService.subscribeToAdminViewport(handleUpdate);
+            console.log('Subscribing to admin map for drivers in view.');
         }
       } catch (error) {
         console.error("Failed to connect to WebSocket for tracking:", error);
@@ -97,11 +124,18 @@ const MapComponent = ({ orderId }: MapComponentProps) => {
           attribution='&copy; <a href="https://www.openstreetmap.org/copyright">OpenStreetMap</a> contributors'
           url="https://{s}.tile.openstreetmap.org/{z}/{x}/{y}.png"
         />
+        {!orderId && <ViewportWatcher />}
         {trackedLocations.map((location) => (
             <Marker key={location.driverId} position={[location.latitude, location.longitude]}>
                 <Popup>
                     Driver: {location.driverId?.substring(0, 8)} <br />
                     Order: {location.orderId?.substring(0, 8) || 'Idle'}
+                    {location.eta && (
+                        <>
+                            <br />
+                            ETA to {location.eta.target.toLowerCase()}: {Math.ceil(location.eta.durationSeconds / 60)} min
+                        </>
+                    )}
                 </Popup>
             </Marker>
         ))}
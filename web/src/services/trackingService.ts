@@ -2,12 +2,22 @@ import { Client, IMessage, StompSubscription } from '@stomp/stompjs';
 
 type TrackingUpdateCallback = (update: any) => void;
 
+export interface Viewport {
+  minLat: number;
+  minLon: number;
+  maxLat: number;
+  maxLon: number;
+}
+
+const wrapLongitude = (lon: number) => ((((lon + 180) % 360) + 360) % 360) - 180;
+
 class TrackingService {
   client: Client | null = null;
   private subscriptions: { [topic: string]: { callback: TrackingUpdateCallback, subscription: StompSubscription | null } } = {};
   private connectionPromise: Promise<void> | null = null;
   private resolveConnection: (() => void) | null = null;
   private rejectConnection: ((error: Error) => void) | null = null;
+  private viewport: Viewport | null = null;
 
 
   connect(token: string): Promise<void> {
@@ -51,6 +61,11 @@ class TrackingService {
                     }) || null;
                 }
             });
+
+            // Re-register the admin viewport after (re)connecting; the server forgets it on disconnect
+            if (this.viewport) {
+                this.publishViewport(this.viewport);
+            }
         };
 
         this.client.onStompError = (frame) => {
@@ -78,15 +93,65 @@ class TrackingService {
   }
 
   subscribeToAdminMap(callback: TrackingUpdateCallback): () => void {
-    const topic = '/topic/admin/map';
+    // The admin map arrives as frames ({ sequence, snapshot, drivers }) rather than single updates.
+    // A one-shot snapshot covers drivers that moved before we subscribed; deltas follow on the topic.
+    const handleFrame = (frame: any) => this.unpackFrame(frame, callback);
+    const unsubscribeSnapshot = this.subscribeToTopic('/app/admin/map/snapshot', handleFrame);
+    const unsubscribeDeltas = this.subscribeToTopic('/topic/admin/map', handleFrame);
+    return () => {
+      unsubscribeSnapshot();
+      unsubscribeDeltas();
+    };
+  }
+
+  // Admin map frames limited to the registered viewport (see setViewport)
+  subscribeToAdminViewport(callback: TrackingUpdateCallback): () => void {
+    const handleFrame = (frame: any) => this.unpackFrame(frame, callback);
+    const unsubscribe = this.subscribeToTopic('/user/queue/admin/map', handleFrame);
+    return () => {
+      this.viewport = null;
+      unsubscribe();
+    };
+  }
+
+  // Evicted (stale or offline) drivers are reported as { driverId, removed: true }.
+  // A snapshot frame replaces everything shown so far, so it is preceded by { reset: true }.
+  private unpackFrame(frame: any, callback: TrackingUpdateCallback) {
+    if (frame.snapshot) {
+      callback({ reset: true });
+    }
+    (frame.drivers || []).forEach(callback);
+    (frame.removed || []).forEach((driverId: string) => callback({ driverId, removed: true }));
+  }
+
+  // Longitudes are wrapped into [-180, 180]; a viewport across the antimeridian has minLon > maxLon
+  setViewport(viewport: Viewport) {
+    if (viewport.maxLon - viewport.minLon >= 360) {
+      viewport = { ...viewport, minLon: -180, maxLon: 180 };
+    } else {
+      viewport = { ...viewport, minLon: wrapLongitude(viewport.minLon), maxLon: wrapLongitude(viewport.maxLon) };
+    }
+    this.viewport = viewport;
+    if (this.client?.connected) {
+      this.publishViewport(viewport);
+    }
+  }
+
+  private publishViewport(viewport: Viewport) {
+    this.client?.publish({
+      destination: '/app/admin/viewport',
+      body: JSON.stringify(viewport),
+      headers: { 'content-type': 'application/json' },
+    });
+  }
+
+  private subscribeToTopic(topic: string, callback: TrackingUpdateCallback): () => void {
     // If not connected yet, queue the subscription
     if (!this.client?.active) {
         this.subscriptions[topic] = { callback, subscription: null };
-        console.warn('STOMP client not active. Subscription to admin map will be queued.');
-        // Return a dummy unsubscribe function for immediate use
+        console.warn(`STOMP client not active. Subscription to ${topic} will be queued.`);
         return () => this.unsubscribe(topic);
     }
-    // If already connected, subscribe directly
     const subscription = this.client.subscribe(topic, (message: IMessage) => {
       if (message.body) {
         callback(JSON.parse(message.body));
@@ -128,6 +193,7 @@ class TrackingService {
       this.client.deactivate();
       this.client = null;
       this.subscriptions = {};
+      this.viewport = null;
       this.connectionPromise = null;
       this.resolveConnection = null;
       this.rejectConnection = null;